@@ -0,0 +1,27 @@
+plugins {
+    id("java-library")
+}
+
+group = project.property("pluginGroup") as String
+version = project.property("pluginVersion") as String
+
+base {
+    archivesName.set("mybatis-sql-logger-agent")
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    // 由应用提供 MyBatis，拦截器本身不引入任何依赖
+    compileOnly("org.mybatis:mybatis:${project.property("mybatisVersion")}")
+}
+
+tasks {
+    // 拦截器运行在被调试的应用中，兼容 Java 8
+    withType<JavaCompile> {
+        options.release.set(8)
+        options.encoding = "UTF-8"
+    }
+}
@@ -0,0 +1,182 @@
+package com.mybatis.sql.logger.agent;
+
+import org.apache.ibatis.executor.statement.RoutingStatementHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+import java.lang.reflect.Proxy;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * MyBatis SQL 采集拦截器
+ * 在 StatementHandler 上记录每条真正发往数据库的语句的 SQL 模板、绑定参数（保留类型）、耗时（纳秒）和返回/影响行数，
+ * 以二进制事件发送到 IDE 的本地日志端口，插件直接入库，不需要开启 MyBatis 日志、也不需要解析文本。
+ * 拦截 StatementHandler 而不是 Executor：结果映射中嵌套查询（association / collection 的 select）直接调用被包装的执行器，
+ * 不经过 Executor 插件，但每条都会创建 StatementHandler；一级、二级缓存命中的查询不访问数据库，也不会被记录。
+ * 查询的耗时包含结果映射（其中的嵌套查询同时单独记录）；批量执行器的 batch 只记录加入批次，没有行数。
+ * IDE 没有在监听时不采集，只多一次 volatile 读。
+ * <p>
+ * 注册方式：mybatis-config.xml 中 {@code <plugin interceptor="com.mybatis.sql.logger.agent.SqlCaptureInterceptor"/>}，
+ * Spring Boot 中声明为 Bean；端口默认 4560，可用 property {@code port} 或系统属性 {@code mybatis.sql.logger.port} 修改
+ */
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "queryCursor", args = {Statement.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class}),
+        @Signature(type = StatementHandler.class, method = "batch", args = {Statement.class})
+})
+public class SqlCaptureInterceptor implements Interceptor {
+
+    public static final String PORT_PROPERTY = "mybatis.sql.logger.port";
+    public static final int DEFAULT_PORT = 4560;
+
+    private volatile SqlEventSender sender = SqlEventSender.forPort(Integer.getInteger(PORT_PROPERTY, DEFAULT_PORT));
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        SqlEventSender target = sender;
+        if (!target.isConnected()) {
+            return invocation.proceed();
+        }
+
+        StatementHandler handler = (StatementHandler) invocation.getTarget();
+        MappedStatement statement;
+        BoundSql boundSql;
+        List<Object> parameters;
+        try {
+            statement = mappedStatement(handler);
+            if (statement == null) {
+                return invocation.proceed();
+            }
+            boundSql = handler.getBoundSql();
+            parameters = parameterValues(statement.getConfiguration(), boundSql,
+                    handler.getParameterHandler().getParameterObject());
+        } catch (RuntimeException e) {
+            // 采集失败不影响语句执行，错误留给 MyBatis 在执行时报告
+            return invocation.proceed();
+        }
+
+        long startMillis = System.currentTimeMillis();
+        long start = System.nanoTime();
+        long rowCount = -1;
+        try {
+            Object result = invocation.proceed();
+            rowCount = rowCount(result);
+            return result;
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            target.send(SqlEventEncoder.encode(startMillis, Thread.currentThread().getName(), statement.getId(),
+                    collapseWhitespace(boundSql.getSql()), parameters, elapsedNanos, rowCount));
+        }
+    }
+
+    @Override
+    public Object plugin(Object target) {
+        return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+        String port = properties.getProperty("port");
+        if (port != null && !port.trim().isEmpty()) {
+            sender = SqlEventSender.forPort(Integer.parseInt(port.trim()));
+        }
+    }
+
+    /**
+     * 取出 StatementHandler 对应的 MappedStatement；处理器被其他插件代理时先取出被代理的对象，取不到时返回 null
+     */
+    private static MappedStatement mappedStatement(StatementHandler handler) {
+        Object target = handler;
+        while (Proxy.isProxyClass(target.getClass()) && Proxy.getInvocationHandler(target) instanceof Plugin) {
+            target = SystemMetaObject.forObject(Proxy.getInvocationHandler(target)).getValue("target");
+        }
+        MetaObject metaObject = SystemMetaObject.forObject(target);
+        if (target instanceof RoutingStatementHandler) {
+            metaObject = SystemMetaObject.forObject(metaObject.getValue("delegate"));
+        }
+        return metaObject.hasGetter("mappedStatement") ? (MappedStatement) metaObject.getValue("mappedStatement") : null;
+    }
+
+    /**
+     * 按 DefaultParameterHandler 的规则取出每个占位符绑定的值（跳过存储过程的 OUT 参数）
+     */
+    private static List<Object> parameterValues(Configuration configuration, BoundSql boundSql, Object parameter) {
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        List<Object> values = new ArrayList<>(mappings.size());
+        TypeHandlerRegistry typeHandlers = configuration.getTypeHandlerRegistry();
+        MetaObject metaObject = null;
+        for (ParameterMapping mapping : mappings) {
+            if (mapping.getMode() == ParameterMode.OUT) {
+                continue;
+            }
+            String property = mapping.getProperty();
+            Object value;
+            if (boundSql.hasAdditionalParameter(property)) {
+                value = boundSql.getAdditionalParameter(property);
+            } else if (parameter == null) {
+                value = null;
+            } else if (typeHandlers.hasTypeHandler(parameter.getClass())) {
+                value = parameter;
+            } else {
+                if (metaObject == null) {
+                    metaObject = configuration.newMetaObject(parameter);
+                }
+                value = metaObject.getValue(property);
+            }
+            values.add(value);
+        }
+        return values;
+    }
+
+    /**
+     * 查询返回行数，更新返回影响行数；batch 和游标查询没有行数
+     */
+    private static long rowCount(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Integer && (Integer) result >= 0) {
+            return (Integer) result;
+        }
+        return -1;
+    }
+
+    /**
+     * 与 MyBatis 日志一样把 SQL 中的换行和连续空白压缩成一个空格
+     */
+    static String collapseWhitespace(String sql) {
+        StringBuilder builder = new StringBuilder(sql.length());
+        boolean space = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = builder.length() > 0;
+            } else {
+                if (space) {
+                    builder.append(' ');
+                    space = false;
+                }
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}
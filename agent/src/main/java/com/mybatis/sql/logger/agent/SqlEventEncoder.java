@@ -0,0 +1,126 @@
+package com.mybatis.sql.logger.agent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * SQL 事件编码（与插件端 SqlEventDecoder 对应）
+ * 连接建立后先发送流头：魔数 F5 'M' 'S' 'Q' 和 1 字节版本号；之后每个事件一帧：4 字节大端长度 + 内容。
+ * 内容依次为：开始时间（毫秒）、线程名、语句 ID、SQL 模板、参数个数、参数、耗时（纳秒）、行数（未知为 -1）。
+ * 字符串以长度 + UTF-8 字节保存，null 的长度为 -1；参数以 1 字节类型标记开头
+ */
+final class SqlEventEncoder {
+
+    static final byte[] STREAM_HEADER = {(byte) 0xF5, 'M', 'S', 'Q', 1};
+
+    static final byte TYPE_NULL = 0;
+    static final byte TYPE_STRING = 1;
+    static final byte TYPE_INTEGER = 2;
+    static final byte TYPE_LONG = 3;
+    static final byte TYPE_DOUBLE = 4;
+    static final byte TYPE_BOOLEAN = 5;
+    static final byte TYPE_DECIMAL = 6;
+
+    private SqlEventEncoder() {
+    }
+
+    /**
+     * 编码一个事件，返回包含长度前缀的完整帧
+     */
+    static byte[] encode(long startMillis, String threadName, String statementId, String sql,
+                         List<Object> parameters, long elapsedNanos, long rowCount) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256 + sql.length());
+        DataOutputStream out = new DataOutputStream(buffer);
+        try {
+            // 长度占位，写完内容后回填
+            out.writeInt(0);
+            out.writeLong(startMillis);
+            writeString(out, threadName);
+            writeString(out, statementId);
+            writeString(out, sql);
+            out.writeInt(parameters.size());
+            for (Object value : parameters) {
+                writeParameter(out, value);
+            }
+            out.writeLong(elapsedNanos);
+            out.writeLong(rowCount);
+        } catch (IOException e) {
+            // ByteArrayOutputStream 不会抛出 IOException
+            throw new IllegalStateException(e);
+        }
+        byte[] frame = buffer.toByteArray();
+        int length = frame.length - 4;
+        frame[0] = (byte) (length >>> 24);
+        frame[1] = (byte) (length >>> 16);
+        frame[2] = (byte) (length >>> 8);
+        frame[3] = (byte) length;
+        return frame;
+    }
+
+    /**
+     * 数值保留类型（插件据此决定替换时是否加引号），其他值按 MyBatis 日志的写法转为字符串
+     */
+    private static void writeParameter(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(TYPE_INTEGER);
+            out.writeInt(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            // 按十进制写法传输，避免 0.1f 变成 0.10000000149011612
+            out.writeByte(TYPE_DECIMAL);
+            writeString(out, value.toString());
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(TYPE_DECIMAL);
+            writeString(out, ((BigDecimal) value).toPlainString());
+        } else if (value instanceof BigInteger) {
+            out.writeByte(TYPE_DECIMAL);
+            writeString(out, value.toString());
+        } else if (value instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else {
+            out.writeByte(TYPE_STRING);
+            writeString(out, toText(value));
+        }
+    }
+
+    private static String toText(Object value) {
+        if (value instanceof Date && !(value instanceof Timestamp)
+                && !(value instanceof java.sql.Date) && !(value instanceof java.sql.Time)) {
+            // java.util.Date.toString() 不是 SQL 能识别的格式，按应用所在时区转成 yyyy-MM-dd HH:mm:ss.S
+            return new Timestamp(((Date) value).getTime()).toString();
+        }
+        if (value instanceof Enum) {
+            // 与 MyBatis 默认的 EnumTypeHandler 一致
+            return ((Enum<?>) value).name();
+        }
+        if (value instanceof byte[]) {
+            return "<" + ((byte[]) value).length + " bytes>";
+        }
+        return value.toString();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
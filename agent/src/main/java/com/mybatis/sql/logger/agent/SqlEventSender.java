@@ -0,0 +1,98 @@
+package com.mybatis.sql.logger.agent;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SQL 事件发送线程（每个端口一个，守护线程）
+ * 业务线程只把编码好的帧放入有界队列，从不等待网络；队列满时丢弃事件。
+ * IDE 没有在监听时定期重连，未连接期间的事件直接丢弃，连上后不会补发过时的事件
+ */
+final class SqlEventSender implements Runnable {
+
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final int CONNECT_TIMEOUT_MS = 1000;
+    private static final long RECONNECT_DELAY_MS = 2000;
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
+    private static final Map<Integer, SqlEventSender> SENDERS = new ConcurrentHashMap<>();
+
+    private final int port;
+    private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private volatile boolean connected = false;
+
+    private SqlEventSender(int port) {
+        this.port = port;
+    }
+
+    /**
+     * 获取发送到指定端口的发送线程，首次获取时启动
+     */
+    static SqlEventSender forPort(int port) {
+        return SENDERS.computeIfAbsent(port, p -> {
+            SqlEventSender sender = new SqlEventSender(p);
+            Thread thread = new Thread(sender, "mybatis-sql-logger-sender-" + p);
+            thread.setDaemon(true);
+            thread.start();
+            return sender;
+        });
+    }
+
+    /**
+     * 是否已连接到 IDE；未连接时拦截器不采集事件
+     */
+    boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * 放入发送队列；未连接或队列已满时丢弃
+     */
+    void send(byte[] frame) {
+        if (connected) {
+            queue.offer(frame);
+        }
+    }
+
+    @Override
+    public void run() {
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        while (!Thread.currentThread().isInterrupted()) {
+            try (Socket socket = new Socket()) {
+                socket.connect(address, CONNECT_TIMEOUT_MS);
+                OutputStream out = new BufferedOutputStream(socket.getOutputStream(), WRITE_BUFFER_BYTES);
+                out.write(SqlEventEncoder.STREAM_HEADER);
+                out.flush();
+                connected = true;
+                while (true) {
+                    // 一次写出队列中已有的所有帧，队列空时才刷新
+                    byte[] frame = queue.take();
+                    do {
+                        out.write(frame);
+                    } while ((frame = queue.poll()) != null);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // IDE 未监听或连接断开，稍后重连
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                connected = false;
+                queue.clear();
+            }
+            try {
+                Thread.sleep(RECONNECT_DELAY_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
@@ -11,7 +11,11 @@ repositories {
 }
 
 dependencies {
+    implementation(project(":core"))
     implementation("org.apache.commons:commons-lang3:${project.property("commonsLang3Version")}")
+    testImplementation(platform("org.junit:junit-bom:${project.property("junitVersion")}"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
 // 配置 IntelliJ Platform Plugin
@@ -30,6 +34,10 @@ tasks {
         options.encoding = "UTF-8"
     }
 
+    test {
+        useJUnitPlatform()
+    }
+
     patchPluginXml {
         sinceBuild.set(project.property("pluginSinceBuild") as String)
         untilBuild.set(project.property("pluginUntilBuild") as String)
@@ -0,0 +1,41 @@
+plugins {
+    id("java-library")
+    id("application")
+}
+
+group = project.property("pluginGroup") as String
+version = project.property("pluginVersion") as String
+
+base {
+    archivesName.set("mybatis-sql-logger-core")
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    testImplementation(platform("org.junit:junit-bom:${project.property("junitVersion")}"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    // 用拦截器端的编码器验证 SQL 事件的线路格式
+    testImplementation(project(":agent"))
+}
+
+// 命令行工具：./gradlew :core:installDist 后运行 core/build/install/mybatis-sql-logger/bin/mybatis-sql-logger
+application {
+    mainClass.set("com.mybatis.sql.logger.cli.SqlLogCli")
+    applicationName = "mybatis-sql-logger"
+}
+
+tasks {
+    // 不依赖 IntelliJ 平台，与插件使用相同的 Java 版本
+    withType<JavaCompile> {
+        options.release.set((project.property("javaVersion") as String).toInt())
+        options.encoding = "UTF-8"
+    }
+
+    test {
+        useJUnitPlatform()
+    }
+}
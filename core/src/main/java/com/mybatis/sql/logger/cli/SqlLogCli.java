@@ -0,0 +1,327 @@
+package com.mybatis.sql.logger.cli;
+
+import com.mybatis.sql.logger.parser.CorrelationKeyExtractor;
+import com.mybatis.sql.logger.parser.LogFileIngester;
+import com.mybatis.sql.logger.parser.SqlFilter;
+import com.mybatis.sql.logger.parser.SqlLogParser;
+import com.mybatis.sql.logger.parser.SqlRecordWriter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * 命令行工具：从日志文件或标准输入中提取 MyBatis SQL，输出 SQL 脚本、JSON Lines、CSV 或按语句汇总的统计。
+ * 日志文件按块内存映射、并行解析（与插件的打开日志文件相同）；标准输入逐行流式解析，可以接在 tail -f 之后。
+ * 两种方式的内存占用都与日志大小无关
+ */
+public final class SqlLogCli {
+
+    private static final int BUFFER_CHARS = 64 * 1024;
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "用法: mybatis-sql-logger [选项] [日志文件]",
+            "不指定日志文件或指定为 - 时读取标准输入",
+            "",
+            "选项:",
+            "  -f, --format <sql|jsonl|csv|stats>   输出格式，默认 sql",
+            "  -o, --output <文件>                   输出到文件，默认标准输出（UTF-8）",
+            "  -e, --encoding <编码>                 日志编码，默认 UTF-8",
+            "      --filter <文件>                   过滤规则文件（与插件设置中的规则语法相同）",
+            "      --correlation <auto|thread|logger|pattern>",
+            "                                       Preparing/Parameters 关联方式，默认 auto",
+            "      --correlation-pattern <正则>      pattern 关联方式使用的正则（第一个捕获组）",
+            "      --max-line <字符数>               单行最大长度，超长的行被丢弃，默认 4194304",
+            "      --top <n>                         stats 输出的语句条数，默认 20",
+            "  -j, --threads <n>                     解析日志文件的线程数，默认 CPU 核数",
+            "  -h, --help                            显示帮助");
+
+    private SqlLogCli() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.in, System.out, System.err));
+    }
+
+    /**
+     * @return 退出码：0 成功，1 读写失败，2 参数错误
+     */
+    static int run(String[] args, InputStream stdin, PrintStream stdout, PrintStream stderr) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            stderr.println(e.getMessage());
+            stderr.println(USAGE);
+            return 2;
+        }
+        if (options.help) {
+            stdout.println(USAGE);
+            return 0;
+        }
+
+        String filterRules;
+        try {
+            filterRules = options.filterFile != null ? Files.readString(options.filterFile) : "";
+            SqlFilter.compile(filterRules);
+        } catch (IOException e) {
+            stderr.println("无法读取过滤规则文件: " + e.getMessage());
+            return 2;
+        } catch (IllegalArgumentException e) {
+            stderr.println("过滤规则有误: " + e.getMessage());
+            return 2;
+        }
+
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(openOutput(options, stdout),
+                StandardCharsets.UTF_8), BUFFER_CHARS)) {
+            new Job(options, filterRules, out).run(stdin);
+            return 0;
+        } catch (IOException e) {
+            stderr.println("处理失败: " + e.getMessage());
+            return 1;
+        } catch (UncheckedIOException e) {
+            stderr.println("处理失败: " + e.getCause().getMessage());
+            return 1;
+        }
+    }
+
+    private static OutputStream openOutput(Options options, PrintStream stdout) throws IOException {
+        if (options.output == null) {
+            // 关闭 Writer 时不关闭标准输出
+            return new FilterOutputStream(stdout) {
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    stdout.write(b, off, len);
+                }
+
+                @Override
+                public void close() {
+                    stdout.flush();
+                }
+            };
+        }
+        return Files.newOutputStream(options.output);
+    }
+
+    /**
+     * 一次运行：解析输入，把每条 SQL 交给记录输出或统计
+     */
+    private static final class Job {
+        private final Options options;
+        private final String filterRules;
+        private final Writer out;
+        private final SqlRecordWriter recordWriter;
+        private final SqlStatsReport report;
+        private long filteredCount = 0;
+        private long droppedLineCount = 0;
+
+        Job(Options options, String filterRules, Writer out) {
+            this.options = options;
+            this.filterRules = filterRules;
+            this.out = out;
+            this.recordWriter = options.format != null ? new SqlRecordWriter(out, options.format) : null;
+            this.report = options.format == null ? new SqlStatsReport() : null;
+        }
+
+        void run(InputStream stdin) throws IOException {
+            if (recordWriter != null) {
+                recordWriter.writeHeader();
+            }
+            if (options.input == null) {
+                parseStream(stdin);
+            } else {
+                parseFile(options.input);
+            }
+            if (report != null) {
+                report.print(out, options.top, filteredCount, droppedLineCount);
+            }
+        }
+
+        /**
+         * 日志文件：按块并行解析；离线解析不按墙钟时间淘汰待配对语句，只受容量限制
+         */
+        private void parseFile(Path file) throws IOException {
+            LogFileIngester ingester = new LogFileIngester(() -> newParser(0, 0), options.charset,
+                    options.maxLineLength, options.threads);
+            ingester.ingest(file, this::accept, (parsedBytes, totalBytes) -> {
+            });
+            filteredCount += ingester.getFilteredCount();
+            droppedLineCount += ingester.getDroppedLineCount();
+        }
+
+        /**
+         * 标准输入：逐行解析；暂时没有更多输入时刷新输出，接在 tail -f 之后也能及时看到结果
+         */
+        private void parseStream(InputStream stdin) throws IOException {
+            SqlLogParser parser = newParser(SqlLogParser.DEFAULT_PENDING_TTL_MILLIS,
+                    SqlLogParser.DEFAULT_COMPLETION_WAIT_MILLIS);
+            Consumer<SqlLogParser.ParsedSql> sink = this::accept;
+            BufferedReader reader = new BufferedReader(new InputStreamReader(stdin, options.charset), BUFFER_CHARS);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() > options.maxLineLength) {
+                    droppedLineCount++;
+                } else if (!line.isEmpty()) {
+                    // 逐行更新参考时间，没有日期的日志跨零点后仍落在正确的一天
+                    parser.setLogClock(System.currentTimeMillis());
+                    parser.parseLine(line, sink);
+                }
+                if (!reader.ready()) {
+                    parser.flushExpired(sink);
+                    out.flush();
+                }
+            }
+            parser.flush(sink);
+            filteredCount += parser.takeFilteredCount();
+        }
+
+        private SqlLogParser newParser(long pendingTtlMillis, long completionWaitMillis) {
+            SqlLogParser parser = new SqlLogParser(
+                    new CorrelationKeyExtractor(options.correlationMode, options.correlationPattern),
+                    SqlLogParser.DEFAULT_MAX_PENDING, pendingTtlMillis, completionWaitMillis);
+            // 过滤规则的匹配缓存不是线程安全的，每个解析器单独编译
+            parser.setFilter(SqlFilter.compile(filterRules));
+            return parser;
+        }
+
+        private void accept(SqlLogParser.ParsedSql parsedSql) {
+            if (report != null) {
+                report.record(parsedSql);
+                return;
+            }
+            try {
+                recordWriter.write(parsedSql);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * 命令行参数
+     */
+    static final class Options {
+        // null 表示 stats
+        SqlRecordWriter.Format format = SqlRecordWriter.Format.SQL;
+        Path input;
+        Path output;
+        Charset charset = StandardCharsets.UTF_8;
+        Path filterFile;
+        CorrelationKeyExtractor.Mode correlationMode = CorrelationKeyExtractor.Mode.AUTO;
+        String correlationPattern = "";
+        int maxLineLength = 4 * 1024 * 1024;
+        int top = 20;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean help = false;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            boolean inputGiven = false;
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "-h":
+                    case "--help":
+                        options.help = true;
+                        break;
+                    case "-f":
+                    case "--format":
+                        String format = value(args, ++i, arg).toLowerCase(Locale.ROOT);
+                        options.format = "stats".equals(format) ? null : parseFormat(format);
+                        break;
+                    case "-o":
+                    case "--output":
+                        options.output = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "-e":
+                    case "--encoding":
+                        try {
+                            options.charset = Charset.forName(value(args, ++i, arg));
+                        } catch (IllegalArgumentException e) {
+                            throw new IllegalArgumentException("不支持的编码: " + args[i]);
+                        }
+                        break;
+                    case "--filter":
+                        options.filterFile = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "--correlation":
+                        try {
+                            options.correlationMode = CorrelationKeyExtractor.Mode.valueOf(
+                                    value(args, ++i, arg).toUpperCase(Locale.ROOT));
+                        } catch (IllegalArgumentException e) {
+                            throw new IllegalArgumentException("未知的关联方式: " + args[i]);
+                        }
+                        break;
+                    case "--correlation-pattern":
+                        options.correlationPattern = value(args, ++i, arg);
+                        break;
+                    case "--max-line":
+                        options.maxLineLength = positive(args, ++i, arg);
+                        break;
+                    case "--top":
+                        options.top = positive(args, ++i, arg);
+                        break;
+                    case "-j":
+                    case "--threads":
+                        options.threads = positive(args, ++i, arg);
+                        break;
+                    default:
+                        if (arg.startsWith("-") && !"-".equals(arg)) {
+                            throw new IllegalArgumentException("未知的选项: " + arg);
+                        }
+                        if (inputGiven) {
+                            throw new IllegalArgumentException("只能指定一个日志文件");
+                        }
+                        inputGiven = true;
+                        options.input = "-".equals(arg) ? null : Paths.get(arg);
+                        break;
+                }
+            }
+            return options;
+        }
+
+        private static SqlRecordWriter.Format parseFormat(String format) {
+            for (SqlRecordWriter.Format value : SqlRecordWriter.Format.values()) {
+                if (value.getExtension().equals(format)) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("未知的输出格式: " + format);
+        }
+
+        private static String value(String[] args, int index, String option) {
+            if (index >= args.length) {
+                throw new IllegalArgumentException("选项 " + option + " 缺少参数");
+            }
+            return args[index];
+        }
+
+        private static int positive(String[] args, int index, String option) {
+            String value = value(args, index, option);
+            try {
+                int number = Integer.parseInt(value);
+                if (number > 0) {
+                    return number;
+                }
+            } catch (NumberFormatException ignored) {
+                // 下面统一报错
+            }
+            throw new IllegalArgumentException("选项 " + option + " 需要正整数: " + value);
+        }
+    }
+}
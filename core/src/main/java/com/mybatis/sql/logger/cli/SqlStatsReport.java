@@ -0,0 +1,106 @@
+package com.mybatis.sql.logger.cli;
+
+import com.mybatis.sql.logger.parser.ElapsedTime;
+import com.mybatis.sql.logger.parser.SqlFingerprint;
+import com.mybatis.sql.logger.parser.SqlLogParser;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按 SQL 指纹汇总的统计（stats 输出格式）
+ * 每个指纹只保存次数、总耗时、最大耗时（纳秒）和总行数；指纹数有上限，超出后的语句只计入总数，内存与日志大小无关
+ */
+final class SqlStatsReport {
+
+    // 最多跟踪的不同指纹数
+    static final int MAX_FINGERPRINTS = 10_000;
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private long statementCount = 0;
+    private long totalElapsedNanos = 0;
+    private long untrackedCount = 0;
+
+    void record(SqlLogParser.ParsedSql parsedSql) {
+        statementCount++;
+        if (parsedSql.getElapsedNanos() >= 0) {
+            totalElapsedNanos += parsedSql.getElapsedNanos();
+        }
+        SqlFingerprint fingerprint = parsedSql.getFingerprint();
+        Entry entry = entries.get(fingerprint.getHash());
+        if (entry == null) {
+            if (entries.size() >= MAX_FINGERPRINTS) {
+                untrackedCount++;
+                return;
+            }
+            entry = new Entry(fingerprint.getNormalizedSql(), parsedSql.getStatementId());
+            entries.put(fingerprint.getHash(), entry);
+        }
+        entry.record(parsedSql);
+    }
+
+    /**
+     * 输出汇总和按总耗时（其次按次数）排序的前 top 条语句
+     */
+    void print(Writer out, int top, long filteredCount, long droppedLineCount) throws IOException {
+        out.write(String.format("语句: %d  总耗时: %s ms  不同语句: %d  被过滤: %d  超长丢弃行: %d%n",
+                statementCount, ElapsedTime.format(totalElapsedNanos), entries.size(), filteredCount, droppedLineCount));
+        if (untrackedCount > 0) {
+            out.write(String.format("超出 %d 个指纹上限未统计的语句: %d%n", MAX_FINGERPRINTS, untrackedCount));
+        }
+        out.write(System.lineSeparator());
+        out.write(String.format("%10s %12s %10s %10s %12s  %s%n", "次数", "总耗时(ms)", "平均(ms)", "最大(ms)", "总行数", "语句"));
+
+        List<Entry> sorted = new ArrayList<>(entries.values());
+        sorted.sort(Comparator.comparingLong((Entry e) -> e.totalElapsedNanos)
+                .thenComparingLong(e -> e.count).reversed());
+        for (Entry entry : sorted.subList(0, Math.min(top, sorted.size()))) {
+            out.write(String.format("%10d %12s %10s %10s %12s  %s%n",
+                    entry.count,
+                    entry.timedCount > 0 ? ElapsedTime.format(entry.totalElapsedNanos) : "-",
+                    entry.timedCount > 0 ? ElapsedTime.format(entry.totalElapsedNanos / entry.timedCount) : "-",
+                    entry.timedCount > 0 ? ElapsedTime.format(entry.maxElapsedNanos) : "-",
+                    entry.countedRows > 0 ? String.valueOf(entry.totalRows) : "-",
+                    entry.statementId != null ? entry.statementId : "-"));
+            out.write(String.format("%58s%s%n", "", entry.normalizedSql));
+        }
+    }
+
+    /**
+     * 单个指纹的统计；耗时和行数未知（-1）的执行不计入对应的合计
+     */
+    private static final class Entry {
+        final String normalizedSql;
+        final String statementId;
+        long count;
+        long timedCount;
+        long totalElapsedNanos;
+        long maxElapsedNanos;
+        long countedRows;
+        long totalRows;
+
+        Entry(String normalizedSql, String statementId) {
+            this.normalizedSql = normalizedSql;
+            this.statementId = statementId;
+        }
+
+        void record(SqlLogParser.ParsedSql parsedSql) {
+            count++;
+            long elapsed = parsedSql.getElapsedNanos();
+            if (elapsed >= 0) {
+                timedCount++;
+                totalElapsedNanos += elapsed;
+                maxElapsedNanos = Math.max(maxElapsedNanos, elapsed);
+            }
+            if (parsedSql.getRowCount() >= 0) {
+                countedRows++;
+                totalRows += parsedSql.getRowCount();
+            }
+        }
+    }
+}
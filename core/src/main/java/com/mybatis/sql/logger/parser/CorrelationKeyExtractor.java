@@ -0,0 +1,160 @@
+package com.mybatis.sql.logger.parser;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 关联键提取器
+ * 从日志行前缀（MyBatis 标记之前的部分）中提取线程名、Logger 名或自定义捕获组，
+ * 用于把同一条语句的 Preparing / Parameters / Total 行配对，避免多线程日志交错时串行
+ */
+public class CorrelationKeyExtractor {
+
+    /**
+     * 关联方式
+     */
+    public enum Mode {
+        AUTO,       // 线程名 + Logger 名（虚拟线程名为空时退化为 Logger 名）
+        THREAD,     // 仅线程名
+        LOGGER,     // 仅 Logger 名（Mapper 方法）
+        PATTERN     // 自定义正则的第一个捕获组
+    }
+
+    private final Mode mode;
+    private final Pattern pattern;
+
+    public CorrelationKeyExtractor() {
+        this(Mode.AUTO, null);
+    }
+
+    public CorrelationKeyExtractor(Mode mode, String customPattern) {
+        Pattern compiled = null;
+        if (mode == Mode.PATTERN && customPattern != null && !customPattern.isEmpty()) {
+            try {
+                compiled = Pattern.compile(customPattern);
+            } catch (PatternSyntaxException e) {
+                // 正则无效时退化为 AUTO
+            }
+        }
+        this.mode = mode == Mode.PATTERN && compiled == null ? Mode.AUTO : mode;
+        this.pattern = compiled;
+    }
+
+    /**
+     * 提取关联键
+     *
+     * @param line        日志行
+     * @param markerIndex MyBatis 标记在行中的起始位置
+     * @return 关联键；行中没有可识别的前缀时返回 null
+     */
+    public String extract(CharSequence line, int markerIndex) {
+        if (markerIndex <= 0) {
+            return null;
+        }
+
+        switch (mode) {
+            case THREAD:
+                return extractThread(line, markerIndex);
+            case LOGGER:
+                return extractLogger(line, markerIndex);
+            case PATTERN:
+                Matcher matcher = pattern.matcher(line).region(0, markerIndex);
+                return matcher.find() && matcher.groupCount() >= 1 ? matcher.group(1) : null;
+            case AUTO:
+            default:
+                String thread = extractThread(line, markerIndex);
+                String logger = extractLogger(line, markerIndex);
+                if (thread == null && logger == null) {
+                    return null;
+                }
+                return (thread == null ? "" : thread) + '|' + (logger == null ? "" : logger);
+        }
+    }
+
+    /**
+     * 提取线程名：标记之前最后一个 [...] 中的内容
+     */
+    static String extractThread(CharSequence line, int markerIndex) {
+        int close = lastIndexOf(line, ']', markerIndex - 1);
+        if (close < 0) {
+            return null;
+        }
+        int open = lastIndexOf(line, '[', close - 1);
+        if (open < 0) {
+            return null;
+        }
+        return line.subSequence(open + 1, close).toString().trim();
+    }
+
+    /**
+     * 提取 Logger 名：标记之前跳过分隔符（空白、:、-）后的最后一个词
+     * 例如 "c.u.t.m.UserMapper.selectById : ==>" 或 "com.acme.mapper.OrderMapper.insert - ==>"
+     */
+    static String extractLogger(CharSequence line, int markerIndex) {
+        int end = markerIndex;
+        while (end > 0 && isSeparator(line.charAt(end - 1))) {
+            end--;
+        }
+        int start = end;
+        while (start > 0 && !Character.isWhitespace(line.charAt(start - 1))) {
+            start--;
+        }
+        if (start == end || line.charAt(end - 1) == ']') {
+            return null;
+        }
+        return line.subSequence(start, end).toString();
+    }
+
+    /**
+     * 提取 Mapper 语句 ID：Logger 名去掉外层方括号后，必须是以点分隔的 Java 标识符
+     * （如 c.u.t.m.UserMapper.selectPage），否则返回 null
+     */
+    static String extractStatementId(CharSequence line, int markerIndex) {
+        int end = markerIndex;
+        while (end > 0 && isSeparator(line.charAt(end - 1))) {
+            end--;
+        }
+        if (end > 0 && line.charAt(end - 1) == ']') {
+            end--;
+        }
+        int start = end;
+        while (start > 0 && !Character.isWhitespace(line.charAt(start - 1)) && line.charAt(start - 1) != '[') {
+            start--;
+        }
+        return isQualifiedName(line, start, end) ? line.subSequence(start, end).toString() : null;
+    }
+
+    private static boolean isQualifiedName(CharSequence line, int start, int end) {
+        boolean segmentStart = true;
+        boolean hasDot = false;
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (c == '.') {
+                if (segmentStart) {
+                    return false;
+                }
+                hasDot = true;
+                segmentStart = true;
+            } else if (segmentStart ? Character.isJavaIdentifierStart(c) : Character.isJavaIdentifierPart(c)) {
+                segmentStart = false;
+            } else {
+                return false;
+            }
+        }
+        return hasDot && !segmentStart;
+    }
+
+    private static boolean isSeparator(char c) {
+        return Character.isWhitespace(c) || c == ':' || c == '-';
+    }
+
+    private static int lastIndexOf(CharSequence line, char target, int from) {
+        for (int i = from; i >= 0; i--) {
+            if (line.charAt(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,57 @@
+package com.mybatis.sql.logger.parser;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 耗时换算
+ * 耗时在解析、存储和统计中一律以纳秒保存（拦截器采集的是 System.nanoTime 差值，亚毫秒的语句不能丢），
+ * 只在展示和导出时换算为毫秒；负值表示未知耗时
+ */
+public final class ElapsedTime {
+
+    public static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private ElapsedTime() {
+    }
+
+    /**
+     * 毫秒换算为纳秒（日志时间戳只精确到毫秒），负值原样保留为 -1
+     */
+    public static long fromMillis(long millis) {
+        return millis < 0 ? -1 : millis * NANOS_PER_MILLI;
+    }
+
+    /**
+     * 纳秒换算为整毫秒（向下取整），用于与毫秒阈值比较
+     */
+    public static long toMillis(long nanos) {
+        return nanos < 0 ? -1 : nanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * 纳秒换算为毫秒（带小数），用于表格中可排序的数值列
+     */
+    public static double toMillisDouble(long nanos) {
+        return nanos < 0 ? -1 : nanos / (double) NANOS_PER_MILLI;
+    }
+
+    /**
+     * 精确的毫秒数文本（最多 6 位小数，去掉末尾的 0），用于导出
+     */
+    public static String toExactMillis(long nanos) {
+        return BigDecimal.valueOf(nanos, 6).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * 展示用的毫秒数文本：10 ms 以下保留 3 位小数，1 秒以下保留 1 位，其余取整；未知耗时返回空串
+     */
+    public static String format(long nanos) {
+        if (nanos < 0) {
+            return "";
+        }
+        int scale = nanos < 10 * NANOS_PER_MILLI ? 3 : nanos < 1000 * NANOS_PER_MILLI ? 1 : 0;
+        return BigDecimal.valueOf(nanos, 6).setScale(scale, RoundingMode.HALF_UP).stripTrailingZeros()
+                .toPlainString();
+    }
+}
@@ -0,0 +1,280 @@
+package com.mybatis.sql.logger.parser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 离线日志文件解析
+ * 日志文件以只读方式内存映射，按固定大小切块，每块由独立的解析器在 ForkJoinPool 中并行解析。
+ * 一行属于其首字节所在的块；块的解析器读完本块后继续向后读（最多 MAX_OVERRUN_BYTES），
+ * 只为本块中已开始、尚未收到 Parameters 或 Total/Updates 的语句收尾，新语句留给下一块。
+ * 下一块开头找不到 Preparing 的 Parameters / Total 行和延续行会被自然忽略，因此跨块的语句只输出一次。
+ * 各块的结果按文件顺序交给调用方；同时在途的块数有上限，内存占用与文件大小无关
+ */
+public final class LogFileIngester {
+
+    // 每块的字节数
+    static final int CHUNK_BYTES = 16 * 1024 * 1024;
+    // 块结束后为跨块语句收尾时最多继续读取的字节数
+    static final int MAX_OVERRUN_BYTES = 8 * 1024 * 1024;
+    // 检查取消的间隔（行数）
+    private static final int CANCEL_CHECK_LINES = 4096;
+
+    /**
+     * 解析进度回调，每交出一块结果调用一次；可以抛出运行时异常取消解析
+     */
+    public interface Progress {
+        void update(long parsedBytes, long totalBytes);
+    }
+
+    private final Supplier<SqlLogParser> parserFactory;
+    private final Charset charset;
+    private final int maxLineLength;
+    private final int parallelism;
+    private volatile boolean cancelled = false;
+    private long filteredCount = 0;
+    private long droppedLineCount = 0;
+
+    /**
+     * @param parserFactory 为每块创建解析器（关联键、容量、过滤规则等与实时解析一致）
+     * @param charset       日志文件编码
+     * @param maxLineLength 超过该长度的行被丢弃
+     * @param parallelism   并行解析的线程数
+     */
+    public LogFileIngester(Supplier<SqlLogParser> parserFactory, Charset charset, int maxLineLength,
+                           int parallelism) {
+        this.parserFactory = parserFactory;
+        this.charset = charset;
+        this.maxLineLength = Math.max(maxLineLength, 1024);
+        this.parallelism = Math.max(parallelism, 1);
+    }
+
+    /**
+     * 解析整个文件，得到的 SQL 按文件顺序交给 sink（在调用线程中）
+     *
+     * @return 解析出的 SQL 条数
+     */
+    public long ingest(Path file, Consumer<SqlLogParser.ParsedSql> sink, Progress progress) throws IOException {
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunks = (size + CHUNK_BYTES - 1) / CHUNK_BYTES;
+            // 在途块数上限：保持所有线程忙碌，又不让已完成的块无限堆积
+            int window = parallelism * 2;
+            ArrayDeque<ForkJoinTask<ChunkResult>> inFlight = new ArrayDeque<>();
+            long next = 0;
+            long count = 0;
+            for (long chunk = 0; chunk < chunks; chunk++) {
+                while (next < chunks && inFlight.size() < window) {
+                    long index = next++;
+                    inFlight.add(pool.submit(() -> parseChunk(channel, size, index, lastModified)));
+                }
+                ChunkResult result = join(inFlight.poll());
+                for (SqlLogParser.ParsedSql parsedSql : result.statements) {
+                    sink.accept(parsedSql);
+                }
+                count += result.statements.size();
+                filteredCount += result.filteredCount;
+                droppedLineCount += result.droppedLineCount;
+                progress.update(Math.min((chunk + 1) * CHUNK_BYTES, size), size);
+            }
+            return count;
+        } finally {
+            cancelled = true;
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 被过滤规则丢弃的语句数
+     */
+    public long getFilteredCount() {
+        return filteredCount;
+    }
+
+    /**
+     * 因超长被丢弃的行数
+     */
+    public long getDroppedLineCount() {
+        return droppedLineCount;
+    }
+
+    private static ChunkResult join(ForkJoinTask<ChunkResult> task) throws IOException {
+        try {
+            return task.join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 解析一块：映射 [块起点 - 1, 块终点 + 收尾余量 + 最长行)，从块内第一个行首开始
+     */
+    private ChunkResult parseChunk(FileChannel channel, long size, long index, long lastModified) {
+        long chunkStart = index * CHUNK_BYTES;
+        long chunkEnd = Math.min(chunkStart + CHUNK_BYTES, size);
+        long regionStart = Math.max(chunkStart - 1, 0);
+        long regionEnd = Math.min(chunkEnd + (long) MAX_OVERRUN_BYTES + maxLineLength + 1, size);
+        MappedByteBuffer region;
+        try {
+            region = channel.map(FileChannel.MapMode.READ_ONLY, regionStart, regionEnd - regionStart);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        SqlLogParser parser = parserFactory.get();
+        parser.setLogClock(lastModified);
+        ChunkResult result = new ChunkResult();
+        Consumer<SqlLogParser.ParsedSql> sink = result.statements::add;
+        ByteLine line = new ByteLine(region);
+
+        int end = (int) (chunkEnd - regionStart);
+        int limit = (int) (regionEnd - regionStart);
+        int overrunEnd = Math.min(end + MAX_OVERRUN_BYTES, limit);
+        // 第一块从文件开头开始；其他块从前一块最后一个字节之后的第一个行首开始
+        int position = index == 0 ? 0 : indexOf(region, (byte) '\n', 0, limit) + 1;
+        if (position == 0 && index != 0) {
+            return result;
+        }
+
+        int lines = 0;
+        while (position < limit) {
+            if (position >= end) {
+                // 进入收尾阶段：没有未完成的语句或超过余量时结束
+                if (position >= overrunEnd || !parser.hasUnfinishedSql()) {
+                    break;
+                }
+                parser.setAcceptNewStatements(false);
+            }
+            // 找行尾的同时记录是否出现箭头字符：除前缀被截断的 Parameters 行外，所有 MyBatis 标记都带 ==> 或 <==
+            int lineEnd = position;
+            boolean arrow = false;
+            byte b;
+            while (lineEnd < limit && (b = region.get(lineEnd)) != '\n') {
+                if (b == '=' || b == '<') {
+                    arrow = true;
+                }
+                lineEnd++;
+            }
+            if (lineEnd == limit && regionEnd < size) {
+                // 映射区域内没有行尾：超长行或收尾余量用完
+                break;
+            }
+            int contentEnd = lineEnd > position && region.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            if (contentEnd - position > maxLineLength) {
+                result.droppedLineCount++;
+            } else if (contentEnd > position) {
+                parseLine(parser, line.reset(position, contentEnd), arrow, sink);
+            }
+            position = lineEnd + 1;
+
+            if (++lines % CANCEL_CHECK_LINES == 0 && cancelled) {
+                throw new CancellationException();
+            }
+        }
+        parser.flush(sink);
+        result.filteredCount = parser.takeFilteredCount();
+        return result;
+    }
+
+    /**
+     * 先在字节上扫描 MyBatis 标记（标记都是 ASCII），只有可能相关的行才解码成字符串交给解析器
+     */
+    private void parseLine(SqlLogParser parser, ByteLine line, boolean arrow,
+                           Consumer<SqlLogParser.ParsedSql> sink) {
+        if (!parser.isCollectingLines()
+                && ((!arrow && line.firstNonBlank() != 'P') || LogMarkerScanner.scan(line) == 0)) {
+            return;
+        }
+        parser.parseLine(line.decode(charset), sink);
+    }
+
+    private static int indexOf(MappedByteBuffer buffer, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 一块的解析结果
+     */
+    private static final class ChunkResult {
+        final List<SqlLogParser.ParsedSql> statements = new ArrayList<>();
+        long filteredCount;
+        long droppedLineCount;
+    }
+
+    /**
+     * 映射区域上一行的只读字符视图，按 ISO-8859-1 逐字节映射为字符，只用于扫描 ASCII 标记
+     */
+    private static final class ByteLine implements CharSequence {
+        private final MappedByteBuffer buffer;
+        private int start;
+        private int end;
+
+        ByteLine(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        ByteLine reset(int start, int end) {
+            this.start = start;
+            this.end = end;
+            return this;
+        }
+
+        char firstNonBlank() {
+            for (int i = start; i < end; i++) {
+                char c = (char) (buffer.get(i) & 0xFF);
+                if (!Character.isWhitespace(c)) {
+                    return c;
+                }
+            }
+            return 0;
+        }
+
+        String decode(Charset charset) {
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+            return new String(bytes, charset);
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(start + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return new ByteLine(buffer).reset(start + from, start + to);
+        }
+
+        @Override
+        public String toString() {
+            return decode(StandardCharsets.ISO_8859_1);
+        }
+    }
+}
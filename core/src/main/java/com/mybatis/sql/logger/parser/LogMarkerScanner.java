@@ -0,0 +1,109 @@
+package com.mybatis.sql.logger.parser;
+
+/**
+ * MyBatis 日志标记扫描器
+ * 单次遍历找出一行中出现的所有 MyBatis 标记，不使用正则、不分配对象
+ */
+final class LogMarkerScanner {
+
+    static final int ARROW_OUT = 1;        // ==>
+    static final int PREPARING = 1 << 1;   // Preparing:
+    static final int PARAMETERS = 1 << 2;  // Parameters:
+    static final int ARROW_IN = 1 << 3;    // <==
+    static final int TOTAL = 1 << 4;       // Total:
+    static final int UPDATES = 1 << 5;     // Updates:
+
+    private static final String KW_PREPARING = "preparing:";
+    private static final String KW_PARAMETERS = "parameters:";
+    private static final String KW_TOTAL = "total:";
+    private static final String KW_UPDATES = "updates:";
+
+    private LogMarkerScanner() {
+    }
+
+    /**
+     * 扫描整行，返回出现的标记位掩码；没有任何标记时返回 0
+     * 关键字按 ASCII 忽略大小写匹配，与原正则的 CASE_INSENSITIVE 保持一致
+     */
+    static int scan(CharSequence line) {
+        int mask = 0;
+        int length = line.length();
+        for (int i = 0; i < length; i++) {
+            // 首字符分发表：只有少数几个字符可能开启一个标记
+            switch (line.charAt(i)) {
+                case '=':
+                    if (i + 2 < length && line.charAt(i + 1) == '=' && line.charAt(i + 2) == '>') {
+                        mask |= ARROW_OUT;
+                        i += 2;
+                    }
+                    break;
+                case '<':
+                    if (i + 2 < length && line.charAt(i + 1) == '=' && line.charAt(i + 2) == '=') {
+                        mask |= ARROW_IN;
+                        i += 2;
+                    }
+                    break;
+                case 'P':
+                case 'p':
+                    if (matchesIgnoreCase(line, i, KW_PREPARING)) {
+                        mask |= PREPARING;
+                        i += KW_PREPARING.length() - 1;
+                    } else if (matchesIgnoreCase(line, i, KW_PARAMETERS)) {
+                        mask |= PARAMETERS;
+                        i += KW_PARAMETERS.length() - 1;
+                    }
+                    break;
+                case 'T':
+                case 't':
+                    if (matchesIgnoreCase(line, i, KW_TOTAL)) {
+                        mask |= TOTAL;
+                        i += KW_TOTAL.length() - 1;
+                    }
+                    break;
+                case 'U':
+                case 'u':
+                    if (matchesIgnoreCase(line, i, KW_UPDATES)) {
+                        mask |= UPDATES;
+                        i += KW_UPDATES.length() - 1;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * 判断 offset 处是否为指定关键字（关键字本身为小写 ASCII）
+     */
+    private static boolean matchesIgnoreCase(CharSequence line, int offset, String keyword) {
+        int keywordLength = keyword.length();
+        if (offset + keywordLength > line.length()) {
+            return false;
+        }
+        for (int k = 0; k < keywordLength; k++) {
+            char c = line.charAt(offset + k);
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            if (c != keyword.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断是否为空白行（不分配新字符串）
+     */
+    static boolean isBlank(CharSequence line) {
+        int length = line.length();
+        for (int i = 0; i < length; i++) {
+            if (!Character.isWhitespace(line.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,136 @@
+package com.mybatis.sql.logger.parser;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 日志时间戳提取
+ * 从日志前缀中找出第一个 HH:mm:ss[.SSS] 形式的时间；紧挨在前面有 yyyy-MM-dd（或 yyyy/MM/dd，
+ * 以空格或 T 分隔，logback、log4j 的默认格式）时一并解析日期。
+ * 结果编码为一个 long（日志时间）：有日期时为 纪元日 * 一天毫秒数 + 当天毫秒数，没有日期时只有当天毫秒数（小于一天）
+ */
+final class LogTimestamp {
+
+    static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private LogTimestamp() {
+    }
+
+    /**
+     * 在 [0, end) 范围内查找时间戳
+     *
+     * @return 日志时间（见类说明）；没有时间戳时返回 -1
+     */
+    static long logTime(CharSequence line, int end) {
+        int limit = Math.min(end, line.length()) - 8;
+        for (int i = 0; i <= limit; i++) {
+            if (line.charAt(i + 2) != ':' || line.charAt(i + 5) != ':') {
+                continue;
+            }
+            if (i > 0 && isDigit(line.charAt(i - 1))) {
+                continue;
+            }
+            int hour = twoDigits(line, i);
+            int minute = twoDigits(line, i + 3);
+            int second = twoDigits(line, i + 6);
+            if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 60) {
+                continue;
+            }
+
+            // 小数部分（. 或 , 分隔），只取到毫秒
+            int millis = 0;
+            int pos = i + 8;
+            if (pos + 1 < line.length() && (line.charAt(pos) == '.' || line.charAt(pos) == ',')
+                    && isDigit(line.charAt(pos + 1))) {
+                pos++;
+                int scale = 100;
+                while (pos < line.length() && isDigit(line.charAt(pos))) {
+                    if (scale > 0) {
+                        millis += (line.charAt(pos) - '0') * scale;
+                        scale /= 10;
+                    }
+                    pos++;
+                }
+            }
+            long millisOfDay = ((hour * 60L + minute) * 60 + second) * 1000 + millis;
+            long epochDay = epochDayBefore(line, i);
+            return epochDay > 0 ? epochDay * MILLIS_PER_DAY + millisOfDay : millisOfDay;
+        }
+        return -1;
+    }
+
+    /**
+     * 计算两个日志时间之间的毫秒数，任一缺失时返回 -1
+     * 语句耗时不会超过一天，按一天取模即可同时处理有无日期以及跨零点的情况
+     */
+    static long elapsed(long startLogTime, long endLogTime) {
+        if (startLogTime < 0 || endLogTime < 0) {
+            return -1;
+        }
+        return Math.floorMod(endLogTime - startLogTime, MILLIS_PER_DAY);
+    }
+
+    /**
+     * 把日志时间换算为绝对时间（系统时区）
+     * 带日期时直接换算；没有日期时取参考时间（日志文件的最后修改时间或当前时间）当天，
+     * 晚于参考时间的说明是前一天写入的（跨越零点）。没有时间戳时返回参考时间
+     */
+    static long toEpochMillis(long logTime, long referenceMillis) {
+        if (logTime < 0) {
+            return referenceMillis;
+        }
+        if (logTime >= MILLIS_PER_DAY) {
+            return LocalDate.ofEpochDay(logTime / MILLIS_PER_DAY).atStartOfDay(ZoneId.systemDefault())
+                    .toInstant().toEpochMilli() + logTime % MILLIS_PER_DAY;
+        }
+        long millisOfDay = logTime;
+        ZonedDateTime reference = Instant.ofEpochMilli(referenceMillis).atZone(ZoneId.systemDefault());
+        long millis = reference.truncatedTo(ChronoUnit.DAYS).toInstant().toEpochMilli() + millisOfDay;
+        // 留一分钟余量：最后几行日志可能在文件时间更新前写入
+        return millis > referenceMillis + 60_000 ? millis - MILLIS_PER_DAY : millis;
+    }
+
+    /**
+     * 解析时间前面紧挨着的 yyyy-MM-dd / yyyy/MM/dd 日期，返回纪元日；没有日期时返回 -1
+     */
+    private static long epochDayBefore(CharSequence line, int timeIndex) {
+        int start = timeIndex - 11;
+        if (start < 0 || (line.charAt(timeIndex - 1) != ' ' && line.charAt(timeIndex - 1) != 'T')) {
+            return -1;
+        }
+        char separator = line.charAt(start + 4);
+        if ((separator != '-' && separator != '/') || line.charAt(start + 7) != separator
+                || (start > 0 && isDigit(line.charAt(start - 1)))) {
+            return -1;
+        }
+        int century = twoDigits(line, start);
+        int yearOfCentury = twoDigits(line, start + 2);
+        int month = twoDigits(line, start + 5);
+        int day = twoDigits(line, start + 8);
+        if (century < 19 || yearOfCentury < 0 || month < 1 || day < 1) {
+            return -1;
+        }
+        try {
+            return LocalDate.of(century * 100 + yearOfCentury, month, day).toEpochDay();
+        } catch (DateTimeException e) {
+            return -1;
+        }
+    }
+
+    private static int twoDigits(CharSequence line, int offset) {
+        char high = line.charAt(offset);
+        char low = line.charAt(offset + 1);
+        if (!isDigit(high) || !isDigit(low)) {
+            return -1;
+        }
+        return (high - '0') * 10 + (low - '0');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,188 @@
+package com.mybatis.sql.logger.parser;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 待配对 SQL 表
+ * 按关联键保存已 Preparing 但尚未收到 Parameters 的语句（或已绑定参数、尚未收到 Total/Updates 的语句），
+ * 按插入顺序做容量（LRU）和超时（TTL）淘汰，保证缺少后续日志行的语句不会无限堆积
+ */
+class PendingSqlTable {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<String, PendingSql> entries = new LinkedHashMap<>();
+    // 被覆盖或淘汰的语句交给该回调处理；为 null 时直接丢弃
+    private final Consumer<PendingSql> evictionListener;
+
+    PendingSqlTable(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, null);
+    }
+
+    PendingSqlTable(int maxEntries, long ttlMillis, Consumer<PendingSql> evictionListener) {
+        this.maxEntries = Math.max(maxEntries, 1);
+        this.ttlMillis = ttlMillis;
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * 放入待配对语句；同一关联键的旧语句被覆盖并移到队尾
+     */
+    void put(PendingSql pendingSql) {
+        PendingSql replaced = entries.remove(pendingSql.getKey());
+        if (replaced != null && evictionListener != null) {
+            evictionListener.accept(replaced);
+        }
+        entries.put(pendingSql.getKey(), pendingSql);
+        evict(pendingSql.getCreatedAt());
+    }
+
+    PendingSql remove(String key) {
+        return entries.remove(key);
+    }
+
+    boolean contains(PendingSql pendingSql) {
+        return entries.get(pendingSql.getKey()) == pendingSql;
+    }
+
+    /**
+     * 是否有未被丢弃的语句
+     */
+    boolean containsLive() {
+        for (PendingSql pendingSql : entries.values()) {
+            if (!pendingSql.isDropped()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    /**
+     * 淘汰超出容量或超时的最旧语句
+     */
+    void evict(long now) {
+        Iterator<Map.Entry<String, PendingSql>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            PendingSql eldest = iterator.next().getValue();
+            boolean expired = ttlMillis > 0 && now - eldest.getCreatedAt() > ttlMillis;
+            if (entries.size() > maxEntries || expired) {
+                iterator.remove();
+                if (evictionListener != null) {
+                    evictionListener.accept(eldest);
+                }
+            } else {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 按插入顺序淘汰全部语句
+     */
+    void evictAll() {
+        Iterator<Map.Entry<String, PendingSql>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            PendingSql eldest = iterator.next().getValue();
+            iterator.remove();
+            if (evictionListener != null) {
+                evictionListener.accept(eldest);
+            }
+        }
+    }
+
+    /**
+     * 一条待配对语句（支持多行 SQL 收集）
+     */
+    static class PendingSql {
+        private final String key;
+        private final long createdAt;
+        private final StringBuilder sql;
+        private final String threadName;
+        private final String statementId;
+        // Preparing 行的日志时间（见 LogTimestamp），没有时间戳时为 -1
+        private final long logTimestamp;
+        // 绑定的参数，收到 Parameters 之前为 null
+        private final List<Object> parameters;
+        // 被过滤规则丢弃：只占位以便与 Total/Updates 行配对，不解析参数、不输出
+        private final boolean dropped;
+
+        PendingSql(String key, String sql, long createdAt, String threadName, String statementId,
+                   long logTimestamp) {
+            this(key, new StringBuilder(sql), createdAt, threadName, statementId, logTimestamp, null, false);
+        }
+
+        private PendingSql(String key, StringBuilder sql, long createdAt, String threadName, String statementId,
+                           long logTimestamp, List<Object> parameters, boolean dropped) {
+            this.key = key;
+            this.createdAt = createdAt;
+            this.sql = sql;
+            this.threadName = threadName;
+            this.statementId = statementId;
+            this.logTimestamp = logTimestamp;
+            this.parameters = parameters;
+            this.dropped = dropped;
+        }
+
+        /**
+         * 绑定参数，返回等待 Total/Updates 的语句（创建时间重置为绑定时间）
+         */
+        PendingSql bind(List<Object> parameters, long now) {
+            return new PendingSql(key, sql, now, threadName, statementId, logTimestamp, parameters, false);
+        }
+
+        /**
+         * 标记为已丢弃，返回只用于与 Total/Updates 行配对的占位语句
+         */
+        PendingSql drop(long now) {
+            return new PendingSql(key, sql, now, threadName, statementId, logTimestamp, null, true);
+        }
+
+        boolean isDropped() {
+            return dropped;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        long getCreatedAt() {
+            return createdAt;
+        }
+
+        void appendLine(String line) {
+            sql.append(' ').append(line);
+        }
+
+        String getSql() {
+            return sql.toString();
+        }
+
+        String getThreadName() {
+            return threadName;
+        }
+
+        String getStatementId() {
+            return statementId;
+        }
+
+        long getLogTimestamp() {
+            return logTimestamp;
+        }
+
+        List<Object> getParameters() {
+            return parameters;
+        }
+    }
+}
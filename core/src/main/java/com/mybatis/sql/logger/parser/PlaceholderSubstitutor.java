@@ -0,0 +1,148 @@
+package com.mybatis.sql.logger.parser;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * SQL 占位符替换引擎
+ * 单次扫描 SQL 模板，跳过字符串字面量、引号标识符、注释以及 PostgreSQL 的 ??、?|、?& 操作符，
+ * 将参数值依次写入一个预先分配好容量的 StringBuilder，时间复杂度 O(SQL 长度 + 参数总长度)
+ */
+public final class PlaceholderSubstitutor {
+
+    private PlaceholderSubstitutor() {
+    }
+
+    /**
+     * 替换 SQL 中的 ? 占位符
+     * 参数多于占位符时忽略多余参数，少于占位符时保留剩余的 ?
+     */
+    public static String substitute(String sql, List<Object> parameters) {
+        return substitute(sql, parameters, SqlFormatter::getParameterValue);
+    }
+
+    /**
+     * 替换 SQL 中的 ? 占位符，参数值由 renderer 转换为文本
+     */
+    public static String substitute(String sql, List<Object> parameters, Function<Object, String> renderer) {
+        if (sql == null || parameters == null || parameters.isEmpty()) {
+            return sql;
+        }
+
+        // 先转换所有参数值，用于计算最终长度
+        int paramCount = parameters.size();
+        String[] values = new String[paramCount];
+        int capacity = sql.length();
+        for (int i = 0; i < paramCount; i++) {
+            values[i] = renderer.apply(parameters.get(i));
+            capacity += values[i].length();
+        }
+
+        StringBuilder result = new StringBuilder(capacity);
+        int length = sql.length();
+        int paramIndex = 0;
+        int copyFrom = 0;
+        // 下一个换行的位置，每个位置只查找一次
+        int newline = sql.indexOf('\n');
+        int i = 0;
+
+        while (i < length) {
+            char c = sql.charAt(i);
+            switch (c) {
+                case '\'':
+                case '"':
+                case '`':
+                    i = skipQuoted(sql, i, c);
+                    break;
+                case '-':
+                    if (i + 1 < length && sql.charAt(i + 1) == '-') {
+                        // MyBatis 输出的 Preparing 已压缩成一行，-- 之后没有换行时无法判断注释在哪里结束，只跳过 -- 本身
+                        newline = nextNewline(sql, i, newline);
+                        i = newline < 0 ? i + 2 : newline + 1;
+                    } else {
+                        i++;
+                    }
+                    break;
+                case '/':
+                    if (i + 1 < length && sql.charAt(i + 1) == '*') {
+                        i = skipBlockComment(sql, i + 2);
+                    } else {
+                        i++;
+                    }
+                    break;
+                case '?':
+                    char next = i + 1 < length ? sql.charAt(i + 1) : '\0';
+                    if (next == '?') {
+                        // JDBC 转义的 ?? 表示字面量 ?（PostgreSQL 的 ? 操作符）
+                        result.append(sql, copyFrom, i + 1);
+                        i += 2;
+                        copyFrom = i;
+                    } else if (isPostgresOperator(sql, i, next)) {
+                        i += 2;
+                    } else if (paramIndex < paramCount) {
+                        result.append(sql, copyFrom, i).append(values[paramIndex++]);
+                        i++;
+                        copyFrom = i;
+                    } else {
+                        i++;
+                    }
+                    break;
+                default:
+                    i++;
+                    break;
+            }
+        }
+
+        result.append(sql, copyFrom, length);
+        return result.toString();
+    }
+
+    /**
+     * ?| 和 ?& 是 PostgreSQL jsonb 操作符；?|| 则是占位符后接字符串拼接
+     */
+    private static boolean isPostgresOperator(String sql, int index, char next) {
+        if (next == '&') {
+            return true;
+        }
+        if (next == '|') {
+            return index + 2 >= sql.length() || sql.charAt(index + 2) != '|';
+        }
+        return false;
+    }
+
+    /**
+     * 跳过引号包裹的内容，支持 '' 形式和反斜杠转义，返回结束引号之后的位置
+     */
+    private static int skipQuoted(String sql, int start, char quote) {
+        int length = sql.length();
+        int i = start + 1;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\\' && quote != '`') {
+                i += 2;
+            } else if (c == quote) {
+                if (i + 1 < length && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * 位置 from 之后的第一个换行，没有时返回 -1
+     * known 是上次找到的换行位置：仍在 from 之后或已确定没有换行时直接复用，整个扫描的查找总量为 O(SQL 长度)
+     */
+    static int nextNewline(String sql, int from, int known) {
+        return known < 0 || known >= from ? known : sql.indexOf('\n', from);
+    }
+
+    private static int skipBlockComment(String sql, int from) {
+        int end = sql.indexOf("*/", from);
+        return end < 0 ? sql.length() : end + 2;
+    }
+}
@@ -0,0 +1,119 @@
+package com.mybatis.sql.logger.parser;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL 事件解码（与 agent 模块的 SqlEventEncoder 对应）
+ * 事件由应用中的 SqlCaptureInterceptor 直接从 MyBatis 取得，包含 SQL 模板、带类型的参数、耗时和行数，不需要解析日志文本。
+ * 流以 F5 'M' 'S' 'Q' 和 1 字节版本号开头（0xF5 不会出现在 UTF-8 文本中），之后每个事件一帧：4 字节大端长度 + 内容
+ */
+public final class SqlEventDecoder {
+
+    // 流头的第一个字节
+    public static final byte MAGIC = (byte) 0xF5;
+    private static final byte[] STREAM_HEADER = {MAGIC, 'M', 'S', 'Q', 1};
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_INTEGER = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_DOUBLE = 4;
+    private static final byte TYPE_BOOLEAN = 5;
+    private static final byte TYPE_DECIMAL = 6;
+
+    private SqlEventDecoder() {
+    }
+
+    /**
+     * 流头的字节数
+     */
+    public static int headerLength() {
+        return STREAM_HEADER.length;
+    }
+
+    /**
+     * 校验流头（从 buffer 当前位置读取 headerLength() 个字节）
+     */
+    public static void readHeader(ByteBuffer buffer) throws IOException {
+        for (byte expected : STREAM_HEADER) {
+            if (buffer.get() != expected) {
+                throw new IOException("不支持的 SQL 事件流版本");
+            }
+        }
+    }
+
+    /**
+     * 解码一帧的内容（不含长度前缀）
+     */
+    public static SqlLogParser.ParsedSql decode(ByteBuffer frame) throws IOException {
+        try {
+            long startMillis = frame.getLong();
+            String threadName = readString(frame);
+            String statementId = readString(frame);
+            String sql = readString(frame);
+            if (sql == null) {
+                throw new IOException("SQL 事件缺少 SQL");
+            }
+            int count = frame.getInt();
+            if (count < 0 || count > frame.remaining()) {
+                throw new IOException("无效的参数个数: " + count);
+            }
+            List<Object> parameters = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                parameters.add(readParameter(frame));
+            }
+            long elapsedNanos = frame.getLong();
+            long rowCount = frame.getLong();
+            return new SqlLogParser.ParsedSql(sql, parameters, threadName, statementId, startMillis, rowCount,
+                    elapsedNanos < 0 ? -1 : elapsedNanos);
+        } catch (BufferUnderflowException | NumberFormatException e) {
+            throw new IOException("无效的 SQL 事件", e);
+        }
+    }
+
+    /**
+     * 参数类型与解析器产生的一致（String / Integer / Long / Double / Boolean），十进制数解码为 BigDecimal
+     */
+    private static Object readParameter(ByteBuffer frame) throws IOException {
+        byte type = frame.get();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_STRING:
+                return readString(frame);
+            case TYPE_INTEGER:
+                return frame.getInt();
+            case TYPE_LONG:
+                return frame.getLong();
+            case TYPE_DOUBLE:
+                return frame.getDouble();
+            case TYPE_BOOLEAN:
+                return frame.get() != 0;
+            case TYPE_DECIMAL:
+                String decimal = readString(frame);
+                return decimal != null ? new BigDecimal(decimal) : null;
+            default:
+                throw new IOException("未知的参数类型标记: " + type);
+        }
+    }
+
+    private static String readString(ByteBuffer frame) throws IOException {
+        int length = frame.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > frame.remaining()) {
+            throw new IOException("无效的字符串长度: " + length);
+        }
+        String value = new String(frame.array(), frame.arrayOffset() + frame.position(), length,
+                StandardCharsets.UTF_8);
+        frame.position(frame.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,365 @@
+package com.mybatis.sql.logger.parser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 入库前的 SQL 过滤规则
+ * 规则文本每行一条，# 开头为注释：
+ * <pre>
+ * exclude fingerprint:select ?          # 健康检查 SELECT 1
+ * exclude table:qrtz_*                  # Quartz 轮询
+ * exclude type:insert table:audit_log   # 同一行的多个条件需同时满足
+ * include mapper:com.acme.*             # 存在 include 规则时，只保留至少匹配一条的语句
+ * min-latency 5                         # 丢弃耗时已知且小于 5 ms 的语句
+ * </pre>
+ * 条件字段：type（select/insert/update/delete/other）、table、mapper、fingerprint（16 位十六进制指纹，
+ * 或与归一化 SQL 匹配的模式）；除 fingerprint 外一个条件可用逗号给出多个候选值，模式中的 * 匹配任意字符，不区分大小写。
+ * 规则只编译一次：每个条件对同一 SQL 模板 / Mapper 方法的匹配结果以位掩码缓存，热路径上只有两次哈希查找。
+ * 缓存不是线程安全的，每个解析器使用各自编译的实例
+ */
+public final class SqlFilter {
+
+    /**
+     * 不过滤任何语句
+     */
+    public static final SqlFilter ACCEPT_ALL = new SqlFilter(new ArrayList<>(), new ArrayList<>(),
+            new ArrayList<>(), new ArrayList<>(), -1);
+
+    // 模板 / Mapper 方法 -> 条件掩码 缓存的最大条目数，超出后整体清空
+    private static final int MAX_CACHED = 4096;
+    // 每类条件（模板条件、Mapper 条件）最多的条数，受掩码位数限制
+    private static final int MAX_CONDITIONS = Long.SIZE;
+
+    // 与 SQL 模板相关的条件（type / table / fingerprint），第 i 个条件对应掩码第 i 位
+    private final List<Condition> templateConditions;
+    // 与 Mapper 方法相关的条件
+    private final List<Condition> mapperConditions;
+    private final List<Rule> excludes;
+    private final List<Rule> includes;
+    private final long minLatencyMillis;
+    private final Map<String, Long> templateMasks = new HashMap<>();
+    private final Map<String, Long> mapperMasks = new HashMap<>();
+
+    private SqlFilter(List<Condition> templateConditions, List<Condition> mapperConditions,
+                      List<Rule> excludes, List<Rule> includes, long minLatencyMillis) {
+        this.templateConditions = templateConditions;
+        this.mapperConditions = mapperConditions;
+        this.excludes = excludes;
+        this.includes = includes;
+        this.minLatencyMillis = minLatencyMillis;
+    }
+
+    /**
+     * 编译规则文本
+     *
+     * @throws IllegalArgumentException 规则有误时抛出，消息中包含行号
+     */
+    public static SqlFilter compile(String rules) {
+        List<Condition> templateConditions = new ArrayList<>();
+        List<Condition> mapperConditions = new ArrayList<>();
+        List<Rule> excludes = new ArrayList<>();
+        List<Rule> includes = new ArrayList<>();
+        long minLatencyMillis = -1;
+
+        String[] lines = rules == null ? new String[0] : rules.split("\\R");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            String[] tokens = line.split("\\s+");
+            String action = tokens[0].toLowerCase(Locale.ROOT);
+            if (action.equals("min-latency")) {
+                if (tokens.length != 2) {
+                    throw error(i, "min-latency 需要一个毫秒数");
+                }
+                try {
+                    minLatencyMillis = Long.parseLong(tokens[1]);
+                } catch (NumberFormatException e) {
+                    throw error(i, "无效的毫秒数: " + tokens[1]);
+                }
+                continue;
+            }
+            if (!action.equals("exclude") && !action.equals("include")) {
+                throw error(i, "规则应以 exclude、include 或 min-latency 开头");
+            }
+            if (tokens.length < 2) {
+                throw error(i, action + " 至少需要一个条件");
+            }
+
+            // 条件之间的空格只用于分隔字段，fingerprint 模式中的空格需要保留
+            List<String> conditionTexts = splitConditions(line.substring(tokens[0].length()).trim());
+            long templateMask = 0;
+            long mapperMask = 0;
+            for (String text : conditionTexts) {
+                int colon = text.indexOf(':');
+                if (colon <= 0 || colon == text.length() - 1) {
+                    throw error(i, "条件格式应为 字段:值 —— " + text);
+                }
+                Field field = Field.of(text.substring(0, colon).trim());
+                if (field == null) {
+                    throw error(i, "未知字段: " + text.substring(0, colon));
+                }
+                Condition condition = new Condition(field, text.substring(colon + 1).trim());
+                if (field == Field.MAPPER) {
+                    if (mapperConditions.size() >= MAX_CONDITIONS) {
+                        throw error(i, "mapper 条件过多（最多 " + MAX_CONDITIONS + " 条）");
+                    }
+                    mapperMask |= 1L << mapperConditions.size();
+                    mapperConditions.add(condition);
+                } else {
+                    if (templateConditions.size() >= MAX_CONDITIONS) {
+                        throw error(i, "type/table/fingerprint 条件过多（最多 " + MAX_CONDITIONS + " 条）");
+                    }
+                    templateMask |= 1L << templateConditions.size();
+                    templateConditions.add(condition);
+                }
+            }
+            (action.equals("exclude") ? excludes : includes).add(new Rule(templateMask, mapperMask));
+        }
+
+        if (excludes.isEmpty() && includes.isEmpty() && minLatencyMillis < 0) {
+            return ACCEPT_ALL;
+        }
+        return new SqlFilter(templateConditions, mapperConditions, excludes, includes, minLatencyMillis);
+    }
+
+    /**
+     * 是否所有语句都会被保留
+     */
+    public boolean isAcceptAll() {
+        return excludes.isEmpty() && includes.isEmpty() && minLatencyMillis < 0;
+    }
+
+    /**
+     * 按模板和 Mapper 方法判断是否保留（绑定参数之前调用，只在单个解析线程中使用）
+     */
+    public boolean accepts(String template, String statementId) {
+        if (excludes.isEmpty() && includes.isEmpty()) {
+            return true;
+        }
+        long templateMask = templateConditions.isEmpty() ? 0 : templateMask(template);
+        long mapperMask = mapperConditions.isEmpty() ? 0 : mapperMask(statementId);
+
+        for (Rule rule : excludes) {
+            if (rule.matches(templateMask, mapperMask)) {
+                return false;
+            }
+        }
+        if (includes.isEmpty()) {
+            return true;
+        }
+        for (Rule rule : includes) {
+            if (rule.matches(templateMask, mapperMask)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按耗时判断是否保留；耗时未知（-1）时保留
+     */
+    public boolean acceptsLatency(long elapsedMillis) {
+        return minLatencyMillis < 0 || elapsedMillis < 0 || elapsedMillis >= minLatencyMillis;
+    }
+
+    private long templateMask(String template) {
+        String key = template == null ? "" : template;
+        Long cached = templateMasks.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        SqlLogParser.SqlType sqlType = SqlLogParser.detectSqlType(key);
+        SqlTemplateTerms terms = null;
+        SqlFingerprint fingerprint = null;
+        long mask = 0;
+        for (int i = 0; i < templateConditions.size(); i++) {
+            Condition condition = templateConditions.get(i);
+            boolean matched;
+            switch (condition.field) {
+                case TYPE:
+                    matched = condition.matches(typeName(sqlType))
+                            || condition.matches(sqlType.name().toLowerCase(Locale.ROOT));
+                    break;
+                case TABLE:
+                    if (terms == null) {
+                        terms = SqlTemplateTerms.of(key);
+                    }
+                    matched = condition.matchesAny(terms.getTables());
+                    break;
+                case FINGERPRINT:
+                default:
+                    if (fingerprint == null) {
+                        fingerprint = SqlFingerprint.of(key);
+                    }
+                    matched = condition.matches(String.format("%016x", fingerprint.getHash()))
+                            || condition.matches(fingerprint.getNormalizedSql());
+                    break;
+            }
+            if (matched) {
+                mask |= 1L << i;
+            }
+        }
+        return cache(templateMasks, key, mask);
+    }
+
+    private long mapperMask(String statementId) {
+        String key = statementId == null ? "" : statementId;
+        Long cached = mapperMasks.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        String lower = key.toLowerCase(Locale.ROOT);
+        long mask = 0;
+        for (int i = 0; i < mapperConditions.size(); i++) {
+            if (!lower.isEmpty() && mapperConditions.get(i).matches(lower)) {
+                mask |= 1L << i;
+            }
+        }
+        return cache(mapperMasks, key, mask);
+    }
+
+    private static long cache(Map<String, Long> masks, String key, long mask) {
+        if (masks.size() >= MAX_CACHED) {
+            masks.clear();
+        }
+        masks.put(key, mask);
+        return mask;
+    }
+
+    private static String typeName(SqlLogParser.SqlType sqlType) {
+        return sqlType == SqlLogParser.SqlType.QUERY ? "select" : sqlType.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 按“字段:”切分条件：空格后紧跟已知字段名和冒号时开始新条件，其余空格属于当前条件的值
+     */
+    private static List<String> splitConditions(String text) {
+        List<String> conditions = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i < text.length(); i++) {
+            if (Character.isWhitespace(text.charAt(i - 1)) && !Character.isWhitespace(text.charAt(i))
+                    && startsWithField(text, i)) {
+                conditions.add(text.substring(start, i).trim());
+                start = i;
+            }
+        }
+        conditions.add(text.substring(start).trim());
+        return conditions;
+    }
+
+    private static boolean startsWithField(String text, int index) {
+        int colon = text.indexOf(':', index);
+        return colon > index && Field.of(text.substring(index, colon)) != null;
+    }
+
+    private static IllegalArgumentException error(int lineIndex, String message) {
+        return new IllegalArgumentException("过滤规则第 " + (lineIndex + 1) + " 行: " + message);
+    }
+
+    private enum Field {
+        TYPE, TABLE, MAPPER, FINGERPRINT;
+
+        static Field of(String name) {
+            for (Field field : values()) {
+                if (field.name().equalsIgnoreCase(name)) {
+                    return field;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 一条规则：所有条件（掩码中的位）同时满足时匹配
+     */
+    private static final class Rule {
+        private final long templateMask;
+        private final long mapperMask;
+
+        private Rule(long templateMask, long mapperMask) {
+            this.templateMask = templateMask;
+            this.mapperMask = mapperMask;
+        }
+
+        boolean matches(long templateMatches, long mapperMatches) {
+            return (templateMatches & templateMask) == templateMask && (mapperMatches & mapperMask) == mapperMask;
+        }
+    }
+
+    /**
+     * 一个条件：字段 + 逗号分隔的候选值（精确值或带 * 的模式）
+     */
+    private static final class Condition {
+        private final Field field;
+        private final List<String> exactValues = new ArrayList<>();
+        private final List<Pattern> patterns = new ArrayList<>();
+
+        private Condition(Field field, String values) {
+            this.field = field;
+            // 归一化 SQL 本身含逗号，fingerprint 条件不拆分
+            String[] candidates = field == Field.FINGERPRINT ? new String[]{values} : values.split(",");
+            for (String value : candidates) {
+                String candidate = value.trim().toLowerCase(Locale.ROOT);
+                if (candidate.isEmpty()) {
+                    continue;
+                }
+                if (candidate.indexOf('*') >= 0) {
+                    patterns.add(globToPattern(candidate));
+                } else {
+                    exactValues.add(candidate);
+                }
+            }
+        }
+
+        boolean matches(String value) {
+            if (exactValues.contains(value)) {
+                return true;
+            }
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(value).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean matchesAny(String[] values) {
+            for (String value : values) {
+                if (matches(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 只有 * 是通配符（? 在归一化 SQL 中表示占位符，按字面匹配）
+         */
+        private static Pattern globToPattern(String glob) {
+            StringBuilder regex = new StringBuilder();
+            int start = 0;
+            int star;
+            while ((star = glob.indexOf('*', start)) >= 0) {
+                regex.append(Pattern.quote(glob.substring(start, star))).append(".*");
+                start = star + 1;
+            }
+            regex.append(Pattern.quote(glob.substring(start)));
+            return Pattern.compile(regex.toString(), Pattern.DOTALL);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.mybatis.sql.logger.parser;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * SQL 指纹
+ * 将 Preparing 行的 SQL 模板归一化：压缩空白、去掉注释、统一小写、把字符串和数字字面量折叠为 ?、
+ * 把 IN (?, ?, ...) 以及单行、多行 VALUES 折叠为固定形式，再计算 64 位 FNV-1a 哈希。
+ * 同一种“语句形状”无论参数个数和内联字面量如何变化，都得到同一个指纹
+ */
+public final class SqlFingerprint {
+
+    // 模板 -> 指纹 缓存的最大条目数，超出后整体清空
+    private static final int MAX_CACHED = 4096;
+    private static final ConcurrentHashMap<String, SqlFingerprint> CACHE = new ConcurrentHashMap<>();
+
+    // (?) / (?, ?, ?) -> (?+)
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    // values (?+) / values (?+), (?+) -> values (?+)+，单行和多行插入得到同一个指纹
+    private static final Pattern VALUES_ROWS = Pattern.compile("\\b(values?)\\s*\\(\\?\\+\\)(?:\\s*,\\s*\\(\\?\\+\\))*");
+    // (?+), (?+), (?+) -> (?+)+
+    private static final Pattern REPEATED_TUPLES = Pattern.compile("\\((?:\\?|\\?\\+)\\)(?:\\s*,\\s*\\((?:\\?|\\?\\+)\\))+");
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final String normalizedSql;
+    private final long hash;
+
+    private SqlFingerprint(String normalizedSql, long hash) {
+        this.normalizedSql = normalizedSql;
+        this.hash = hash;
+    }
+
+    /**
+     * 计算 SQL 模板的指纹（相同模板直接命中缓存）
+     */
+    public static SqlFingerprint of(String template) {
+        if (template == null) {
+            template = "";
+        }
+        SqlFingerprint cached = CACHE.get(template);
+        if (cached != null) {
+            return cached;
+        }
+
+        String normalized = normalize(template);
+        SqlFingerprint fingerprint = new SqlFingerprint(normalized, hash(normalized));
+        if (CACHE.size() >= MAX_CACHED) {
+            CACHE.clear();
+        }
+        CACHE.put(template, fingerprint);
+        return fingerprint;
+    }
+
+    /**
+     * 归一化 SQL 模板
+     */
+    static String normalize(String sql) {
+        int length = sql.length();
+        StringBuilder result = new StringBuilder(length);
+        boolean pendingSpace = false;
+        // 下一个换行的位置，每个位置只查找一次
+        int newline = sql.indexOf('\n');
+        int i = 0;
+
+        while (i < length) {
+            char c = sql.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                pendingSpace = result.length() > 0;
+                i++;
+                continue;
+            }
+            if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                // 没有换行的 -- 无法判断注释在哪里结束（Preparing 已压缩成一行），按普通文本处理
+                newline = PlaceholderSubstitutor.nextNewline(sql, i, newline);
+                if (newline >= 0) {
+                    i = newline + 1;
+                    pendingSpace = result.length() > 0;
+                    continue;
+                }
+            }
+            if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+                pendingSpace = result.length() > 0;
+                continue;
+            }
+
+            if (pendingSpace) {
+                result.append(' ');
+                pendingSpace = false;
+            }
+
+            if (c == '\'') {
+                // 字符串字面量 -> ?
+                i = skipString(sql, i);
+                result.append('?');
+            } else if (Character.isDigit(c) && !isIdentifierPart(result)) {
+                // 数字字面量 -> ?
+                while (i < length && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                result.append('?');
+            } else {
+                // 关键字和标识符统一小写，避免大小写差异产生不同指纹
+                result.append(Character.toLowerCase(c));
+                i++;
+            }
+        }
+
+        String normalized = PLACEHOLDER_LIST.matcher(result).replaceAll("(?+)");
+        normalized = VALUES_ROWS.matcher(normalized).replaceAll("$1 (?+)+");
+        return REPEATED_TUPLES.matcher(normalized).replaceAll("(?+)+");
+    }
+
+    private static boolean isIdentifierPart(StringBuilder result) {
+        if (result.length() == 0) {
+            return false;
+        }
+        char previous = result.charAt(result.length() - 1);
+        return Character.isLetterOrDigit(previous) || previous == '_' || previous == '.' || previous == '`';
+    }
+
+    private static int skipString(String sql, int start) {
+        int length = sql.length();
+        int i = start + 1;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '\'') {
+                if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        return length;
+    }
+
+    private static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            hash ^= c & 0xff;
+            hash *= FNV_PRIME;
+            hash ^= c >>> 8;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * 归一化后的 SQL
+     */
+    public String getNormalizedSql() {
+        return normalizedSql;
+    }
+
+    /**
+     * 64 位指纹哈希
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * 指纹的十六进制表示
+     */
+    public String getHashHex() {
+        return String.format("%016x", hash);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof SqlFingerprint && ((SqlFingerprint) o).hash == hash;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    @Override
+    public String toString() {
+        return getHashHex() + " " + normalizedSql;
+    }
+}
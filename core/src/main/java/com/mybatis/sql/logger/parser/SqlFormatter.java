@@ -39,6 +39,27 @@ public class SqlFormatter {
         return "'" + obj.toString() + "'";
     }
 
+    /**
+     * 获取参数值的可执行 SQL 字面量（导出 SQL 脚本用）
+     * 与 getParameterValue 相同，但字符串中的单引号写成 ''，反斜杠按 MySQL 默认的转义规则写成 \\
+     */
+    public static String getSqlLiteral(Object obj) {
+        if (obj == null || obj instanceof Boolean || obj instanceof Number || obj instanceof java.util.Date
+                || obj instanceof Collection || obj.getClass().isArray()) {
+            return getParameterValue(obj);
+        }
+        String value = obj.toString();
+        StringBuilder literal = new StringBuilder(value.length() + 8).append('\'');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\'' || c == '\\') {
+                literal.append(c);
+            }
+            literal.append(c);
+        }
+        return literal.append('\'').toString();
+    }
+
     /**
      * 格式化 SQL 语句
      */
@@ -0,0 +1,762 @@
+package com.mybatis.sql.logger.parser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * MyBatis SQL 日志解析器
+ */
+public class SqlLogParser {
+
+    // 不依赖 IDE 平台，使用 JDK 日志；调试信息按需构建，关闭时没有字符串拼接
+    private static final Logger LOG = Logger.getLogger(SqlLogParser.class.getName());
+
+    // MyBatis Preparing 标记正则
+    private static final Pattern PREPARING_PATTERN = Pattern.compile(
+            "==>\\s*Preparing:\\s*(.+?)(?:\\s+\\b(?:DEBUG|INFO|WARN|ERROR|TRACE)\\b|$)",
+            Pattern.CASE_INSENSITIVE
+    );
+
+    // MyBatis Parameters 标记正则
+    private static final Pattern PARAMETERS_PATTERN = Pattern.compile(
+            "==>\\s*Parameters:\\s*(.+?)(?:\\s+\\b(?:DEBUG|INFO|WARN|ERROR|TRACE)\\b|$)",
+            Pattern.CASE_INSENSITIVE
+    );
+
+    // MyBatis Parameters 宽松匹配正则 (处理前缀被截断的情况)
+    private static final Pattern PARAMETERS_PATTERN_LOOSE = Pattern.compile(
+            "Parameters:\\s*(.+?)(?:\\s+\\b(?:DEBUG|INFO|WARN|ERROR|TRACE)\\b|$)",
+            Pattern.CASE_INSENSITIVE
+    );
+
+    // MyBatis 完成标记正则（<==      Total: N / <==    Updates: N）
+    private static final Pattern COMPLETION_PATTERN = Pattern.compile(
+            "<==\\s*(Total|Updates):\\s*(\\d+)",
+            Pattern.CASE_INSENSITIVE
+    );
+
+    // 参数串中的空白（含换行）和参数分隔符（括号内的逗号不分隔）
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+    private static final Pattern PARAMETER_SEPARATOR_PATTERN = Pattern.compile(",(?![^()]*\\))");
+
+    // 多行 SQL 收集时的启发式规则，预编译避免每行重新编译正则
+    private static final Pattern IDENTIFIER_PREFIX_PATTERN = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*[,\\s]");
+    private static final Pattern IDENTIFIER_PATTERN = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+    private static final Pattern LOG_DATE_TIME_PATTERN =
+            Pattern.compile("\\d{4}-\\d{2}-\\d{2}[\\sT]\\d{2}:\\d{2}:\\d{2}");
+    private static final Pattern LOG_LEVEL_PID_PATTERN =
+            Pattern.compile("(DEBUG|INFO|WARN|ERROR|TRACE)\\s+\\d+\\s+");
+    private static final Pattern LOG_LEVEL_LOGGER_PATTERN =
+            Pattern.compile("(DEBUG|INFO|WARN|ERROR|TRACE).*[a-z]\\.[a-z]\\.[a-z]\\.[a-zA-Z]+.*:");
+
+    // 无法从日志行中提取关联键时使用的默认键
+    private static final String DEFAULT_KEY = "";
+
+    // 默认最多保留的待配对语句数及超时时间
+    public static final int DEFAULT_MAX_PENDING = 1024;
+    public static final long DEFAULT_PENDING_TTL_MILLIS = 60_000L;
+    // 绑定参数后等待 Total/Updates 行的默认最长时间
+    public static final long DEFAULT_COMPLETION_WAIT_MILLIS = 3_000L;
+
+    private final CorrelationKeyExtractor keyExtractor;
+    // 按关联键（线程 / Mapper）保存的待配对语句
+    private final PendingSqlTable pendingTable;
+    // 最近一次 Preparing 的语句，用于收集没有日志前缀的多行 SQL 延续行
+    private PendingSqlTable.PendingSql lastPending = null;
+    // 已绑定参数、等待 Total/Updates 行的语句；超时或被同一关联键的新语句覆盖时不带完成信息输出
+    private final PendingSqlTable awaitingTable;
+    // 最近一次绑定参数的语句，用于没有日志前缀的完成行
+    private PendingSqlTable.PendingSql lastAwaiting = null;
+    // 已完成或从等待表中淘汰、尚未交给调用方的语句
+    private final ArrayDeque<ParsedSql> ready = new ArrayDeque<>();
+    // 入库前的过滤规则
+    private SqlFilter filter = SqlFilter.ACCEPT_ALL;
+    // 被过滤规则丢弃的语句数（调用方定期取走）
+    private long filteredCount = 0;
+    // 为 false 时只收尾已开始的语句：新的 Preparing 只作为占位参与配对，不输出（分块解析日志文件时使用）
+    private boolean acceptNewStatements = true;
+    // 日志文件的最后修改时间，用于把日志行中的时间换算为绝对时间；实时解析时为 -1，使用捕获时间
+    private long logClockReference = -1;
+
+    public SqlLogParser() {
+        this(new CorrelationKeyExtractor(), DEFAULT_MAX_PENDING, DEFAULT_PENDING_TTL_MILLIS,
+                DEFAULT_COMPLETION_WAIT_MILLIS);
+    }
+
+    public SqlLogParser(CorrelationKeyExtractor keyExtractor, int maxPending, long pendingTtlMillis,
+                        long completionWaitMillis) {
+        this.keyExtractor = keyExtractor;
+        this.pendingTable = new PendingSqlTable(maxPending, pendingTtlMillis);
+        this.awaitingTable = new PendingSqlTable(maxPending, completionWaitMillis, awaiting -> {
+            if (!awaiting.isDropped()) {
+                ready.add(toParsedSql(awaiting, -1, -1));
+            }
+        });
+    }
+
+    /**
+     * 设置过滤规则（在解析线程开始工作前调用）
+     */
+    public void setFilter(SqlFilter filter) {
+        this.filter = filter != null ? filter : SqlFilter.ACCEPT_ALL;
+    }
+
+    /**
+     * 设置日志时钟：语句时间取 Preparing 行中的日期和时间，行中没有日期时按参考时间（日志文件的最后修改时间或当前时间）推算
+     */
+    public void setLogClock(long lastModifiedMillis) {
+        this.logClockReference = lastModifiedMillis;
+    }
+
+    /**
+     * 设置是否接受新语句；关闭后已开始的语句照常配对输出，新语句只占位、不输出
+     */
+    void setAcceptNewStatements(boolean acceptNewStatements) {
+        this.acceptNewStatements = acceptNewStatements;
+    }
+
+    /**
+     * 是否还有需要输出的未完成语句（不含只用于配对的占位语句）
+     */
+    boolean hasUnfinishedSql() {
+        return pendingTable.containsLive() || awaitingTable.containsLive();
+    }
+
+    /**
+     * 是否正在收集多行 SQL 的延续行（此时没有 MyBatis 标记的行也需要交给解析器）
+     */
+    boolean isCollectingLines() {
+        return lastPending != null && pendingTable.contains(lastPending);
+    }
+
+    /**
+     * 取出并清零累计被过滤规则丢弃的语句数
+     */
+    public long takeFilteredCount() {
+        long count = filteredCount;
+        filteredCount = 0;
+        return count;
+    }
+
+    /**
+     * 判断是否有待配对的 SQL
+     */
+    public boolean hasPendingSql() {
+        return !pendingTable.isEmpty();
+    }
+
+    /**
+     * 判断是否有等待 Total/Updates 行的 SQL
+     */
+    public boolean hasAwaitingSql() {
+        return !awaitingTable.isEmpty();
+    }
+
+    /**
+     * 输出等待完成行超时的 SQL（不带行数和耗时）
+     * 日志流空闲时由调用方定期调用，避免最后一条语句一直等不到后续日志
+     */
+    public void flushExpired(Consumer<ParsedSql> sink) {
+        awaitingTable.evict(System.currentTimeMillis());
+        emitReady(sink);
+    }
+
+    /**
+     * 输出所有等待完成行的 SQL（日志流结束时调用）
+     */
+    public void flush(Consumer<ParsedSql> sink) {
+        awaitingTable.evictAll();
+        lastAwaiting = null;
+        emitReady(sink);
+    }
+
+    /**
+     * 输入一条结构化 SQL 事件（来自 SqlCaptureInterceptor，已带参数、行数和耗时），只按过滤规则决定是否交给 sink
+     */
+    public void parseEvent(ParsedSql event, Consumer<ParsedSql> sink) {
+        if ((!filter.isAcceptAll() && !filter.accepts(event.getOriginalSql(), event.getStatementId()))
+                || !filter.acceptsLatency(event.getElapsedMillis())) {
+            filteredCount++;
+            return;
+        }
+        sink.accept(event);
+    }
+
+    /**
+     * 解析单行日志，得到的完整 SQL 交给 sink
+     * 接受 CharSequence，调用方可以直接传入输出块上的行视图，无需先复制成 String。
+     * 绑定参数的语句会等到对应的 Total/Updates 行才输出，以便带上行数和耗时
+     */
+    public void parseLine(CharSequence line, Consumer<ParsedSql> sink) {
+        parseLineInternal(line);
+        emitReady(sink);
+    }
+
+    private void parseLineInternal(CharSequence line) {
+        if (line == null || LogMarkerScanner.isBlank(line)) {
+            return;
+        }
+
+        // 快速预过滤：单次扫描找出所有 MyBatis 标记
+        // 绝大多数行是普通应用日志，没有标记且无待处理 SQL 时直接返回，不走正则、不分配对象
+        int markers = LogMarkerScanner.scan(line);
+        if (markers == 0 && lastPending == null) {
+            return;
+        }
+
+        // 匹配 Total / Updates 完成标记
+        if ((markers & LogMarkerScanner.ARROW_IN) != 0
+                && (markers & (LogMarkerScanner.TOTAL | LogMarkerScanner.UPDATES)) != 0) {
+            completeAwaiting(line);
+            return;
+        }
+
+        // 匹配 Preparing 标记
+        Matcher preparingMatcher = (markers & LogMarkerScanner.PREPARING) != 0
+                ? PREPARING_PATTERN.matcher(line) : null;
+        if (preparingMatcher != null && preparingMatcher.find()) {
+            String sqlPart = preparingMatcher.group(1).trim();
+            
+            // 如果提取的 SQL 结尾包含明显的日志后缀（例如时间戳、线程号等），尝试去除
+            // 这种情况通常发生在正则过于贪婪，或者日志格式比较特殊时
+            if (containsLogPattern(sqlPart)) {
+                // 简单的尝试：如果包含 DEBUG/INFO 等，截断
+                String[] levels = {"DEBUG", "INFO", "WARN", "ERROR", "TRACE"};
+                for (String level : levels) {
+                    int idx = sqlPart.indexOf(level);
+                    if (idx > 0) {
+                        sqlPart = sqlPart.substring(0, idx).trim();
+                        break;
+                    }
+                }
+            }
+            
+            int markerIndex = preparingMatcher.start();
+            String key = keyExtractor.extract(line, markerIndex);
+            PendingSqlTable.PendingSql pendingSql = new PendingSqlTable.PendingSql(
+                    key != null ? key : DEFAULT_KEY, sqlPart, System.currentTimeMillis(),
+                    CorrelationKeyExtractor.extractThread(line, markerIndex),
+                    CorrelationKeyExtractor.extractStatementId(line, markerIndex),
+                    LogTimestamp.logTime(line, markerIndex));
+            if (!acceptNewStatements) {
+                // 新语句由下一块的解析器输出，这里只占位，让同一关联键的旧语句按原有规则被覆盖
+                pendingSql = pendingSql.drop(pendingSql.getCreatedAt());
+            }
+            pendingTable.put(pendingSql);
+            lastPending = pendingSql;
+            
+            // 详细调试信息
+            LOG.fine(() -> "Preparing - 原始行: " + line + ", 关联键: " + lastPending.getKey()
+                    + ", 提取SQL: " + lastPending.getSql());
+            
+            return;
+        }
+
+        // ========================================
+        // 智能多行SQL收集策略
+        // ========================================
+        boolean hasParameters = (markers & LogMarkerScanner.PARAMETERS) != 0;
+        // 上一条语句已被配对或淘汰时，不再收集延续行
+        if (lastPending != null && !pendingTable.contains(lastPending)) {
+            lastPending = null;
+        }
+        if (lastPending != null && !hasParameters) {
+            String trimmed = line.toString().trim();
+                    
+            // 跳过包含"==>"的行（MyBatis的其他输出）
+            if (trimmed.startsWith("==>")) {
+                return;
+            }
+                    
+            // 只收集明确以SQL关键字开头的行（真正的SQL延续行）
+            // 使用更宽松的 isSqlContent 判断，支持字段换行的情况
+            boolean isContent = isSqlContent(trimmed);
+            
+            if (!trimmed.isEmpty() && isContent) {
+                LOG.fine(() -> "[多行收集] 收集SQL延续行: " + trimmed);
+                lastPending.appendLine(trimmed);
+            } else {
+                // 记录被拒绝的行（便于调试）
+                LOG.fine(() -> "[多行收集] 跳过非 SQL 行: " + trimmed);
+            }
+        }
+
+        // 没有 Parameters 标记或没有待处理 SQL 时无需再匹配
+        if (!hasParameters || pendingTable.isEmpty()) {
+            return;
+        }
+
+        // 匹配 Parameters 标记
+        Matcher parametersMatcher = PARAMETERS_PATTERN.matcher(line);
+        boolean parametersFound = parametersMatcher.find();
+        
+        // 如果标准正则未匹配到，尝试使用宽松正则
+        if (!parametersFound && line.toString().trim().startsWith("Parameters:")) {
+            parametersMatcher = PARAMETERS_PATTERN_LOOSE.matcher(line);
+            parametersFound = parametersMatcher.find();
+        }
+
+        if (parametersFound) {
+            // 按关联键取出对应的 Preparing 语句；行前缀被截断时使用最近一次 Preparing
+            String key = keyExtractor.extract(line, parametersMatcher.start());
+            PendingSqlTable.PendingSql pendingSql;
+            if (key != null) {
+                pendingSql = pendingTable.remove(key);
+            } else {
+                pendingSql = pendingTable.remove(lastPending != null ? lastPending.getKey() : DEFAULT_KEY);
+            }
+            if (pendingSql == null) {
+                LOG.fine(() -> "Parameters - 未找到关联的 Preparing: " + key);
+                return;
+            }
+            if (pendingSql == lastPending) {
+                lastPending = null;
+            }
+
+            // 此时多行 SQL 已收集完整；被过滤的语句不解析参数，只留一个占位与 Total/Updates 行配对
+            boolean filtered = !pendingSql.isDropped() && !filter.isAcceptAll()
+                    && !filter.accepts(pendingSql.getSql(), pendingSql.getStatementId());
+            if (filtered || pendingSql.isDropped()) {
+                if (filtered) {
+                    filteredCount++;
+                }
+                PendingSqlTable.PendingSql dropped = pendingSql.drop(System.currentTimeMillis());
+                awaitingTable.put(dropped);
+                lastAwaiting = dropped;
+                return;
+            }
+
+            String parametersStr = parametersMatcher.group(1).trim();
+            LOG.fine(() -> "Parameters - 原始行: " + line + ", 提取参数: " + parametersStr);
+            
+            List<Object> parameters = parseParameters(parametersStr);
+
+            // 等待同一关联键的 Total/Updates 行；同键的上一条未完成语句被覆盖后直接输出
+            PendingSqlTable.PendingSql awaiting = pendingSql.bind(parameters, System.currentTimeMillis());
+            awaitingTable.put(awaiting);
+            lastAwaiting = awaiting;
+        }
+    }
+
+    /**
+     * 处理 Total / Updates 行：取出同一关联键的等待语句，记录行数和耗时后输出
+     */
+    private void completeAwaiting(CharSequence line) {
+        Matcher completionMatcher = COMPLETION_PATTERN.matcher(line);
+        if (!completionMatcher.find() || awaitingTable.isEmpty()) {
+            return;
+        }
+
+        int markerIndex = completionMatcher.start();
+        String key = keyExtractor.extract(line, markerIndex);
+        PendingSqlTable.PendingSql awaiting;
+        if (key != null) {
+            awaiting = awaitingTable.remove(key);
+        } else {
+            awaiting = awaitingTable.remove(lastAwaiting != null ? lastAwaiting.getKey() : DEFAULT_KEY);
+        }
+        if (awaiting == null) {
+            LOG.fine(() -> "Total/Updates - 未找到关联的语句: " + key);
+            return;
+        }
+        if (awaiting == lastAwaiting) {
+            lastAwaiting = null;
+        }
+        if (awaiting.isDropped()) {
+            return;
+        }
+
+        long rowCount;
+        try {
+            rowCount = Long.parseLong(completionMatcher.group(2));
+        } catch (NumberFormatException e) {
+            rowCount = -1;
+        }
+        long elapsed = LogTimestamp.elapsed(awaiting.getLogTimestamp(), LogTimestamp.logTime(line, markerIndex));
+        if (!filter.acceptsLatency(elapsed)) {
+            filteredCount++;
+            return;
+        }
+        ready.add(toParsedSql(awaiting, rowCount, ElapsedTime.fromMillis(elapsed)));
+    }
+
+    /**
+     * 构建解析结果（参数替换和格式化延迟到首次访问时进行）
+     */
+    private ParsedSql toParsedSql(PendingSqlTable.PendingSql awaiting, long rowCount, long elapsedNanos) {
+        long timestamp = logClockReference >= 0
+                ? LogTimestamp.toEpochMillis(awaiting.getLogTimestamp(), logClockReference)
+                : System.currentTimeMillis();
+        return new ParsedSql(awaiting.getSql(), awaiting.getParameters(), awaiting.getThreadName(),
+                awaiting.getStatementId(), timestamp, rowCount, elapsedNanos);
+    }
+
+    private void emitReady(Consumer<ParsedSql> sink) {
+        ParsedSql parsedSql;
+        while ((parsedSql = ready.poll()) != null) {
+            sink.accept(parsedSql);
+        }
+    }
+
+    /**
+     * 解析参数字符串
+     * 兼容处理参数值中包含换行符的情况
+     */
+    private List<Object> parseParameters(String parametersStr) {
+        List<Object> parameters = new ArrayList<>();
+        
+        if (parametersStr == null || parametersStr.trim().isEmpty()) {
+            return parameters;
+        }
+        
+        // 预处理：将所有换行符、回车符、制表符替换为空格，并合并多余空格
+        parametersStr = WHITESPACE_PATTERN.matcher(parametersStr).replaceAll(" ").trim();
+
+        // 分割参数（处理逗号分隔）
+        String[] parts = PARAMETER_SEPARATOR_PATTERN.split(parametersStr);
+        
+        for (String part : parts) {
+            part = part.trim();
+            
+            // 解析参数类型和值
+            if (part.contains("(")) {
+                int typeStart = part.indexOf('(');
+                int typeEnd = part.indexOf(')');
+                if (typeStart > 0 && typeEnd > typeStart) {
+                    String value = part.substring(0, typeStart).trim();
+                    String type = part.substring(typeStart + 1, typeEnd).trim();
+                    parameters.add(parseValue(value, type));
+                }
+            } else {
+                parameters.add(part);
+            }
+        }
+        
+        return parameters;
+    }
+
+    /**
+     * 根据类型解析值
+     */
+    private Object parseValue(String value, String type) {
+        if ("null".equalsIgnoreCase(value)) {
+            return null;
+        }
+        
+        type = type.toLowerCase();
+        
+        try {
+            if (type.contains("string") || type.contains("varchar")) {
+                return value;
+            } else if (type.contains("integer") || type.contains("int")) {
+                return Integer.parseInt(value);
+            } else if (type.contains("long") || type.contains("bigint")) {
+                return Long.parseLong(value);
+            } else if (type.contains("double") || type.contains("float")) {
+                return Double.parseDouble(value);
+            } else if (type.contains("boolean") || type.contains("bit")) {
+                return Boolean.parseBoolean(value);
+            }
+        } catch (Exception e) {
+            // 解析失败，返回原始值
+        }
+        
+        return value;
+    }
+
+    /**
+     * 判断一行文本是否以SQL关键字开头（用于多行收集）
+     * 只收集明确以SQL关键字开头的行，拒绝日志碎片
+     */
+    private boolean startsWithSqlKeyword(String line) {
+        if (line == null || line.trim().isEmpty()) {
+            return false;
+        }
+        
+        String trimmed = line.trim().toUpperCase();
+        
+        // SQL关键字列表（只包括可能在多行中出现的）
+        String[] sqlKeywords = {
+            "SELECT", "FROM", "WHERE", "AND", "OR", "ORDER", "GROUP", 
+            "HAVING", "LIMIT", "OFFSET", "JOIN", "LEFT", "RIGHT", "INNER",
+            "INSERT", "UPDATE", "DELETE", "SET", "VALUES", "INTO",
+            "UNION", "DISTINCT", "AS", "ON", "IN", "NOT", "IS", "LIKE"
+        };
+        
+        for (String keyword : sqlKeywords) {
+            if (trimmed.startsWith(keyword + " ") || trimmed.equals(keyword)) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * 判断一行文本是否是SQL内容（而不是日志行）
+     * 采用启发式规则：SQL通常以关键字、标点或标识符开头
+     */
+    private boolean isSqlContent(String line) {
+        if (line == null || line.trim().isEmpty()) {
+            return false;
+        }
+        
+        String trimmed = line.trim().toUpperCase();
+        
+        // 1. 以SQL关键字开头
+        String[] sqlKeywords = {
+            "SELECT", "FROM", "WHERE", "AND", "OR", "ORDER", "GROUP", 
+            "HAVING", "LIMIT", "OFFSET", "JOIN", "LEFT", "RIGHT", "INNER",
+            "INSERT", "UPDATE", "DELETE", "SET", "VALUES", "INTO",
+            "CREATE", "ALTER", "DROP", "UNION", "DISTINCT", "AS",
+            "ON", "IN", "NOT", "IS", "NULL", "LIKE", "BETWEEN"
+        };
+        for (String keyword : sqlKeywords) {
+            if (trimmed.startsWith(keyword + " ") || trimmed.startsWith(keyword + "(")) {
+                return true;
+            }
+        }
+        
+        // 2. 以标点符号开头（SQL的延续部分）
+        if (trimmed.startsWith(",") || trimmed.startsWith("(") || trimmed.startsWith(")")) {
+            return true;
+        }
+        
+        // 3. 看起来像字段名或表达式（字母/数字/下划线开头，后面跟逗号或空格）
+        if (IDENTIFIER_PREFIX_PATTERN.matcher(trimmed).lookingAt() || IDENTIFIER_PATTERN.matcher(trimmed).matches()) {
+            return true;
+        }
+        
+        // 4. 排除明显的日志行特征
+        // 如果包含常见的日志级别关键字且不像SQL，认为是日志行
+        if (containsLogPattern(line)) {
+            return false;
+        }
+        
+        // 默认认为是SQL内容（宽松策略，避免丢失SQL）
+        return true;
+    }
+    
+    /**
+     * 检查是否包含日志行的典型特征
+     */
+    private boolean containsLogPattern(String line) {
+        // 常见的日志行模式
+        // 1. 包含时间戳
+        if (LOG_DATE_TIME_PATTERN.matcher(line).find()) {
+            return true;
+        }
+        
+        // 2. 包含日志级别 + 进程ID/线程信息的组合
+        if (LOG_LEVEL_PID_PATTERN.matcher(line).find()) {
+            return true;
+        }
+        
+        // 3. 包含类路径和方法名的模式（如：c.u.t.m.D.selectPage）
+        if (LOG_LEVEL_LOGGER_PATTERN.matcher(line).find()) {
+            return true;
+        }
+        
+        return false;
+    }
+    
+    /**
+     * 检测 SQL 操作类型
+     */
+    private static String detectOperation(SqlType sqlType) {
+        switch (sqlType) {
+            case QUERY:
+                return "🔎 QUERY";
+            case INSERT:
+                return "✨ INSERT";
+            case UPDATE:
+                return "✏️ UPDATE";
+            case DELETE:
+                return "🗑️ DELETE";
+            default:
+                return "📝 SQL";
+        }
+    }
+    
+    /**
+     * 检测 SQL 类型（用于颜色区分）
+     * 只比较开头的关键字，不复制整条 SQL
+     */
+    static SqlType detectSqlType(String sql) {
+        int start = 0;
+        while (start < sql.length() && Character.isWhitespace(sql.charAt(start))) {
+            start++;
+        }
+        
+        if (sql.regionMatches(true, start, "SELECT", 0, 6)) {
+            return SqlType.QUERY;
+        } else if (sql.regionMatches(true, start, "INSERT", 0, 6)) {
+            return SqlType.INSERT;
+        } else if (sql.regionMatches(true, start, "UPDATE", 0, 6)) {
+            return SqlType.UPDATE;
+        } else if (sql.regionMatches(true, start, "DELETE", 0, 6)) {
+            return SqlType.DELETE;
+        }
+        
+        return SqlType.OTHER;
+    }
+
+    /**
+     * SQL 类型枚举
+     */
+    public enum SqlType {
+        QUERY,      // 查询 - 绿色
+        INSERT,     // 插入 - 黄色
+        UPDATE,     // 更新 - 蓝色
+        DELETE,     // 删除 - 红色
+        OTHER       // 其他 - 灰色
+    }
+
+    /**
+     * 解析结果
+     * 只保存 SQL 模板和参数，参数替换和格式化在首次访问时进行并缓存
+     */
+    public static class ParsedSql {
+        private final String originalSql;
+        private final List<Object> parameters;
+        private final String threadName;
+        private final String statementId;
+        private final long timestamp;
+        private final long rowCount;
+        // 耗时（纳秒），见 ElapsedTime
+        private final long elapsedNanos;
+        private volatile SqlType sqlType;
+        private volatile String completeSql;
+        private volatile String formattedSql;
+        private volatile SqlFingerprint fingerprint;
+
+        public ParsedSql(String originalSql, List<Object> parameters) {
+            this(originalSql, parameters, null, null, System.currentTimeMillis());
+        }
+
+        public ParsedSql(String originalSql, List<Object> parameters, String threadName, String statementId,
+                         long timestamp) {
+            this(originalSql, parameters, threadName, statementId, timestamp, -1, -1);
+        }
+
+        public ParsedSql(String originalSql, List<Object> parameters, String threadName, String statementId,
+                         long timestamp, long rowCount, long elapsedNanos) {
+            this.originalSql = originalSql;
+            this.parameters = parameters;
+            this.threadName = threadName;
+            this.statementId = statementId;
+            this.timestamp = timestamp;
+            this.rowCount = rowCount;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public String getOriginalSql() {
+            return originalSql;
+        }
+
+        /**
+         * 获取替换参数后的完整 SQL（未格式化）
+         */
+        public String getCompleteSql() {
+            String sql = completeSql;
+            if (sql == null) {
+                sql = PlaceholderSubstitutor.substitute(originalSql, parameters);
+                completeSql = sql;
+            }
+            return sql;
+        }
+
+        /**
+         * 获取可直接执行的完整 SQL：字符串参数中的引号和反斜杠已转义（不缓存，导出时使用）
+         */
+        public String getExecutableSql() {
+            return PlaceholderSubstitutor.substitute(originalSql, parameters, SqlFormatter::getSqlLiteral);
+        }
+
+        public String getFormattedSql() {
+            String sql = formattedSql;
+            if (sql == null) {
+                sql = SqlFormatter.formatSql(getCompleteSql(), getOperation());
+                formattedSql = sql;
+            }
+            return sql;
+        }
+
+        public String getOperation() {
+            return detectOperation(getSqlType());
+        }
+        
+        public SqlType getSqlType() {
+            SqlType type = sqlType;
+            if (type == null) {
+                type = detectSqlType(originalSql);
+                sqlType = type;
+            }
+            return type;
+        }
+
+        public List<Object> getParameters() {
+            return parameters;
+        }
+
+        /**
+         * 获取 SQL 模板的指纹
+         */
+        public SqlFingerprint getFingerprint() {
+            SqlFingerprint value = fingerprint;
+            if (value == null) {
+                value = SqlFingerprint.of(originalSql);
+                fingerprint = value;
+            }
+            return value;
+        }
+
+        /**
+         * 获取执行线程名（日志中无线程信息时为 null）
+         */
+        public String getThreadName() {
+            return threadName;
+        }
+
+        /**
+         * 获取 Mapper 语句 ID，即 MyBatis 日志的 Logger 名（如 com.acme.mapper.OrderMapper.insert）
+         */
+        public String getStatementId() {
+            return statementId;
+        }
+
+        /**
+         * 获取捕获时间（毫秒）
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * 获取返回行数（Total）或影响行数（Updates），日志中没有完成行时为 -1
+         */
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * 获取耗时（纳秒），无法计算时为 -1
+         * 日志来源取 Preparing 到 Total/Updates 的时间戳差（精确到毫秒），拦截器来源为实际执行耗时
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * 获取耗时（整毫秒，向下取整），用于与毫秒阈值比较，无法计算时为 -1
+         */
+        public long getElapsedMillis() {
+            return ElapsedTime.toMillis(elapsedNanos);
+        }
+    }
+}
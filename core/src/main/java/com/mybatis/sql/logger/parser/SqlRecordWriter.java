@@ -0,0 +1,276 @@
+package com.mybatis.sql.logger.parser;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * SQL 记录输出
+ * 把解析结果逐条编码为可直接执行的 SQL 脚本、带元数据的 JSON Lines 或 CSV，写入调用方提供的 Writer；
+ * 每条记录先在复用的 StringBuilder 中拼好再一次写出。插件的导出和命令行工具共用
+ */
+public final class SqlRecordWriter {
+
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter ISO_TIME_FORMAT =
+            DateTimeFormatter.ISO_OFFSET_DATE_TIME.withZone(ZoneId.systemDefault());
+
+    /**
+     * 输出格式
+     */
+    public enum Format {
+        SQL("sql", "SQL 脚本（可直接执行）"),
+        JSONL("jsonl", "JSON Lines（含元数据）"),
+        CSV("csv", "CSV");
+
+        private final String extension;
+        private final String description;
+
+        Format(String extension, String description) {
+            this.extension = extension;
+            this.description = description;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
+    private final Writer out;
+    private final Format format;
+    private final StringBuilder line = new StringBuilder(512);
+
+    public SqlRecordWriter(Writer out, Format format) {
+        this.out = out;
+        this.format = format;
+    }
+
+    /**
+     * 写入文件头（只有 CSV 有表头）
+     */
+    public void writeHeader() throws IOException {
+        if (format == Format.CSV) {
+            out.write("time,thread,mapper,type,elapsed_ms,rows,sql,parameters\r\n");
+        }
+    }
+
+    /**
+     * 写入一条 SQL
+     */
+    public void write(SqlLogParser.ParsedSql record) throws IOException {
+        line.setLength(0);
+        switch (format) {
+            case SQL:
+                appendSql(record);
+                break;
+            case JSONL:
+                appendJson(record);
+                break;
+            case CSV:
+                appendCsv(record);
+                break;
+            default:
+                throw new IllegalStateException("未知的导出格式: " + format);
+        }
+        out.append(line);
+    }
+
+    /**
+     * 一条注释行（时间、线程、Mapper、耗时、行数）加一条以分号结尾、参数已转义的完整 SQL；
+     * 最后一行带 -- 注释时分号另起一行，避免被注释吞掉
+     */
+    private void appendSql(SqlLogParser.ParsedSql record) {
+        line.append("-- ").append(TIME_FORMAT.format(Instant.ofEpochMilli(record.getTimestamp())));
+        if (record.getThreadName() != null) {
+            line.append(" [").append(singleLine(record.getThreadName())).append(']');
+        }
+        if (record.getStatementId() != null) {
+            line.append(' ').append(singleLine(record.getStatementId()));
+        }
+        if (record.getElapsedNanos() >= 0) {
+            line.append("  ").append(ElapsedTime.format(record.getElapsedNanos())).append(" ms");
+        }
+        if (record.getRowCount() >= 0) {
+            line.append("  ").append(record.getRowCount()).append(" 行");
+        }
+        line.append('\n');
+
+        String sql = record.getExecutableSql();
+        int end = sql.length();
+        while (end > 0 && (Character.isWhitespace(sql.charAt(end - 1)) || sql.charAt(end - 1) == ';')) {
+            end--;
+        }
+        line.append(sql, 0, end);
+        if (sql.indexOf("--", sql.lastIndexOf('\n', end - 1) + 1) >= 0) {
+            line.append('\n');
+        }
+        line.append(";\n\n");
+    }
+
+    private void appendJson(SqlLogParser.ParsedSql record) {
+        line.append("{\"time\":");
+        appendJsonString(ISO_TIME_FORMAT.format(Instant.ofEpochMilli(record.getTimestamp())));
+        line.append(",\"timestamp\":").append(record.getTimestamp());
+        line.append(",\"thread\":");
+        appendJsonString(record.getThreadName());
+        line.append(",\"mapper\":");
+        appendJsonString(record.getStatementId());
+        line.append(",\"type\":");
+        appendJsonString(record.getSqlType().name());
+        line.append(",\"elapsedMs\":");
+        if (record.getElapsedNanos() < 0) {
+            line.append("null");
+        } else {
+            line.append(ElapsedTime.toExactMillis(record.getElapsedNanos()));
+        }
+        line.append(",\"rows\":");
+        appendJsonNumber(record.getRowCount());
+        line.append(",\"sql\":");
+        appendJsonString(record.getCompleteSql());
+        line.append(",\"template\":");
+        appendJsonString(record.getOriginalSql());
+        line.append(",\"parameters\":");
+        appendJsonParameters(record.getParameters());
+        line.append("}\n");
+    }
+
+    private void appendCsv(SqlLogParser.ParsedSql record) {
+        appendCsvField(TIME_FORMAT.format(Instant.ofEpochMilli(record.getTimestamp())));
+        line.append(',');
+        appendCsvField(record.getThreadName());
+        line.append(',');
+        appendCsvField(record.getStatementId());
+        line.append(',');
+        appendCsvField(record.getSqlType().name());
+        line.append(',');
+        if (record.getElapsedNanos() >= 0) {
+            line.append(ElapsedTime.toExactMillis(record.getElapsedNanos()));
+        }
+        line.append(',');
+        if (record.getRowCount() >= 0) {
+            line.append(record.getRowCount());
+        }
+        line.append(',');
+        appendCsvField(record.getCompleteSql());
+        line.append(',');
+
+        // 参数列以 JSON 数组保存，保留类型和 null
+        int start = line.length();
+        appendJsonParameters(record.getParameters());
+        String parameters = line.substring(start);
+        line.setLength(start);
+        appendCsvField(parameters);
+        line.append("\r\n");
+    }
+
+    private void appendJsonParameters(List<Object> parameters) {
+        line.append('[');
+        if (parameters != null) {
+            for (int i = 0; i < parameters.size(); i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                Object value = parameters.get(i);
+                if (value == null) {
+                    line.append("null");
+                } else if (value instanceof Boolean || value instanceof Integer || value instanceof Long) {
+                    line.append(value);
+                } else if (value instanceof Double && Double.isFinite((Double) value)) {
+                    line.append(value);
+                } else if (value instanceof BigDecimal) {
+                    line.append(((BigDecimal) value).toPlainString());
+                } else {
+                    appendJsonString(value.toString());
+                }
+            }
+        }
+        line.append(']');
+    }
+
+    /**
+     * 未知的耗时和行数（-1）输出为 null
+     */
+    private void appendJsonNumber(long value) {
+        if (value < 0) {
+            line.append("null");
+        } else {
+            line.append(value);
+        }
+    }
+
+    private void appendJsonString(String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+
+    /**
+     * 含逗号、引号或换行的字段用双引号包围，内部引号加倍（RFC 4180）
+     */
+    private void appendCsvField(String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private static String singleLine(String value) {
+        return value.replace('\n', ' ').replace('\r', ' ');
+    }
+}
@@ -0,0 +1,195 @@
+package com.mybatis.sql.logger.parser;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SQL 模板中引用的表名和列名
+ * 同一模板只提取一次并缓存，供检索索引和过滤规则共用
+ */
+public final class SqlTemplateTerms {
+
+    // 模板 -> 表名/列名 缓存的最大条目数，超出后整体清空
+    private static final int MAX_CACHED = 4096;
+    private static final ConcurrentHashMap<String, SqlTemplateTerms> CACHE = new ConcurrentHashMap<>();
+
+    // 识别表名时需要跳过的 SQL 关键字
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+            "select", "from", "where", "and", "or", "not", "in", "is", "null", "like", "between", "exists",
+            "insert", "into", "values", "value", "update", "set", "delete", "replace", "merge", "using",
+            "join", "inner", "left", "right", "full", "outer", "cross", "on", "as", "distinct", "all", "any",
+            "group", "order", "by", "having", "limit", "offset", "asc", "desc", "union", "case", "when", "then",
+            "else", "end", "count", "sum", "avg", "min", "max", "true", "false", "for", "duplicate", "key",
+            "ignore", "with", "table", "if", "interval", "cast", "convert", "coalesce", "ifnull", "now",
+            "fetch", "first", "next", "rows", "row", "only", "top", "lock", "share", "mode", "returning"));
+
+    private final String[] tables;
+    private final String[] columns;
+
+    private SqlTemplateTerms(String[] tables, String[] columns) {
+        this.tables = tables;
+        this.columns = columns;
+    }
+
+    /**
+     * 提取 SQL 模板中的表名和列名（相同模板直接命中缓存）
+     */
+    public static SqlTemplateTerms of(String template) {
+        if (template == null) {
+            template = "";
+        }
+        SqlTemplateTerms cached = CACHE.get(template);
+        if (cached != null) {
+            return cached;
+        }
+
+        SqlTemplateTerms terms = extract(template);
+        if (CACHE.size() >= MAX_CACHED) {
+            CACHE.clear();
+        }
+        CACHE.put(template, terms);
+        return terms;
+    }
+
+    /**
+     * 表名（小写；限定名同时包含完整名称和最后一段）
+     */
+    public String[] getTables() {
+        return tables;
+    }
+
+    /**
+     * 列名（小写，不含表名）
+     */
+    public String[] getColumns() {
+        return columns;
+    }
+
+    /**
+     * 扫描标识符：FROM / JOIN / UPDATE / INTO 之后（以及 FROM 列表中逗号之后）的标识符视为表名，
+     * 紧跟表名的别名跳过，其余非关键字标识符视为列名；限定名 a.b 只取最后一段作为列名
+     */
+    static SqlTemplateTerms extract(String sql) {
+        Set<String> tables = new HashSet<>();
+        Set<String> columns = new HashSet<>();
+        String lower = sql.toLowerCase(Locale.ROOT);
+        int length = lower.length();
+        boolean expectTable = false;
+        boolean inFromList = false;
+        boolean afterTable = false;
+        int depth = 0;
+        int fromDepth = -1;
+        int i = 0;
+
+        while (i < length) {
+            char c = lower.charAt(i);
+            if (c == '\'') {
+                i = skipQuoted(lower, i);
+                afterTable = false;
+                continue;
+            }
+            if (isIdentifierStart(c) || c == '`' || c == '"') {
+                int end = scanName(lower, i);
+                String raw = lower.substring(i, end);
+                String name = raw.replace("`", "").replace("\"", "");
+                i = end;
+                if (name.isEmpty()) {
+                    continue;
+                }
+                // 带引号的名称（例如 `order`）不是关键字
+                if (raw.length() == name.length() && KEYWORDS.contains(name)) {
+                    expectTable = name.equals("from") || name.equals("join") || name.equals("update")
+                            || name.equals("into");
+                    if (name.equals("from")) {
+                        inFromList = true;
+                        fromDepth = depth;
+                    } else if (!name.equals("as") && !expectTable) {
+                        inFromList = false;
+                    }
+                    if (!name.equals("as")) {
+                        afterTable = false;
+                    }
+                    continue;
+                }
+                if (expectTable) {
+                    int dot = name.lastIndexOf('.');
+                    tables.add(name);
+                    if (dot >= 0) {
+                        tables.add(name.substring(dot + 1));
+                    }
+                    expectTable = false;
+                    afterTable = true;
+                } else if (afterTable) {
+                    // 表别名
+                    afterTable = false;
+                } else {
+                    int dot = name.lastIndexOf('.');
+                    columns.add(dot >= 0 ? name.substring(dot + 1) : name);
+                }
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+                // INSERT INTO t (col, ...) 的列清单以及子查询
+                expectTable = false;
+                afterTable = false;
+            } else if (c == ')') {
+                depth--;
+                if (depth < fromDepth) {
+                    inFromList = false;
+                }
+                afterTable = false;
+            } else if (c == ',') {
+                expectTable = inFromList && depth == fromDepth;
+                afterTable = false;
+            } else if (!Character.isWhitespace(c)) {
+                afterTable = false;
+            }
+            i++;
+        }
+        columns.removeAll(tables);
+        return new SqlTemplateTerms(tables.toArray(new String[0]), columns.toArray(new String[0]));
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return Character.isLetter(c) || c == '_' || c == '$';
+    }
+
+    private static int scanName(String sql, int start) {
+        int i = start;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '`' || c == '"') {
+                int close = sql.indexOf(c, i + 1);
+                i = close < 0 ? sql.length() : close + 1;
+            } else if (Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '.') {
+                i++;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static int skipQuoted(String sql, int start) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '\'') {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        return sql.length();
+    }
+}
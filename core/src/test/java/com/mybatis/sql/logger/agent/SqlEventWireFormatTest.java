@@ -0,0 +1,116 @@
+package com.mybatis.sql.logger.agent;
+
+import com.mybatis.sql.logger.parser.SqlEventDecoder;
+import com.mybatis.sql.logger.parser.SqlLogParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 拦截器端 SqlEventEncoder 与插件端 SqlEventDecoder 的线路格式必须一致
+ * （编码器是包内可见的，测试放在 agent 包中）
+ */
+class SqlEventWireFormatTest {
+
+    private enum Status {
+        ACTIVE
+    }
+
+    @Test
+    void decoderAcceptsEncoderStreamHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.wrap(SqlEventEncoder.STREAM_HEADER);
+        assertEquals(SqlEventDecoder.headerLength(), header.remaining());
+        assertEquals(SqlEventDecoder.MAGIC, header.get(0));
+
+        SqlEventDecoder.readHeader(header);
+
+        assertFalse(header.hasRemaining());
+    }
+
+    @Test
+    void rejectsOtherStreamVersions() {
+        byte[] header = SqlEventEncoder.STREAM_HEADER.clone();
+        header[header.length - 1]++;
+
+        assertThrows(IOException.class, () -> SqlEventDecoder.readHeader(ByteBuffer.wrap(header)));
+    }
+
+    @Test
+    void roundTripsEventWithTypedParameters() throws IOException {
+        List<Object> parameters = Arrays.asList(null, "张三 'x'", 7, (short) 8, 9L, 1.25, 0.1f,
+                new BigDecimal("12.500"), new BigInteger("123456789012345678901234567890"), true, Status.ACTIVE,
+                new byte[3]);
+        byte[] frame = SqlEventEncoder.encode(1_700_000_000_123L, "http-nio-8080-exec-1",
+                "com.example.UserMapper.select", "SELECT * FROM user WHERE id = ?", parameters, 423_512L, 5);
+
+        SqlLogParser.ParsedSql event = decodeFrame(frame);
+
+        assertEquals(1_700_000_000_123L, event.getTimestamp());
+        assertEquals("http-nio-8080-exec-1", event.getThreadName());
+        assertEquals("com.example.UserMapper.select", event.getStatementId());
+        assertEquals("SELECT * FROM user WHERE id = ?", event.getOriginalSql());
+        assertEquals(423_512L, event.getElapsedNanos());
+        assertEquals(5, event.getRowCount());
+        assertEquals(Arrays.asList(null, "张三 'x'", 7, 8, 9L, 1.25, new BigDecimal("0.1"),
+                new BigDecimal("12.500"), new BigDecimal("123456789012345678901234567890"), true, "ACTIVE",
+                "<3 bytes>"), event.getParameters());
+    }
+
+    @Test
+    void roundTripsNullStringsAndUnknownCounts() throws IOException {
+        byte[] frame = SqlEventEncoder.encode(0, null, null, "UPDATE t SET a = 1", List.of(), -1, -1);
+
+        SqlLogParser.ParsedSql event = decodeFrame(frame);
+
+        assertNull(event.getThreadName());
+        assertNull(event.getStatementId());
+        assertEquals(-1, event.getElapsedNanos());
+        assertEquals(-1, event.getRowCount());
+        assertEquals(List.of(), event.getParameters());
+    }
+
+    @Test
+    void rejectsTruncatedFrame() {
+        byte[] frame = SqlEventEncoder.encode(0, "main", "m.select", "SELECT ?", List.of("abc"), 1, 1);
+        byte[] truncated = Arrays.copyOfRange(frame, 4, frame.length - 9);
+
+        assertThrows(IOException.class, () -> SqlEventDecoder.decode(ByteBuffer.wrap(truncated)));
+    }
+
+    @Test
+    void rejectsUnknownParameterTag() {
+        byte[] frame = SqlEventEncoder.encode(0, null, null, "SELECT ?", Arrays.asList((Object) null), 1, 1);
+        // 唯一一个参数的类型标记位于行数和耗时（各 8 字节）之前
+        frame[frame.length - 17] = 99;
+
+        assertThrows(IOException.class, () -> decodeFrame(frame));
+    }
+
+    @Test
+    void lengthPrefixIsBigEndian() {
+        byte[] frame = SqlEventEncoder.encode(0, null, null, "x".repeat(300), List.of(), 0, 0);
+
+        assertArrayEquals(ByteBuffer.allocate(4).putInt(frame.length - 4).array(), Arrays.copyOf(frame, 4));
+    }
+
+    private static SqlLogParser.ParsedSql decodeFrame(byte[] frame) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        int length = buffer.getInt();
+        assertEquals(frame.length - 4, length);
+        ByteBuffer content = buffer.slice();
+        SqlLogParser.ParsedSql event = SqlEventDecoder.decode(content);
+        assertFalse(content.hasRemaining());
+        return event;
+    }
+}
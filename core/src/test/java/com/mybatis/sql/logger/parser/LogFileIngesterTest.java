@@ -0,0 +1,151 @@
+package com.mybatis.sql.logger.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 分块解析：跨块的语句只输出一次，收尾余量用完时按未完成语句输出
+ * 块大小是生产配置（16 MB），测试文件需要跨过至少一个块边界
+ */
+class LogFileIngesterTest {
+
+    private static final String PREFIX = "2024-03-01 10:00:00.000 [main] DEBUG c.e.UserMapper.select - ";
+    private static final String PREPARING = PREFIX + "==>  Preparing: SELECT * FROM user WHERE id = ?\n";
+    private static final String PARAMETERS = PREFIX + "==> Parameters: 1001(Long)\n";
+    private static final String TOTAL = PREFIX + "<==      Total: 1\n";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void statementWhoseFirstLineStraddlesChunkBoundaryIsEmittedOnce() throws IOException {
+        Path file = directory.resolve("straddle.log");
+        try (LogWriter out = new LogWriter(file)) {
+            out.fillTo(LogFileIngester.CHUNK_BYTES - 20);
+            out.write(PREPARING + PARAMETERS + TOTAL);
+        }
+
+        List<SqlLogParser.ParsedSql> statements = ingest(file);
+
+        assertEquals(1, statements.size());
+        assertEquals("SELECT * FROM user WHERE id = 1001", statements.get(0).getCompleteSql());
+        assertEquals(1, statements.get(0).getRowCount());
+    }
+
+    @Test
+    void statementCompletedInNextChunkIsEmittedOnceByItsOwnChunk() throws IOException {
+        Path file = directory.resolve("split.log");
+        try (LogWriter out = new LogWriter(file)) {
+            // Preparing 行是第一块的最后一行，Parameters 和 Total 在第二块开头
+            out.fillTo(LogFileIngester.CHUNK_BYTES - PREPARING.length());
+            out.write(PREPARING + PARAMETERS + TOTAL);
+            out.write(PREPARING.replace("id = ?", "name = ?") + PREFIX + "==> Parameters: Tom(String)\n" + TOTAL);
+        }
+
+        List<SqlLogParser.ParsedSql> statements = ingest(file);
+
+        assertEquals(2, statements.size());
+        assertEquals("SELECT * FROM user WHERE id = 1001", statements.get(0).getCompleteSql());
+        assertEquals(1, statements.get(0).getRowCount());
+        assertEquals("SELECT * FROM user WHERE name = 'Tom'", statements.get(1).getCompleteSql());
+    }
+
+    @Test
+    void statementStillUnfinishedAfterOverrunIsEmittedWithoutRowCount() throws IOException {
+        Path file = directory.resolve("overrun.log");
+        try (LogWriter out = new LogWriter(file)) {
+            out.fillTo(LogFileIngester.CHUNK_BYTES - PREPARING.length() - PARAMETERS.length());
+            out.write(PREPARING + PARAMETERS);
+            // Total 出现在收尾余量之外，由下一块读到时已没有对应的语句
+            out.fillTo(LogFileIngester.CHUNK_BYTES + LogFileIngester.MAX_OVERRUN_BYTES + 4096);
+            out.write(TOTAL);
+            out.write(PREPARING.replace("id = ?", "id > ?") + PARAMETERS + TOTAL);
+        }
+
+        List<SqlLogParser.ParsedSql> statements = ingest(file);
+
+        assertEquals(2, statements.size());
+        assertEquals("SELECT * FROM user WHERE id = 1001", statements.get(0).getCompleteSql());
+        assertEquals(-1, statements.get(0).getRowCount());
+        assertEquals("SELECT * FROM user WHERE id > 1001", statements.get(1).getCompleteSql());
+        assertEquals(1, statements.get(1).getRowCount());
+    }
+
+    @Test
+    void overlongLinesAreDroppedAndCounted() throws IOException {
+        Path file = directory.resolve("long.log");
+        try (LogWriter out = new LogWriter(file)) {
+            out.write(PREFIX + "x".repeat(5000) + "\n");
+            out.write(PREPARING + PARAMETERS + TOTAL);
+        }
+        LogFileIngester ingester = newIngester();
+        List<SqlLogParser.ParsedSql> statements = new ArrayList<>();
+
+        ingester.ingest(file, statements::add, (parsed, total) -> {
+        });
+
+        assertEquals(1, statements.size());
+        assertEquals(1, ingester.getDroppedLineCount());
+    }
+
+    private static List<SqlLogParser.ParsedSql> ingest(Path file) throws IOException {
+        List<SqlLogParser.ParsedSql> statements = new ArrayList<>();
+        long count = newIngester().ingest(file, statements::add, (parsed, total) -> {
+        });
+        assertEquals(statements.size(), count);
+        return statements;
+    }
+
+    private static LogFileIngester newIngester() {
+        // 与命令行工具相同：离线解析不按墙钟时间淘汰待配对语句
+        return new LogFileIngester(() -> new SqlLogParser(new CorrelationKeyExtractor(),
+                SqlLogParser.DEFAULT_MAX_PENDING, 0, 0), StandardCharsets.UTF_8, 1024, 2);
+    }
+
+    /**
+     * 按字节计数的日志写入，用普通日志行把文件填充到指定长度
+     */
+    private static final class LogWriter implements AutoCloseable {
+        private static final String FILLER = "2024-03-01 10:00:00.000 [main] INFO  c.e.Application - request handled ";
+
+        private final OutputStream out;
+        private long size;
+
+        LogWriter(Path file) throws IOException {
+            this.out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16);
+        }
+
+        void write(String text) throws IOException {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            out.write(bytes);
+            size += bytes.length;
+        }
+
+        void fillTo(long target) throws IOException {
+            while (size < target) {
+                long remaining = target - size;
+                if (remaining > FILLER.length() * 2L) {
+                    write(FILLER + "\n");
+                } else {
+                    write("x".repeat((int) remaining - 1) + "\n");
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.mybatis.sql.logger.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PlaceholderSubstitutorTest {
+
+    @Test
+    void replacesPlaceholdersInOrder() {
+        assertEquals("SELECT * FROM user WHERE id = 1001 AND name = 'Tom' AND deleted = 0",
+                PlaceholderSubstitutor.substitute("SELECT * FROM user WHERE id = ? AND name = ? AND deleted = ?",
+                        List.of(1001, "Tom", false)));
+    }
+
+    @Test
+    void keepsExtraPlaceholdersAndIgnoresExtraParameters() {
+        assertEquals("SELECT 1 FROM t WHERE a = 1 AND b = ?",
+                PlaceholderSubstitutor.substitute("SELECT 1 FROM t WHERE a = ? AND b = ?", List.of(1)));
+        assertEquals("SELECT 1 FROM t WHERE a = 1",
+                PlaceholderSubstitutor.substitute("SELECT 1 FROM t WHERE a = ?", List.of(1, 2, 3)));
+    }
+
+    @Test
+    void returnsTemplateUnchangedWithoutParameters() {
+        String sql = "SELECT * FROM t WHERE a = ?";
+        assertSame(sql, PlaceholderSubstitutor.substitute(sql, List.of()));
+        assertSame(sql, PlaceholderSubstitutor.substitute(sql, null));
+    }
+
+    @Test
+    void skipsPlaceholdersInsideQuotes() {
+        assertEquals("SELECT '?', \"a?\", `b?` FROM t WHERE c = 1",
+                PlaceholderSubstitutor.substitute("SELECT '?', \"a?\", `b?` FROM t WHERE c = ?", List.of(1)));
+        // '' 和反斜杠转义的引号不结束字面量
+        assertEquals("SELECT 'it''s ?', 'a\\'?' FROM t WHERE c = 1",
+                PlaceholderSubstitutor.substitute("SELECT 'it''s ?', 'a\\'?' FROM t WHERE c = ?", List.of(1)));
+    }
+
+    @Test
+    void skipsPlaceholdersInsideComments() {
+        assertEquals("SELECT /* ? */ a FROM t -- where ?\nWHERE b = 1 -- ?\nAND c = 2",
+                PlaceholderSubstitutor.substitute("SELECT /* ? */ a FROM t -- where ?\nWHERE b = ? -- ?\nAND c = ?",
+                        List.of(1, 2)));
+    }
+
+    @Test
+    void lineCommentWithoutNewlineOnlySkipsDashes() {
+        // Preparing 行已压缩成一行，-- 之后的占位符仍然替换
+        assertEquals("SELECT a FROM t -- 注释 WHERE b = 1",
+                PlaceholderSubstitutor.substitute("SELECT a FROM t -- 注释 WHERE b = ?", List.of(1)));
+    }
+
+    @Test
+    void handlesPostgresOperators() {
+        assertEquals("SELECT * FROM t WHERE tags ?| array['a'] AND data ?& array['b'] AND id = 7",
+                PlaceholderSubstitutor.substitute(
+                        "SELECT * FROM t WHERE tags ?| array['a'] AND data ?& array['b'] AND id = ?", List.of(7)));
+        // JDBC 转义的 ?? 输出为一个 ?
+        assertEquals("SELECT * FROM t WHERE data ? 'key' AND id = 7",
+                PlaceholderSubstitutor.substitute("SELECT * FROM t WHERE data ?? 'key' AND id = ?", List.of(7)));
+        // ?|| 是占位符后接字符串拼接
+        assertEquals("SELECT 'a'||'b'", PlaceholderSubstitutor.substitute("SELECT ?||?", List.of("a", "b")));
+    }
+
+    @Test
+    void rendersNullAndCustomValues() {
+        assertEquals("INSERT INTO t VALUES (null, 'O''Brien')",
+                PlaceholderSubstitutor.substitute("INSERT INTO t VALUES (?, ?)", Arrays.asList(null, "O'Brien"),
+                        SqlFormatter::getSqlLiteral));
+    }
+
+    @Test
+    void findsNextNewlineOncePerPosition() {
+        String sql = "a\nb\nc";
+        assertEquals(1, PlaceholderSubstitutor.nextNewline(sql, 0, sql.indexOf('\n')));
+        assertEquals(3, PlaceholderSubstitutor.nextNewline(sql, 2, 1));
+        assertEquals(-1, PlaceholderSubstitutor.nextNewline(sql, 4, -1));
+    }
+}
@@ -0,0 +1,81 @@
+package com.mybatis.sql.logger.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlRecordWriterTest {
+
+    @Test
+    void csvQuotesFieldsWithSeparatorsAndDoublesQuotes() throws IOException {
+        SqlLogParser.ParsedSql record = new SqlLogParser.ParsedSql(
+                "SELECT \"name\", ? FROM t WHERE a = ?\nAND b = 1", List.of("x,y", 3),
+                "main", "com.example.UserMapper.select", 0, 2, 1_500_000);
+
+        String[] lines = write(SqlRecordWriter.Format.CSV, record).split("\r\n", -1);
+
+        assertEquals("time,thread,mapper,type,elapsed_ms,rows,sql,parameters", lines[0]);
+        assertEquals(3, lines.length);
+        assertTrue(lines[1].endsWith(",main,com.example.UserMapper.select,QUERY,1.5,2,"
+                + "\"SELECT \"\"name\"\", 'x,y' FROM t WHERE a = 3\nAND b = 1\",\"[\"\"x,y\"\",3]\""), lines[1]);
+        assertEquals("", lines[2]);
+    }
+
+    @Test
+    void csvLeavesUnknownValuesEmpty() throws IOException {
+        SqlLogParser.ParsedSql record = new SqlLogParser.ParsedSql("DELETE FROM t", List.of(), null, null, 0, -1, -1);
+
+        String csv = write(SqlRecordWriter.Format.CSV, record);
+
+        assertTrue(csv.endsWith(",,,DELETE,,,DELETE FROM t,[]\r\n"), csv);
+    }
+
+    @Test
+    void jsonEscapesStringsAndKeepsParameterTypes() throws IOException {
+        SqlLogParser.ParsedSql record = new SqlLogParser.ParsedSql(
+                "UPDATE t SET note = ? WHERE id = ? AND ratio = ? AND flag = ? AND other = ?",
+                Arrays.asList("a\"b\\c\n\t\u0001", 42L, new BigDecimal("1.50"), true, null),
+                "pool-1", "m.update", 0, 1, -1);
+
+        String json = write(SqlRecordWriter.Format.JSONL, record);
+
+        assertTrue(json.endsWith("\n") && json.indexOf('\n') == json.length() - 1, json);
+        assertTrue(json.contains("\"elapsedMs\":null,\"rows\":1,"), json);
+        assertTrue(json.contains("\"template\":\"UPDATE t SET note = ? WHERE id = ? AND ratio = ? AND flag = ? AND other = ?\""),
+                json);
+        assertTrue(json.contains("\"parameters\":[\"a\\\"b\\\\c\\n\\t\\u0001\",42,1.50,true,null]"), json);
+        assertTrue(json.contains("\"sql\":\"UPDATE t SET note = 'a\\\"b\\\\c\\n\\t\\u0001' WHERE id = 42"), json);
+    }
+
+    @Test
+    void jsonWritesSubMillisecondElapsedTime() throws IOException {
+        SqlLogParser.ParsedSql record = new SqlLogParser.ParsedSql("SELECT 1", List.of(), null, null, 0, 1, 423_512);
+
+        assertTrue(write(SqlRecordWriter.Format.JSONL, record).contains("\"elapsedMs\":0.423512,"));
+    }
+
+    @Test
+    void sqlScriptEscapesLiteralsAndEndsCommentedStatements() throws IOException {
+        SqlLogParser.ParsedSql record = new SqlLogParser.ParsedSql(
+                "SELECT * FROM t WHERE name = ? -- 按名称", List.of("O'Brien\\"), null, null, 0, -1, -1);
+
+        String script = write(SqlRecordWriter.Format.SQL, record);
+
+        assertTrue(script.endsWith("SELECT * FROM t WHERE name = 'O''Brien\\\\' -- 按名称\n;\n\n"), script);
+    }
+
+    private static String write(SqlRecordWriter.Format format, SqlLogParser.ParsedSql record) throws IOException {
+        StringWriter out = new StringWriter();
+        SqlRecordWriter writer = new SqlRecordWriter(out, format);
+        writer.writeHeader();
+        writer.write(record);
+        return out.toString();
+    }
+}
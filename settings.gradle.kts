@@ -1 +1,6 @@
 rootProject.name = "mybatis-sql-logger"
+
+// 解析、参数替换和格式化引擎及命令行工具，不依赖 IntelliJ 平台
+include("core")
+// 可选的 MyBatis 拦截器，运行在被调试的应用中
+include("agent")
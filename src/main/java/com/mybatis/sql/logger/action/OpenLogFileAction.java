@@ -0,0 +1,96 @@
+package com.mybatis.sql.logger.action;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.ActionPlaces;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.fileChooser.FileChooser;
+import com.intellij.openapi.fileChooser.FileChooserDescriptorFactory;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowManager;
+import com.mybatis.sql.logger.service.SqlConsoleService;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+
+/**
+ * 在 SQL Console 中打开日志文件 Action
+ * 项目视图中选中文件时直接解析该文件，否则弹出文件选择框；解析在后台任务中进行，可以取消
+ */
+public class OpenLogFileAction extends AnAction {
+
+    public OpenLogFileAction() {
+        super("在 SQL Console 中打开日志文件", "解析日志文件中的 MyBatis SQL 并加入 SQL Console",
+                AllIcons.FileTypes.Text);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) {
+            return;
+        }
+        // 只有项目视图右键菜单中的 VIRTUAL_FILE 是用户选中的文件，其他位置是当前编辑器中的文件
+        VirtualFile file = ActionPlaces.PROJECT_VIEW_POPUP.equals(e.getPlace())
+                ? e.getData(CommonDataKeys.VIRTUAL_FILE) : null;
+        if (file == null || file.isDirectory() || !file.isInLocalFileSystem()) {
+            file = FileChooser.chooseFile(FileChooserDescriptorFactory.createSingleFileNoJarsDescriptor()
+                    .withTitle("在 SQL Console 中打开日志文件"), project, null);
+            if (file == null) {
+                return;
+            }
+        }
+
+        ToolWindow toolWindow = ToolWindowManager.getInstance(project).getToolWindow("SQL Console");
+        if (toolWindow != null) {
+            toolWindow.activate(null);
+        }
+        ingest(project, file.toNioPath(), file.getCharset(), file.getName());
+    }
+
+    private static void ingest(Project project, Path path, Charset charset, String name) {
+        new Task.Backgroundable(project, "解析日志文件: " + name, true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setIndeterminate(false);
+                try {
+                    long count = SqlConsoleService.getInstance(project).ingestLogFile(path, charset,
+                            (parsedBytes, totalBytes) -> {
+                                indicator.checkCanceled();
+                                indicator.setFraction(totalBytes == 0 ? 1.0 : (double) parsedBytes / totalBytes);
+                                indicator.setText2(StringUtil.formatFileSize(parsedBytes) + " / "
+                                        + StringUtil.formatFileSize(totalBytes));
+                            });
+                    if (count == 0) {
+                        ApplicationManager.getApplication().invokeLater(() -> Messages.showInfoMessage(project,
+                                "没有在 " + name + " 中找到 MyBatis SQL 日志", "打开日志文件"));
+                    }
+                } catch (IOException ex) {
+                    ApplicationManager.getApplication().invokeLater(() -> Messages.showErrorDialog(project,
+                            "读取日志文件失败: " + ex.getMessage(), "打开日志文件"));
+                }
+            }
+        }.queue();
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabled(e.getProject() != null);
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+}
@@ -0,0 +1,64 @@
+package com.mybatis.sql.logger.action;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.DumbAwareToggleAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.mybatis.sql.logger.listener.SocketIngestService;
+import com.mybatis.sql.logger.service.SqlLoggerSettings;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * 监听本地日志端口 Action
+ * 开启后外部服务可以把日志通过 socket appender 发送到 127.0.0.1 的设置端口，其中的 SQL 显示在 SQL Console 中
+ */
+public class SocketIngestAction extends DumbAwareToggleAction {
+
+    public SocketIngestAction() {
+        super("监听本地日志端口", "接收外部服务通过 socket appender 发送到本机端口的日志并解析其中的 MyBatis SQL",
+                AllIcons.Webreferences.Server);
+    }
+
+    @Override
+    public boolean isSelected(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        return project != null && SocketIngestService.getInstance(project).isRunning();
+    }
+
+    @Override
+    public void setSelected(@NotNull AnActionEvent e, boolean state) {
+        Project project = e.getProject();
+        if (project == null) {
+            return;
+        }
+        SocketIngestService service = SocketIngestService.getInstance(project);
+        if (!state) {
+            service.stop();
+            return;
+        }
+        int port = SqlLoggerSettings.getInstance().getState().socketIngestPort;
+        try {
+            service.start(port);
+        } catch (IOException ex) {
+            Messages.showErrorDialog(project, "无法监听端口 " + port + ": " + ex.getMessage()
+                    + "\n可以在设置中修改端口", "监听本地日志端口");
+        }
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        super.update(e);
+        e.getPresentation().setEnabled(e.getProject() != null);
+        e.getPresentation().setText("监听本地日志端口 (127.0.0.1:"
+                + SqlLoggerSettings.getInstance().getState().socketIngestPort + ")");
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+}
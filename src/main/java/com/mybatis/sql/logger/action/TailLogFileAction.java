@@ -0,0 +1,105 @@
+package com.mybatis.sql.logger.action;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.ActionPlaces;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.fileChooser.FileChooser;
+import com.intellij.openapi.fileChooser.FileChooserDescriptorFactory;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.ui.popup.JBPopupFactory;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.mybatis.sql.logger.listener.LogTailService;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 跟踪日志文件 Action
+ * 适用于不由 IDE 启动的服务（Docker、独立 JVM 等）：持续读取日志文件新追加的内容并解析其中的 SQL。
+ * 从项目视图右键菜单调用时直接跟踪选中的文件；其他位置（Tools 菜单、SQL Console 工具栏）调用时，
+ * 已有跟踪中的文件则弹出菜单，可以停止跟踪或再跟踪一个文件
+ */
+public class TailLogFileAction extends AnAction {
+
+    public TailLogFileAction() {
+        super("跟踪日志文件", "持续解析外部进程写入日志文件的 MyBatis SQL", AllIcons.Debugger.Console);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) {
+            return;
+        }
+        LogTailService tailService = LogTailService.getInstance(project);
+
+        // 其他位置的 VIRTUAL_FILE 是当前编辑器中的文件，不能当作用户选择的日志文件
+        VirtualFile selected = ActionPlaces.PROJECT_VIEW_POPUP.equals(e.getPlace())
+                ? e.getData(CommonDataKeys.VIRTUAL_FILE) : null;
+        if (selected != null && !selected.isDirectory() && selected.isInLocalFileSystem()) {
+            start(project, selected);
+            return;
+        }
+
+        List<Path> tailed = tailService.getTailedFiles();
+        if (tailed.isEmpty()) {
+            chooseAndStart(project);
+            return;
+        }
+
+        DefaultActionGroup group = new DefaultActionGroup();
+        group.add(new DumbAwareAction("跟踪新的日志文件...") {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent event) {
+                chooseAndStart(project);
+            }
+        });
+        group.addSeparator();
+        for (Path path : tailed) {
+            group.add(new DumbAwareAction("停止跟踪 " + path, null, AllIcons.Actions.Suspend) {
+                @Override
+                public void actionPerformed(@NotNull AnActionEvent event) {
+                    tailService.stop(path);
+                }
+            });
+        }
+        JBPopupFactory.getInstance()
+                .createActionGroupPopup("跟踪日志文件", group, e.getDataContext(),
+                        JBPopupFactory.ActionSelectionAid.SPEEDSEARCH, false)
+                .showInBestPositionFor(e.getDataContext());
+    }
+
+    private static void chooseAndStart(Project project) {
+        VirtualFile file = FileChooser.chooseFile(FileChooserDescriptorFactory.createSingleFileNoJarsDescriptor()
+                .withTitle("跟踪日志文件"), project, null);
+        if (file != null) {
+            start(project, file);
+        }
+    }
+
+    private static void start(Project project, VirtualFile file) {
+        try {
+            LogTailService.getInstance(project).start(file.toNioPath(), file.getCharset());
+        } catch (IOException ex) {
+            Messages.showErrorDialog(project, "无法打开日志文件: " + ex.getMessage(), "跟踪日志文件");
+        }
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabled(e.getProject() != null);
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+}
@@ -0,0 +1,99 @@
+package com.mybatis.sql.logger.listener;
+
+import java.nio.CharBuffer;
+
+/**
+ * 增量行切分器（每种输出类型一个实例）
+ * 每个输出块只扫描一次；完整落在同一块内的行以只读视图的形式交出，不复制字符，
+ * 只有跨块的行才拼接到内部缓冲区。超过长度上限的行被丢弃，避免没有换行的输出让缓冲区无限增长
+ */
+class LineSplitter {
+
+    /**
+     * 行处理回调
+     */
+    interface LineConsumer {
+        void accept(CharSequence line);
+    }
+
+    private final int maxLineLength;
+    // 跨块未结束的行
+    private final StringBuilder carry = new StringBuilder();
+    // 当前行已超长，丢弃到下一个换行符为止
+    private boolean discarding = false;
+    private long droppedLines = 0;
+
+    LineSplitter(int maxLineLength) {
+        this.maxLineLength = Math.max(maxLineLength, 1024);
+    }
+
+    /**
+     * 输入一个输出块，逐行回调完整的行
+     * 输出块本身是不可变的 String，因此行视图可以安全地交给其他线程
+     */
+    void feed(String text, LineConsumer consumer) {
+        int length = text.length();
+        int start = 0;
+        int newline;
+        while ((newline = text.indexOf('\n', start)) >= 0) {
+            if (discarding) {
+                discarding = false;
+            } else if (carry.length() > 0) {
+                if (carry.length() + (newline - start) > maxLineLength) {
+                    droppedLines++;
+                } else {
+                    carry.append(text, start, newline);
+                    emit(carry.toString(), 0, carry.length(), consumer);
+                }
+                carry.setLength(0);
+            } else if (newline - start > maxLineLength) {
+                droppedLines++;
+            } else {
+                emit(text, start, newline, consumer);
+            }
+            start = newline + 1;
+        }
+
+        // 剩余部分暂存，等待下一个块
+        if (start < length && !discarding) {
+            if (carry.length() + (length - start) > maxLineLength) {
+                carry.setLength(0);
+                discarding = true;
+                droppedLines++;
+            } else {
+                carry.append(text, start, length);
+            }
+        }
+    }
+
+    /**
+     * 进程结束时输出最后一个没有换行符的行
+     */
+    void flush(LineConsumer consumer) {
+        if (carry.length() > 0) {
+            String line = carry.toString();
+            carry.setLength(0);
+            emit(line, 0, line.length(), consumer);
+        }
+        discarding = false;
+    }
+
+    /**
+     * 取出并清零累计丢弃的超长行数
+     */
+    long takeDroppedLines() {
+        long dropped = droppedLines;
+        droppedLines = 0;
+        return dropped;
+    }
+
+    private static void emit(CharSequence text, int start, int end, LineConsumer consumer) {
+        // 处理回车符 \r (Windows: \r\n, Linux: \n)
+        if (end > start && text.charAt(end - 1) == '\r') {
+            end--;
+        }
+        if (end > start) {
+            consumer.accept(CharBuffer.wrap(text, start, end));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.mybatis.sql.logger.listener;
+
+import com.intellij.execution.process.ProcessOutputTypes;
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+
+/**
+ * 日志文件跟踪器（每个被跟踪的文件一个）
+ * 定期检查文件大小，只从上次的偏移读取新追加的字节，解码后交给与进程输出相同的解析管线。
+ * 文件被改名滚动（fileKey 变化）时先读完旧文件剩余的内容，再从头读新文件；文件被截断时从头读。
+ * 检查和关闭互斥，关闭后的检查不做任何事
+ */
+class LogFileTailer {
+
+    private static final Logger LOG = Logger.getInstance(LogFileTailer.class);
+
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    private final Path path;
+    private final SqlLogProcessListener listener;
+    private final CharsetDecoder decoder;
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(READ_BUFFER_BYTES);
+    private final CharBuffer chars;
+    private FileChannel channel;
+    // 当前打开文件的标识（inode 等），平台不支持时为 null
+    private Object fileKey;
+    private long offset;
+    private boolean closed = false;
+
+    LogFileTailer(Path path, Charset charset, SqlLogProcessListener listener) {
+        this.path = path;
+        this.listener = listener;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.chars = CharBuffer.allocate((int) Math.ceil(READ_BUFFER_BYTES * (double) decoder.maxCharsPerByte()));
+    }
+
+    /**
+     * 打开文件并定位到末尾（只跟踪之后写入的内容）
+     */
+    void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        fileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        offset = channel.size();
+    }
+
+    /**
+     * 检查一次文件：处理滚动、截断，读取新追加的内容
+     */
+    synchronized void poll() {
+        if (closed) {
+            return;
+        }
+        try {
+            BasicFileAttributes attributes = readAttributes();
+            if (attributes == null) {
+                // 滚动过程中文件暂时不存在：旧文件仍然打开，继续读完
+                readAppended();
+                return;
+            }
+            // 平台不提供 fileKey 时，文件变小按滚动处理（同时覆盖截断）
+            boolean rotated = attributes.fileKey() != null
+                    ? !Objects.equals(attributes.fileKey(), fileKey) : attributes.size() < offset;
+            if (rotated) {
+                // 原文件已被改名滚动：先读完旧文件中滚动前写入的内容，再从头读新文件
+                readAppended();
+                reopen();
+                return;
+            }
+            if (attributes.size() < offset) {
+                // 文件被截断（copytruncate 方式滚动）
+                LOG.debug("日志文件被截断，从头读取: " + path);
+                offset = 0;
+                decoder.reset();
+                bytes.clear();
+            }
+            readAppended();
+        } catch (IOException e) {
+            LOG.debug("读取日志文件失败: " + path, e);
+        }
+    }
+
+    synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            LOG.debug("关闭日志文件失败: " + path, e);
+        }
+        listener.finish();
+    }
+
+    /**
+     * 文件暂时不存在（滚动过程中被改名、新文件尚未创建）时返回 null
+     */
+    private BasicFileAttributes readAttributes() throws IOException {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 切换到新文件：先打开新文件再关闭旧文件，新文件在打开前又消失时保留旧文件，下次检查时重试
+     */
+    private void reopen() throws IOException {
+        FileChannel newChannel = FileChannel.open(path, StandardOpenOption.READ);
+        Object newFileKey;
+        try {
+            newFileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        } catch (IOException e) {
+            newChannel.close();
+            throw e;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOG.debug("关闭旧日志文件失败: " + path, e);
+        }
+        channel = newChannel;
+        fileKey = newFileKey;
+        decoder.reset();
+        bytes.clear();
+        offset = 0;
+        LOG.debug("日志文件已滚动，跟踪新文件: " + path);
+        readAppended();
+    }
+
+    /**
+     * 从 offset 开始读到当前文件末尾，按块解码后交给解析管线；
+     * 块末尾不完整的多字节字符留在缓冲区，与下一块拼接
+     */
+    private void readAppended() throws IOException {
+        int read;
+        while ((read = channel.read(bytes, offset)) > 0) {
+            offset += read;
+            bytes.flip();
+            chars.clear();
+            decoder.decode(bytes, chars, false);
+            bytes.compact();
+            chars.flip();
+            if (chars.hasRemaining()) {
+                listener.feedText(chars.toString(), ProcessOutputTypes.STDOUT);
+            }
+        }
+    }
+}
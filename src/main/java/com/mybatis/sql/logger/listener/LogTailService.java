@@ -0,0 +1,102 @@
+package com.mybatis.sql.logger.listener;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日志文件跟踪服务
+ * 管理项目中正在跟踪的外部日志文件（Docker、独立 JVM 等不由 IDE 启动的进程）。
+ * 每个文件按固定间隔检查大小，新内容与进程输出走同一条解析管线，作为一次独立的运行显示在 SQL Console 中
+ */
+@Service(Service.Level.PROJECT)
+public final class LogTailService implements Disposable {
+
+    // 检查文件的间隔（毫秒）；一次检查只是一次 stat，新内容从写入到进入解析队列的延迟不超过该值
+    private static final long POLL_INTERVAL_MS = 25;
+
+    private final Project project;
+    private final Map<Path, Tail> tails = new ConcurrentHashMap<>();
+
+    public LogTailService(Project project) {
+        this.project = project;
+    }
+
+    public static LogTailService getInstance(Project project) {
+        return project.getService(LogTailService.class);
+    }
+
+    /**
+     * 开始跟踪日志文件（从当前末尾开始）；已在跟踪时不做任何事
+     */
+    public void start(Path path, Charset charset) throws IOException {
+        Path file = path.toAbsolutePath().normalize();
+        if (tails.containsKey(file)) {
+            return;
+        }
+        LogFileTailer tailer = new LogFileTailer(file, charset,
+                new SqlLogProcessListener(project, "跟踪: " + file.getFileName()));
+        try {
+            tailer.open();
+        } catch (IOException e) {
+            tailer.close();
+            throw e;
+        }
+        ScheduledFuture<?> future = AppExecutorUtil.getAppScheduledExecutorService()
+                .scheduleWithFixedDelay(tailer::poll, POLL_INTERVAL_MS, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        tails.put(file, new Tail(tailer, future));
+    }
+
+    /**
+     * 停止跟踪日志文件
+     */
+    public void stop(Path path) {
+        Tail tail = tails.remove(path);
+        if (tail != null) {
+            tail.stop();
+        }
+    }
+
+    /**
+     * 正在跟踪的文件
+     */
+    public List<Path> getTailedFiles() {
+        return new ArrayList<>(tails.keySet());
+    }
+
+    @Override
+    public void dispose() {
+        for (Path path : getTailedFiles()) {
+            stop(path);
+        }
+    }
+
+    private static final class Tail {
+        private final LogFileTailer tailer;
+        private final ScheduledFuture<?> future;
+
+        Tail(LogFileTailer tailer, ScheduledFuture<?> future) {
+            this.tailer = tailer;
+            this.future = future;
+        }
+
+        /**
+         * 取消定时检查并在后台关闭文件（关闭会等待正在进行的检查结束）
+         */
+        void stop() {
+            future.cancel(false);
+            AppExecutorUtil.getAppExecutorService().execute(tailer::close);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.mybatis.sql.logger.listener;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+/**
+ * 本地日志端口服务
+ * 在 127.0.0.1 上监听 TCP 端口，接收外部服务通过 socket appender（log4j2 Socket、logback TCP 等）发送的文本日志，
+ * 以及 agent 模块的 SqlCaptureInterceptor 发送的结构化 SQL 事件。
+ * 所有连接由一个非阻塞选择器线程读取，每个连接与进程输出走同一条解析管线，作为一次独立的运行显示在 SQL Console 中。
+ * 解析队列策略为 BLOCK 且队列已满时选择器线程会等待，此时由 TCP 流量控制让发送方减速
+ */
+@Service(Service.Level.PROJECT)
+public final class SocketIngestService implements Disposable {
+
+    private static final Logger LOG = Logger.getInstance(SocketIngestService.class);
+
+    private final Project project;
+    private Server server;
+
+    public SocketIngestService(Project project) {
+        this.project = project;
+    }
+
+    public static SocketIngestService getInstance(Project project) {
+        return project.getService(SocketIngestService.class);
+    }
+
+    /**
+     * 开始监听端口；已在监听时不做任何事
+     */
+    public synchronized void start(int port) throws IOException {
+        if (server != null) {
+            return;
+        }
+        Selector selector = Selector.open();
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        try {
+            channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            channel.close();
+            selector.close();
+            throw e;
+        }
+        server = new Server(selector, channel);
+        AppExecutorUtil.getAppExecutorService().execute(server);
+        LOG.info("SQL 日志端口已开始监听: " + channel.getLocalAddress());
+    }
+
+    /**
+     * 停止监听并关闭所有连接（在选择器线程中异步完成）
+     */
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop();
+            server = null;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return server != null;
+    }
+
+    @Override
+    public void dispose() {
+        stop();
+    }
+
+    /**
+     * 选择器线程：接受连接、读取数据；停止时关闭所有连接和监听端口
+     */
+    private final class Server implements Runnable {
+        private final Selector selector;
+        private final ServerSocketChannel channel;
+        private volatile boolean stopped = false;
+
+        Server(Selector selector, ServerSocketChannel channel) {
+            this.selector = selector;
+            this.channel = channel;
+        }
+
+        void stop() {
+            stopped = true;
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!stopped) {
+                    selector.select();
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (key.isValid() && key.isAcceptable()) {
+                            accept();
+                        } else if (key.isValid() && key.isReadable()) {
+                            read(key);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                LOG.warn("SQL 日志端口异常停止", e);
+            } finally {
+                close();
+            }
+        }
+
+        private void accept() throws IOException {
+            SocketChannel client;
+            while ((client = channel.accept()) != null) {
+                String remote;
+                try {
+                    client.configureBlocking(false);
+                    remote = String.valueOf(client.getRemoteAddress()).replaceFirst("^/", "");
+                } catch (IOException e) {
+                    // 连接在建立后立刻断开
+                    client.close();
+                    continue;
+                }
+                SocketLogConnection connection = new SocketLogConnection(client,
+                        new SqlLogProcessListener(project, "Socket: " + remote));
+                client.register(selector, SelectionKey.OP_READ, connection);
+                LOG.debug("SQL 日志端口新连接: " + remote);
+            }
+        }
+
+        private void read(SelectionKey key) {
+            SocketLogConnection connection = (SocketLogConnection) key.attachment();
+            boolean open;
+            try {
+                open = connection.read();
+            } catch (IOException e) {
+                LOG.warn("断开 SQL 日志端口连接: " + e.getMessage());
+                open = false;
+            }
+            if (!open) {
+                key.cancel();
+                connection.close();
+            }
+        }
+
+        private void close() {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof SocketLogConnection) {
+                    ((SocketLogConnection) key.attachment()).close();
+                }
+            }
+            try {
+                channel.close();
+                selector.close();
+            } catch (IOException e) {
+                LOG.debug("关闭 SQL 日志端口失败", e);
+            }
+            synchronized (SocketIngestService.this) {
+                // 异常停止时让状态与端口一致；已被 stop() 替换为新的监听时不影响
+                if (server == this) {
+                    server = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.mybatis.sql.logger.listener;
+
+import com.intellij.execution.process.ProcessOutputTypes;
+import com.mybatis.sql.logger.parser.SqlEventDecoder;
+import com.mybatis.sql.logger.parser.SqlLogParser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 本地日志端口上的一个连接（只在选择器线程中访问）
+ * 根据第一个字节判断分帧方式：日志文本不会以 0 开头，而长度小于 16MB 的 4 字节大端长度前缀一定以 0 开头，
+ * 因此首字节为 0 按长度前缀分帧（每帧一条日志事件），否则按换行分隔的文本处理。
+ * 以 0xF5（UTF-8 中不会出现）开头的是 SqlCaptureInterceptor 发送的结构化 SQL 事件，直接入库，不经过文本解析。
+ * 以 0xAC 开头的是 Java 序列化流（logback SocketAppender），无法解析，直接断开
+ */
+class SocketLogConnection {
+
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+    // 长度前缀帧的最大长度，超过时视为协议错误
+    private static final int MAX_FRAME_BYTES = 64 * 1024 * 1024;
+    private static final byte JAVA_SERIALIZATION_MAGIC = (byte) 0xAC;
+
+    private enum Framing {
+        UNKNOWN,
+        LINES,
+        LENGTH_PREFIXED,
+        EVENTS
+    }
+
+    private final SocketChannel channel;
+    private final SqlLogProcessListener listener;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private ByteBuffer bytes = ByteBuffer.allocate(READ_BUFFER_BYTES);
+    private final CharBuffer chars = CharBuffer.allocate(READ_BUFFER_BYTES);
+    private Framing framing = Framing.UNKNOWN;
+    private boolean headerRead = false;
+
+    SocketLogConnection(SocketChannel channel, SqlLogProcessListener listener) {
+        this.channel = channel;
+        this.listener = listener;
+    }
+
+    /**
+     * 读取当前可读的数据并交给解析管线
+     *
+     * @return 对端已关闭连接时返回 false
+     */
+    boolean read() throws IOException {
+        int read;
+        while ((read = channel.read(bytes)) > 0) {
+            bytes.flip();
+            if (framing == Framing.UNKNOWN) {
+                framing = detectFraming(bytes.get(0));
+            }
+            if (framing == Framing.LINES) {
+                decodeLines();
+            } else if (framing == Framing.LENGTH_PREFIXED) {
+                decodeFrames();
+            } else {
+                decodeEvents();
+            }
+            bytes.compact();
+        }
+        return read >= 0;
+    }
+
+    /**
+     * 关闭连接并输出剩余的行
+     */
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // 连接已断开
+        }
+        listener.finish();
+    }
+
+    private static Framing detectFraming(byte first) throws IOException {
+        if (first == JAVA_SERIALIZATION_MAGIC) {
+            throw new IOException("不支持 Java 序列化的日志事件（logback SocketAppender），请使用输出文本的 TCP appender");
+        }
+        if (first == SqlEventDecoder.MAGIC) {
+            return Framing.EVENTS;
+        }
+        return first == 0 ? Framing.LENGTH_PREFIXED : Framing.LINES;
+    }
+
+    /**
+     * 换行分隔的文本：按块解码，行的切分由解析管线完成；不完整的多字节字符留在缓冲区
+     */
+    private void decodeLines() {
+        chars.clear();
+        decoder.decode(bytes, chars, false);
+        chars.flip();
+        if (chars.hasRemaining()) {
+            listener.feedText(chars.toString(), ProcessOutputTypes.STDOUT);
+        }
+    }
+
+    /**
+     * 长度前缀的文本帧：每帧是一条完整的日志事件
+     */
+    private void decodeFrames() throws IOException {
+        ByteBuffer frame;
+        while ((frame = nextFrame()) != null) {
+            String event = new String(frame.array(), frame.arrayOffset() + frame.position(), frame.remaining(),
+                    StandardCharsets.UTF_8);
+            // 布局没有输出换行时补上
+            listener.feedText(event.endsWith("\n") ? event : event + "\n", ProcessOutputTypes.STDOUT);
+        }
+    }
+
+    /**
+     * 结构化 SQL 事件：先校验流头，再把本次读到的所有事件一起交给解析线程
+     */
+    private void decodeEvents() throws IOException {
+        if (!headerRead) {
+            if (bytes.remaining() < SqlEventDecoder.headerLength()) {
+                return;
+            }
+            SqlEventDecoder.readHeader(bytes);
+            headerRead = true;
+        }
+        List<SqlLogParser.ParsedSql> events = new ArrayList<>();
+        ByteBuffer frame;
+        while ((frame = nextFrame()) != null) {
+            events.add(SqlEventDecoder.decode(frame));
+        }
+        listener.feedSql(events);
+    }
+
+    /**
+     * 取出缓冲区中下一个完整帧的内容（与缓冲区共享数据，在 compact 之前使用）；
+     * 不完整时返回 null，帧比缓冲区大时扩大缓冲区
+     */
+    private ByteBuffer nextFrame() throws IOException {
+        if (bytes.remaining() < Integer.BYTES) {
+            return null;
+        }
+        int length = bytes.getInt(bytes.position());
+        if (length < 0 || length > MAX_FRAME_BYTES) {
+            throw new IOException("无效的帧长度: " + length);
+        }
+        if (bytes.remaining() < Integer.BYTES + length) {
+            if (bytes.capacity() < Integer.BYTES + length) {
+                bytes = ByteBuffer.allocate(Integer.BYTES + length).put(bytes);
+                bytes.flip();
+            }
+            return null;
+        }
+        int start = bytes.position() + Integer.BYTES;
+        ByteBuffer frame = bytes.slice(start, length);
+        bytes.position(start + length);
+        return frame;
+    }
+}
@@ -0,0 +1,97 @@
+package com.mybatis.sql.logger.listener;
+
+import com.mybatis.sql.logger.service.SqlLoggerSettings.OverflowPolicy;
+
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 有界日志行队列（环形缓冲区）
+ * 位于进程输出线程与解析线程之间，队列满时按 OverflowPolicy 处理，保证运行控制台不会等待解析。
+ * 元素是日志行，或本地日志端口收到的结构化 SQL 事件
+ */
+class SqlLineQueue<E> {
+
+    private final Object[] ring;
+    private final OverflowPolicy policy;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+
+    private int head = 0;   // 下一个出队位置
+    private int size = 0;
+
+    SqlLineQueue(int capacity, OverflowPolicy policy) {
+        this.ring = new Object[Math.max(capacity, 16)];
+        this.policy = policy;
+    }
+
+    /**
+     * 入队一行
+     *
+     * @return 本次因溢出被丢弃的行数（0 或 1）
+     */
+    int offer(E line) throws InterruptedException {
+        lock.lock();
+        try {
+            int dropped = 0;
+            if (size == ring.length) {
+                switch (policy) {
+                    case BLOCK:
+                        while (size == ring.length) {
+                            notFull.await();
+                        }
+                        break;
+                    case DROP_NEWEST:
+                        return 1;
+                    case DROP_OLDEST:
+                    default:
+                        ring[head] = null;
+                        head = (head + 1) % ring.length;
+                        size--;
+                        dropped = 1;
+                        break;
+                }
+            }
+            ring[(head + size) % ring.length] = line;
+            size++;
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 批量出队，最多取 maxLines 行
+     *
+     * @return 实际取出的行数
+     */
+    @SuppressWarnings("unchecked")
+    int drainTo(List<E> target, int maxLines) {
+        lock.lock();
+        try {
+            int count = Math.min(size, maxLines);
+            for (int i = 0; i < count; i++) {
+                target.add((E) ring[head]);
+                ring[head] = null;
+                head = (head + 1) % ring.length;
+            }
+            size -= count;
+            if (count > 0) {
+                notFull.signalAll();
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isEmpty() {
+        lock.lock();
+        try {
+            return size == 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
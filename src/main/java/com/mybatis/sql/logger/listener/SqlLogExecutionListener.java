@@ -19,7 +19,7 @@ public class SqlLogExecutionListener implements ExecutionListener {
                                 @NotNull ExecutionEnvironment env,
                                 @NotNull ProcessHandler handler) {
         // 当进程启动时，附加 SQL 日志监听器（传入项目引用）
-        handler.addProcessListener(new SqlLogProcessListener(env.getProject()));
+        handler.addProcessListener(new SqlLogProcessListener(env.getProject(), env.getRunProfile().getName()));
         
         // 在用户控制台输出欢迎信息
         printWelcomeMessage(env);
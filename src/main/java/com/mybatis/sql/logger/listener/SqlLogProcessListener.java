@@ -5,27 +5,76 @@ import com.intellij.execution.process.ProcessListener;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.mybatis.sql.logger.parser.CorrelationKeyExtractor;
+import com.mybatis.sql.logger.parser.SqlFilter;
 import com.mybatis.sql.logger.parser.SqlLogParser;
 import com.mybatis.sql.logger.service.SqlConsoleService;
+import com.mybatis.sql.logger.service.SqlLoggerSettings;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * SQL 日志进程监听器
  * 监听控制台输出，解析 MyBatis SQL 日志
+ * 输出线程只负责切分行并放入有界队列，解析、格式化和通知在独立的解析线程中完成
  */
 public class SqlLogProcessListener implements ProcessListener {
 
     private static final Logger LOG = Logger.getInstance(SqlLogProcessListener.class);
-    
-    private final SqlLogParser parser = new SqlLogParser();
+
+    // 解析线程每批最多处理的行数
+    private static final int DRAIN_BATCH_SIZE = 512;
+
+    private final SqlLogParser parser;
     private final Project project;
+    private final int runId;
+    private final SqlLineQueue<CharSequence> lineQueue;
+    // 结构化 SQL 事件与日志行使用相同的容量和溢出策略；只有拦截器连接会用到，首次收到事件时才创建
+    private volatile SqlLineQueue<SqlLogParser.ParsedSql> eventQueue;
+    private final int queueCapacity;
+    private final SqlLoggerSettings.OverflowPolicy overflowPolicy;
+    // 单线程顺序执行，保证解析器状态只被一个线程访问
+    private final ExecutorService parseExecutor =
+            AppExecutorUtil.createBoundedApplicationPoolExecutor("MyBatis SQL Logger Parser", 1);
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    // 日志流空闲时定期输出等待 Total/Updates 超时的语句
+    private final AtomicBoolean expiryScheduled = new AtomicBoolean(false);
+    private final long completionWaitMillis;
+    // 每种输出类型（stdout / stderr / system）独立切分，避免交错的片段拼成错误的行
+    private final Map<Key, LineSplitter> splitters = new ConcurrentHashMap<>();
+    private final int maxLineLength;
 
-    public SqlLogProcessListener(Project project) {
+    public SqlLogProcessListener(Project project, String runName) {
         this.project = project;
+        this.runId = SqlConsoleService.getInstance(project).startRun(runName);
+        SqlLoggerSettings.State settings = SqlLoggerSettings.getInstance().getState();
+        this.queueCapacity = settings.ingestionQueueCapacity;
+        this.overflowPolicy = settings.overflowPolicy;
+        this.lineQueue = new SqlLineQueue<>(queueCapacity, overflowPolicy);
+        this.parser = new SqlLogParser(
+                new CorrelationKeyExtractor(settings.correlationMode, settings.correlationPattern),
+                settings.maxPendingStatements,
+                settings.pendingTtlSeconds * 1000L,
+                settings.completionWaitMillis);
+        try {
+            parser.setFilter(SqlFilter.compile(settings.filterRules));
+        } catch (IllegalArgumentException e) {
+            // 设置页已校验规则，这里只会在手工修改配置文件后出现
+            LOG.warn("忽略无效的过滤规则: " + e.getMessage());
+        }
+        this.maxLineLength = settings.maxLineLength;
+        this.completionWaitMillis = settings.completionWaitMillis;
     }
 
-    private final StringBuilder lineBuffer = new StringBuilder();
-
     @Override
     public void startNotified(@NotNull ProcessEvent event) {
         // 进程启动时初始化
@@ -33,65 +82,208 @@ public class SqlLogProcessListener implements ProcessListener {
 
     @Override
     public void processTerminated(@NotNull ProcessEvent event) {
-        // 进程终止时清理
-        synchronized (lineBuffer) {
-            if (lineBuffer.length() > 0) {
-                processLine(lineBuffer.toString());
-                lineBuffer.setLength(0);
+        finish();
+    }
+
+    /**
+     * 日志来源结束（进程终止或停止跟踪日志文件）：输出剩余的行和仍在等待完成行的语句
+     */
+    public void finish() {
+        for (LineSplitter splitter : splitters.values()) {
+            synchronized (splitter) {
+                splitter.flush(this::enqueueLine);
             }
         }
+        // 排在已调度的解析任务之后：输出仍在等待完成行的语句
+        try {
+            parseExecutor.execute(() -> {
+                parser.flush(this::publish);
+                reportFiltered();
+                SqlConsoleService.getInstance(project).finishRun(runId);
+            });
+        } catch (RejectedExecutionException e) {
+            // 解析线程已关闭
+            SqlConsoleService.getInstance(project).finishRun(runId);
+        }
+        parseExecutor.shutdown();
     }
 
     @Override
     public void onTextAvailable(@NotNull ProcessEvent event, @NotNull Key outputType) {
-        String text = event.getText();
-        
+        feedText(event.getText(), outputType);
+    }
+
+    /**
+     * 输入一段日志文本（进程输出或日志文件新增的内容），可以在任意位置断开
+     */
+    public void feedText(String text, @NotNull Key outputType) {
         if (text == null || text.isEmpty()) {
             return;
         }
-        
-        synchronized (lineBuffer) {
-            lineBuffer.append(text);
-            
-            // 优化：只有当检测到完整的换行符时才处理
+
+        LineSplitter splitter = splitters.computeIfAbsent(outputType, type -> new LineSplitter(maxLineLength));
+        synchronized (splitter) {
+            // 只有当检测到完整的换行符时才处理
             // 避免因日志被截断导致只处理了一半的行
-            int lineEndIndex;
-            while ((lineEndIndex = lineBuffer.indexOf("\n")) != -1) {
-                String line = lineBuffer.substring(0, lineEndIndex);
-                // 处理回车符 \r (Windows: \r\n, Linux: \n)
-                if (line.endsWith("\r")) {
-                    line = line.substring(0, line.length() - 1);
+            splitter.feed(text, this::enqueueLine);
+
+            long tooLong = splitter.takeDroppedLines();
+            if (tooLong > 0) {
+                SqlConsoleService.getInstance(project).addDroppedLines(tooLong);
+            }
+        }
+    }
+
+    /**
+     * 输入一批结构化 SQL 事件（不经过文本解析），放入有界队列，在解析线程中按顺序应用过滤规则后入库。
+     * 队列满时与日志行一样按溢出策略处理，丢弃的事件计入丢弃行数
+     */
+    public void feedSql(List<SqlLogParser.ParsedSql> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        SqlLineQueue<SqlLogParser.ParsedSql> queue = eventQueue();
+        int dropped = 0;
+        try {
+            for (SqlLogParser.ParsedSql event : events) {
+                dropped += queue.offer(event);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (dropped > 0) {
+                SqlConsoleService.getInstance(project).addDroppedLines(dropped);
+            }
+        }
+        scheduleDrain();
+    }
+
+    private SqlLineQueue<SqlLogParser.ParsedSql> eventQueue() {
+        SqlLineQueue<SqlLogParser.ParsedSql> queue = eventQueue;
+        if (queue == null) {
+            synchronized (this) {
+                queue = eventQueue;
+                if (queue == null) {
+                    queue = new SqlLineQueue<>(queueCapacity, overflowPolicy);
+                    eventQueue = queue;
+                }
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * 将一行放入队列，并确保解析任务已调度
+     */
+    private void enqueueLine(CharSequence line) {
+        try {
+            int dropped = lineQueue.offer(line);
+            if (dropped > 0) {
+                SqlConsoleService.getInstance(project).addDroppedLines(dropped);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                parseExecutor.execute(this::drainQueue);
+            } catch (RejectedExecutionException e) {
+                // 进程已终止，解析线程已关闭
+                drainScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * 解析线程：批量取出队列中的行和事件并解析
+     */
+    private void drainQueue() {
+        List<CharSequence> batch = new ArrayList<>(DRAIN_BATCH_SIZE);
+        List<SqlLogParser.ParsedSql> events = new ArrayList<>();
+        SqlLineQueue<SqlLogParser.ParsedSql> queue;
+        do {
+            while (lineQueue.drainTo(batch, DRAIN_BATCH_SIZE) > 0) {
+                for (CharSequence line : batch) {
+                    processLine(line);
                 }
-                
-                processLine(line);
-                
-                // 移除已处理的行
-                lineBuffer.delete(0, lineEndIndex + 1);
+                batch.clear();
             }
+            queue = eventQueue;
+            while (queue != null && queue.drainTo(events, DRAIN_BATCH_SIZE) > 0) {
+                for (SqlLogParser.ParsedSql event : events) {
+                    parser.parseEvent(event, this::publish);
+                }
+                events.clear();
+            }
+            drainScheduled.set(false);
+            // 重新检查：避免在置位前刚入队的行无人处理
+            queue = eventQueue;
+        } while ((!lineQueue.isEmpty() || (queue != null && !queue.isEmpty()))
+                && drainScheduled.compareAndSet(false, true));
+
+        reportFiltered();
+        scheduleExpiry();
+    }
+
+    /**
+     * 把解析器累计的过滤条数汇总到 Service
+     */
+    private void reportFiltered() {
+        long filtered = parser.takeFilteredCount();
+        if (filtered > 0) {
+            SqlConsoleService.getInstance(project).addFilteredSql(filtered);
         }
     }
 
-    private void processLine(String text) {
-        if (text == null || text.trim().isEmpty()) {
+    /**
+     * 有语句在等待完成行时，稍后检查一次是否超时（定时器只负责投递，检查仍在解析线程中进行）
+     */
+    private void scheduleExpiry() {
+        if (!parser.hasAwaitingSql() || !expiryScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        AppExecutorUtil.getAppScheduledExecutorService().schedule(() -> {
+            try {
+                parseExecutor.execute(() -> {
+                    expiryScheduled.set(false);
+                    parser.flushExpired(this::publish);
+                    scheduleExpiry();
+                });
+            } catch (RejectedExecutionException e) {
+                // 进程已终止，解析线程已关闭
+                expiryScheduled.set(false);
+            }
+        }, completionWaitMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void processLine(CharSequence text) {
+        if (text == null || text.length() == 0) {
             return;
         }
 
         // 调试：输出接收到的原始文本
-        if (text.contains("Preparing") || text.contains("Parameters")) {
+        if (LOG.isDebugEnabled() && (text.toString().contains("Preparing") || text.toString().contains("Parameters"))) {
             LOG.debug("[ProcessListener] 处理行: " + text);
         }
 
         // 解析日志行
         try {
-            SqlLogParser.ParsedSql parsedSql = parser.parseLine(text);
-            
-            if (parsedSql != null) {
-                // 将解析后的 SQL 发送到当前项目的 SQL Console
-                SqlConsoleService.getInstance(project).addSql(parsedSql);
-            }
+            parser.parseLine(text, this::publish);
         } catch (Exception e) {
             // 解析失败，打印错误便于调试
             System.err.println("[MyBatis SQL Logger] Parse error: " + e.getMessage());
         }
     }
+
+    /**
+     * 将解析后的 SQL 发送到当前项目的 SQL Console
+     */
+    private void publish(SqlLogParser.ParsedSql parsedSql) {
+        SqlConsoleService.getInstance(project).addSql(runId, parsedSql);
+    }
 }
@@ -0,0 +1,71 @@
+package com.mybatis.sql.logger.service;
+
+import com.mybatis.sql.logger.parser.SqlFingerprint;
+import com.mybatis.sql.logger.parser.SqlLogParser;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 热点语句排行榜
+ * 按执行次数、总耗时（纳秒，亚毫秒的语句也计入）、总行数各维护一个 Space-Saving 草图，随每条 SQL 增量更新，
+ * 内存固定，长时间压测时也不需要回扫历史数据
+ */
+public class HotStatementBoard {
+
+    // 每个草图保留的计数器数，远大于展示的条数以保证排名靠前的项准确
+    private static final int SKETCH_CAPACITY = 512;
+
+    /**
+     * 排行指标
+     */
+    public enum Metric {
+        COUNT("执行次数"),
+        TOTAL_TIME("总耗时 (ms)"),
+        ROWS("总行数");
+
+        private final String displayName;
+
+        Metric(String displayName) {
+            this.displayName = displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    private final Map<Metric, SpaceSavingSketch<SqlFingerprint>> sketches = new EnumMap<>(Metric.class);
+
+    public HotStatementBoard() {
+        for (Metric metric : Metric.values()) {
+            sketches.put(metric, new SpaceSavingSketch<>(SKETCH_CAPACITY));
+        }
+    }
+
+    /**
+     * 记录一次执行
+     */
+    public void record(SqlLogParser.ParsedSql parsedSql) {
+        SqlFingerprint fingerprint = parsedSql.getFingerprint();
+        long key = fingerprint.getHash();
+        sketches.get(Metric.COUNT).add(key, fingerprint, 1);
+        sketches.get(Metric.TOTAL_TIME).add(key, fingerprint, parsedSql.getElapsedNanos());
+        sketches.get(Metric.ROWS).add(key, fingerprint, parsedSql.getRowCount());
+    }
+
+    /**
+     * 获取指定指标的前 n 名
+     */
+    public List<SpaceSavingSketch.Entry<SqlFingerprint>> top(Metric metric, int n) {
+        return sketches.get(metric).top(n);
+    }
+
+    public void clear() {
+        for (SpaceSavingSketch<SqlFingerprint> sketch : sketches.values()) {
+            sketch.clear();
+        }
+    }
+}
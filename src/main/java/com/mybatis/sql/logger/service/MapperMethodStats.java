@@ -0,0 +1,123 @@
+package com.mybatis.sql.logger.service;
+
+import com.mybatis.sql.logger.parser.SqlLogParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按 Mapper 方法（语句 ID）聚合的流式统计
+ * 每个方法保存调用次数、总行数、总耗时（纳秒）和固定内存的耗时直方图，用于找出占用数据库时间最多的方法
+ */
+public class MapperMethodStats {
+
+    // 日志中无法识别语句 ID 时使用的名称
+    public static final String UNKNOWN_STATEMENT = "(未知)";
+    // 最多跟踪的方法数，超出后新方法只计入 overflowCount
+    private static final int MAX_METHODS = 2_000;
+
+    private final ConcurrentHashMap<String, MethodStats> statsByStatement = new ConcurrentHashMap<>();
+    // 所有方法的总耗时，用于计算占比
+    private final LongAdder totalTimeNanos = new LongAdder();
+    private final LongAdder overflowCount = new LongAdder();
+
+    /**
+     * 记录一次执行
+     */
+    public void record(SqlLogParser.ParsedSql parsedSql) {
+        String statementId = parsedSql.getStatementId() != null ? parsedSql.getStatementId() : UNKNOWN_STATEMENT;
+        MethodStats stats = statsByStatement.get(statementId);
+        if (stats == null) {
+            if (statsByStatement.size() >= MAX_METHODS) {
+                overflowCount.increment();
+                return;
+            }
+            stats = statsByStatement.computeIfAbsent(statementId, MethodStats::new);
+        }
+        stats.record(parsedSql.getRowCount(), parsedSql.getElapsedNanos());
+        if (parsedSql.getElapsedNanos() > 0) {
+            totalTimeNanos.add(parsedSql.getElapsedNanos());
+        }
+    }
+
+    /**
+     * 获取所有方法的统计（快照列表，顺序不定）
+     */
+    public List<MethodStats> getAll() {
+        return new ArrayList<>(statsByStatement.values());
+    }
+
+    /**
+     * 所有方法的总耗时（纳秒）
+     */
+    public long getTotalTimeNanos() {
+        return totalTimeNanos.sum();
+    }
+
+    /**
+     * 因超出方法数上限而未被跟踪的执行次数
+     */
+    public long getOverflowCount() {
+        return overflowCount.sum();
+    }
+
+    public void clear() {
+        statsByStatement.clear();
+        totalTimeNanos.reset();
+        overflowCount.reset();
+    }
+
+    /**
+     * 单个 Mapper 方法的统计
+     */
+    public static class MethodStats {
+        private final String statementId;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder totalRows = new LongAdder();
+        private final LongAdder totalTimeNanos = new LongAdder();
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        MethodStats(String statementId) {
+            this.statementId = statementId;
+        }
+
+        void record(long rowCount, long elapsedNanos) {
+            calls.increment();
+            if (rowCount > 0) {
+                totalRows.add(rowCount);
+            }
+            if (elapsedNanos >= 0) {
+                totalTimeNanos.add(elapsedNanos);
+                histogram.record(elapsedNanos);
+            }
+        }
+
+        public String getStatementId() {
+            return statementId;
+        }
+
+        public long getCalls() {
+            return calls.sum();
+        }
+
+        public long getTotalRows() {
+            return totalRows.sum();
+        }
+
+        /**
+         * 总耗时（纳秒）
+         */
+        public long getTotalTimeNanos() {
+            return totalTimeNanos.sum();
+        }
+
+        /**
+         * 耗时分位数（纳秒，近似值，分位点需按升序传入），没有耗时数据时对应结果为 -1
+         */
+        public long[] getPercentiles(double... quantiles) {
+            return histogram.percentiles(quantiles);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.mybatis.sql.logger.service;
+
+import com.mybatis.sql.logger.parser.SqlFingerprint;
+import com.mybatis.sql.logger.parser.SqlLogParser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * N+1 查询检测器
+ * 按（运行 ID, 线程）维护最近执行语句的滑动窗口：同一指纹的语句在时间窗口内以不同参数重复执行
+ * 达到阈值时产生一条告警，同一轮重复只告警一次，之后的重复累加到这条告警的次数上。
+ * 窗口数量和每个窗口的容量都是固定的，内存占用与 SQL 吞吐量无关
+ */
+public class NPlusOneDetector {
+
+    // 每个窗口保留的最近语句数，也是可配置阈值的上限
+    public static final int WINDOW_CAPACITY = 256;
+    // 同时跟踪的窗口（线程）数，超出后淘汰最久未活动的
+    private static final int MAX_WINDOWS = 256;
+    // 告警中展示的参数样例个数
+    private static final int MAX_SAMPLE_VALUES = 5;
+
+    private final Map<String, StatementWindow> windows = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, StatementWindow> eldest) {
+            return size() > MAX_WINDOWS;
+        }
+    };
+
+    /**
+     * 记录一次执行
+     *
+     * @param threshold    窗口内同一语句的执行次数达到该值时告警
+     * @param windowMillis 时间窗口（毫秒）
+     * @return 新产生的告警；没有告警时返回 null
+     */
+    public synchronized NPlusOneWarning record(int runId, SqlLogParser.ParsedSql parsedSql,
+                                               int threshold, long windowMillis) {
+        String threadName = parsedSql.getThreadName() == null ? "" : parsedSql.getThreadName();
+        StatementWindow window = windows.computeIfAbsent(runId + "|" + threadName, key -> new StatementWindow());
+        return window.record(runId, threadName, parsedSql, Math.min(Math.max(threshold, 2), WINDOW_CAPACITY), windowMillis);
+    }
+
+    public synchronized void clear() {
+        windows.clear();
+    }
+
+    /**
+     * 单个线程的滑动窗口（环形缓冲区）
+     */
+    private static final class StatementWindow {
+        // 记录已产生的告警，避免同一轮重复反复告警
+        private static final int MAX_REPORTED = 8;
+
+        private final long[] fingerprints = new long[WINDOW_CAPACITY];
+        private final long[] timestamps = new long[WINDOW_CAPACITY];
+        private final Object[] parameters = new Object[WINDOW_CAPACITY];
+        private int next = 0;
+        private int size = 0;
+
+        private final NPlusOneWarning[] reportedWarnings = new NPlusOneWarning[MAX_REPORTED];
+        private final long[] reportedLastSeen = new long[MAX_REPORTED];
+
+        NPlusOneWarning record(int runId, String threadName, SqlLogParser.ParsedSql parsedSql,
+                               int threshold, long windowMillis) {
+            SqlFingerprint fingerprint = parsedSql.getFingerprint();
+            long hash = fingerprint.getHash();
+            long timestamp = parsedSql.getTimestamp();
+
+            fingerprints[next] = hash;
+            timestamps[next] = timestamp;
+            parameters[next] = parsedSql.getParameters();
+            next = (next + 1) % WINDOW_CAPACITY;
+            if (size < WINDOW_CAPACITY) {
+                size++;
+            }
+
+            // 这一轮重复已经告警过：累加次数并延长其结束时间
+            int reported = findReported(hash, timestamp, windowMillis);
+            if (reported >= 0) {
+                reportedWarnings[reported].incrementCount();
+                reportedLastSeen[reported] = timestamp;
+                return null;
+            }
+
+            // 从最新往前收集窗口内同一指纹的执行
+            List<List<Object>> matches = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                int slot = (next - 1 - i + WINDOW_CAPACITY) % WINDOW_CAPACITY;
+                if (timestamp - timestamps[slot] > windowMillis) {
+                    break;
+                }
+                if (fingerprints[slot] == hash) {
+                    @SuppressWarnings("unchecked")
+                    List<Object> params = (List<Object>) parameters[slot];
+                    matches.add(params == null ? Collections.emptyList() : params);
+                }
+            }
+            if (matches.size() < threshold) {
+                return null;
+            }
+
+            // 参数每次都相同的重复不是 N+1（例如重复刷新），不告警
+            Set<List<Object>> distinct = new HashSet<>(matches);
+            if (distinct.size() < 2) {
+                return null;
+            }
+
+            Collections.reverse(matches);
+            int varyingIndex = findVaryingParameter(matches);
+            NPlusOneWarning warning = new NPlusOneWarning(runId, threadName, parsedSql.getStatementId(), fingerprint,
+                    matches.size(), windowMillis, varyingIndex, sampleValues(matches, varyingIndex), timestamp);
+            markReported(warning, timestamp);
+            return warning;
+        }
+
+        private int findReported(long hash, long timestamp, long windowMillis) {
+            for (int i = 0; i < MAX_REPORTED; i++) {
+                if (reportedWarnings[i] != null && reportedWarnings[i].getFingerprint().getHash() == hash
+                        && timestamp - reportedLastSeen[i] <= windowMillis) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void markReported(NPlusOneWarning warning, long timestamp) {
+            // 替换最久未出现的记录
+            int oldest = 0;
+            for (int i = 1; i < MAX_REPORTED; i++) {
+                if (reportedLastSeen[i] < reportedLastSeen[oldest]) {
+                    oldest = i;
+                }
+            }
+            reportedWarnings[oldest] = warning;
+            reportedLastSeen[oldest] = timestamp;
+        }
+
+        /**
+         * 找到第一个在各次执行间取值不同的参数位置，找不到返回 -1
+         */
+        private static int findVaryingParameter(List<List<Object>> matches) {
+            int parameterCount = Integer.MAX_VALUE;
+            for (List<Object> params : matches) {
+                parameterCount = Math.min(parameterCount, params.size());
+            }
+            List<Object> first = matches.get(0);
+            for (int index = 0; index < parameterCount; index++) {
+                for (List<Object> params : matches) {
+                    if (!Objects.equals(first.get(index), params.get(index))) {
+                        return index;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private static List<Object> sampleValues(List<List<Object>> matches, int varyingIndex) {
+            List<Object> samples = new ArrayList<>(MAX_SAMPLE_VALUES);
+            if (varyingIndex < 0) {
+                return samples;
+            }
+            Set<Object> seen = new HashSet<>();
+            for (List<Object> params : matches) {
+                Object value = params.get(varyingIndex);
+                if (seen.add(value)) {
+                    samples.add(value);
+                    if (samples.size() >= MAX_SAMPLE_VALUES) {
+                        break;
+                    }
+                }
+            }
+            return samples;
+        }
+    }
+
+    /**
+     * N+1 告警
+     */
+    public static class NPlusOneWarning {
+        private final int runId;
+        private final String threadName;
+        private final String statementId;
+        private final SqlFingerprint fingerprint;
+        // 在检测器的锁内累加，UI 线程直接读取
+        private volatile int count;
+        private final long windowMillis;
+        private final int varyingParameterIndex;
+        private final List<Object> sampleValues;
+        private final long timestamp;
+
+        NPlusOneWarning(int runId, String threadName, String statementId, SqlFingerprint fingerprint,
+                        int count, long windowMillis, int varyingParameterIndex,
+                        List<Object> sampleValues, long timestamp) {
+            this.runId = runId;
+            this.threadName = threadName;
+            this.statementId = statementId;
+            this.fingerprint = fingerprint;
+            this.count = count;
+            this.windowMillis = windowMillis;
+            this.varyingParameterIndex = varyingParameterIndex;
+            this.sampleValues = sampleValues;
+            this.timestamp = timestamp;
+        }
+
+        public int getRunId() {
+            return runId;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        public String getStatementId() {
+            return statementId;
+        }
+
+        public SqlFingerprint getFingerprint() {
+            return fingerprint;
+        }
+
+        /**
+         * 这一轮重复的执行次数：触发时窗口内的次数，加上之后在窗口内继续出现的次数
+         */
+        public int getCount() {
+            return count;
+        }
+
+        void incrementCount() {
+            count++;
+        }
+
+        public long getWindowMillis() {
+            return windowMillis;
+        }
+
+        /**
+         * 取值变化的参数位置（从 0 开始），参数个数不一致等情况下为 -1
+         */
+        public int getVaryingParameterIndex() {
+            return varyingParameterIndex;
+        }
+
+        /**
+         * 变化参数的前几个不同取值
+         */
+        public List<Object> getSampleValues() {
+            return sampleValues;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+    }
+}
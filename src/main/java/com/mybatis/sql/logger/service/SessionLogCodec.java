@@ -0,0 +1,134 @@
+package com.mybatis.sql.logger.service;
+
+import com.mybatis.sql.logger.parser.ElapsedTime;
+import com.mybatis.sql.logger.parser.SqlLogParser;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 会话日志的记录编码
+ * 一条记录：时间戳、行数、耗时（纳秒；版本 1 的文件为毫秒）、线程名、语句 ID、SQL 模板、参数列表；
+ * 参数按类型标记保存，读回后与入库时的参数类型一致（String / Integer / Long / Double / Boolean / BigDecimal）
+ */
+final class SessionLogCodec {
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_INTEGER = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_DOUBLE = 4;
+    private static final byte TYPE_BOOLEAN = 5;
+    private static final byte TYPE_DECIMAL = 6;
+
+    private SessionLogCodec() {
+    }
+
+    static void write(DataOutputStream out, SqlLogParser.ParsedSql parsedSql) throws IOException {
+        out.writeLong(parsedSql.getTimestamp());
+        out.writeLong(parsedSql.getRowCount());
+        out.writeLong(parsedSql.getElapsedNanos());
+        writeString(out, parsedSql.getThreadName());
+        writeString(out, parsedSql.getStatementId());
+        writeString(out, parsedSql.getOriginalSql());
+
+        List<Object> parameters = parsedSql.getParameters();
+        int count = parameters == null ? 0 : parameters.size();
+        out.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            writeParameter(out, parameters.get(i));
+        }
+    }
+
+    static SqlLogParser.ParsedSql read(DataInputStream in, int formatVersion) throws IOException {
+        long timestamp = in.readLong();
+        long rowCount = in.readLong();
+        long elapsed = in.readLong();
+        long elapsedNanos = formatVersion < 2 ? ElapsedTime.fromMillis(elapsed) : elapsed;
+        String threadName = readString(in);
+        String statementId = readString(in);
+        String sql = readString(in);
+
+        int count = in.readInt();
+        List<Object> parameters = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            parameters.add(readParameter(in));
+        }
+        return new SqlLogParser.ParsedSql(sql, parameters, threadName, statementId, timestamp, rowCount,
+                elapsedNanos);
+    }
+
+    private static void writeParameter(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof Integer) {
+            out.writeByte(TYPE_INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(TYPE_DECIMAL);
+            writeString(out, ((BigDecimal) value).toPlainString());
+        } else {
+            out.writeByte(TYPE_STRING);
+            writeString(out, value.toString());
+        }
+    }
+
+    private static Object readParameter(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_INTEGER:
+                return in.readInt();
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_DOUBLE:
+                return in.readDouble();
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+            case TYPE_STRING:
+                return readString(in);
+            case TYPE_DECIMAL:
+                return new BigDecimal(readString(in));
+            default:
+                throw new IOException("未知的参数类型标记: " + type);
+        }
+    }
+
+    /**
+     * 字符串以长度 + UTF-8 字节保存（writeUTF 限制 64 KB，长 SQL 放不下），null 的长度为 -1
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,308 @@
+package com.mybatis.sql.logger.service;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * 会话日志目录管理
+ * 每次运行一个子目录：session.properties 保存运行名称、起止时间和记录数，
+ * 000001.seg / 000001.idx 为压缩段文件及其稀疏时间索引（每个压缩块一条索引项）。
+ * 负责创建写入器、列出历史会话，以及按总大小和保留天数清理旧会话
+ */
+public final class SessionLogManager {
+
+    private static final Logger LOG = Logger.getInstance(SessionLogManager.class);
+
+    static final int SEGMENT_MAGIC = 0x4D53514C; // "MSQL"
+    // 版本 2：耗时改为纳秒
+    static final int FORMAT_VERSION = 2;
+    // 索引项：最早时间、最晚时间、块偏移、记录数
+    static final int INDEX_ENTRY_BYTES = 8 + 8 + 8 + 4;
+
+    private static final String INFO_FILE = "session.properties";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final DateTimeFormatter DIRECTORY_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneId.systemDefault());
+
+    private final Path root;
+    // 正在写入的会话目录，清理时跳过
+    private final Set<Path> activeSessions = ConcurrentHashMap.newKeySet();
+
+    public SessionLogManager(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * 为一次运行创建会话目录和写入器；失败时返回 null（不影响 SQL 捕获）
+     */
+    SessionLogWriter open(int runId, String name, long segmentBytes) {
+        long startTime = System.currentTimeMillis();
+        Path directory = root.resolve(DIRECTORY_FORMAT.format(Instant.ofEpochMilli(startTime)) + "-" + runId);
+        try {
+            Files.createDirectories(directory);
+            Properties info = new Properties();
+            info.setProperty("name", name == null ? "" : name);
+            info.setProperty("startTime", String.valueOf(startTime));
+            writeInfo(directory, info);
+        } catch (IOException e) {
+            LOG.warn("创建 SQL 会话日志目录失败: " + directory, e);
+            return null;
+        }
+        activeSessions.add(directory);
+        return new SessionLogWriter(this, directory, segmentBytes);
+    }
+
+    /**
+     * 写入器关闭后更新会话信息（在写线程中调用）
+     */
+    void finished(SessionLogWriter writer, long recordCount, long droppedCount) {
+        Path directory = writer.getDirectory();
+        try {
+            Properties info = readInfo(directory);
+            info.setProperty("endTime", String.valueOf(System.currentTimeMillis()));
+            info.setProperty("recordCount", String.valueOf(recordCount));
+            info.setProperty("droppedCount", String.valueOf(droppedCount));
+            writeInfo(directory, info);
+        } catch (IOException e) {
+            LOG.warn("更新 SQL 会话信息失败: " + directory, e);
+        } finally {
+            activeSessions.remove(directory);
+        }
+    }
+
+    /**
+     * 列出已保存的会话（按开始时间倒序）
+     */
+    public List<SessionInfo> listSessions() {
+        List<SessionInfo> sessions = new ArrayList<>();
+        if (!Files.isDirectory(root)) {
+            return sessions;
+        }
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path directory : directories) {
+                try {
+                    Properties info = readInfo(directory);
+                    sessions.add(new SessionInfo(directory,
+                            info.getProperty("name", directory.getFileName().toString()),
+                            parseLong(info.getProperty("startTime"), Files.getLastModifiedTime(directory).toMillis()),
+                            parseLong(info.getProperty("endTime"), -1),
+                            parseLong(info.getProperty("recordCount"), -1),
+                            sizeOf(directory),
+                            activeSessions.contains(directory)));
+                } catch (IOException e) {
+                    LOG.debug("跳过无法读取的会话目录: " + directory, e);
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("列出 SQL 会话失败: " + root, e);
+        }
+        sessions.sort(Comparator.comparingLong(SessionInfo::getStartTime).reversed());
+        return sessions;
+    }
+
+    /**
+     * 清理旧会话：先删除超过保留时间的，再从最旧的开始删除直到总大小不超过上限；正在写入的会话不删除
+     */
+    public void applyRetention(long maxBytes, long maxAgeMillis) {
+        List<SessionInfo> sessions = listSessions();
+        long now = System.currentTimeMillis();
+        long totalBytes = 0;
+        for (SessionInfo session : sessions) {
+            totalBytes += session.getSizeBytes();
+        }
+
+        // 从最旧的会话开始
+        for (int i = sessions.size() - 1; i >= 0; i--) {
+            SessionInfo session = sessions.get(i);
+            if (session.isActive()) {
+                continue;
+            }
+            boolean expired = maxAgeMillis > 0 && now - session.getStartTime() > maxAgeMillis;
+            boolean oversize = maxBytes > 0 && totalBytes > maxBytes;
+            if (expired || oversize) {
+                if (delete(session.getDirectory())) {
+                    totalBytes -= session.getSizeBytes();
+                }
+            }
+        }
+    }
+
+    static String segmentFileName(int segmentNumber) {
+        return String.format("%06d%s", segmentNumber, SEGMENT_SUFFIX);
+    }
+
+    static String indexFileName(int segmentNumber) {
+        return String.format("%06d%s", segmentNumber, INDEX_SUFFIX);
+    }
+
+    /**
+     * 会话目录中按编号排序的段文件
+     */
+    static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                segments.add(file);
+            }
+        }
+        segments.sort(Comparator.comparing(path -> path.getFileName().toString()));
+        return segments;
+    }
+
+    static Path indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return segment.resolveSibling(name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    private static Properties readInfo(Path directory) throws IOException {
+        Properties info = new Properties();
+        Path file = directory.resolve(INFO_FILE);
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                info.load(in);
+            }
+        }
+        return info;
+    }
+
+    /**
+     * 先写临时文件再替换，避免 IDE 退出时留下半个文件
+     */
+    private static void writeInfo(Path directory, Properties info) throws IOException {
+        Path temp = directory.resolve(INFO_FILE + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            info.store(out, "MyBatis SQL Logger session");
+        }
+        Files.move(temp, directory.resolve(INFO_FILE), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static long sizeOf(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.mapToLong(file -> {
+                try {
+                    return Files.size(file);
+                } catch (IOException e) {
+                    return 0;
+                }
+            }).sum();
+        }
+    }
+
+    private static boolean delete(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+            return true;
+        } catch (IOException e) {
+            // Windows 上仍被映射的段文件无法删除，下次清理时再试
+            LOG.debug("删除 SQL 会话失败: " + directory, e);
+            return false;
+        }
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 一个已保存的会话
+     */
+    public static class SessionInfo {
+        private static final DateTimeFormatter DISPLAY_FORMAT =
+                DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+        private final Path directory;
+        private final String name;
+        private final long startTime;
+        private final long endTime;
+        private final long recordCount;
+        private final long sizeBytes;
+        private final boolean active;
+
+        SessionInfo(Path directory, String name, long startTime, long endTime, long recordCount, long sizeBytes,
+                    boolean active) {
+            this.directory = directory;
+            this.name = name;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.recordCount = recordCount;
+            this.sizeBytes = sizeBytes;
+            this.active = active;
+        }
+
+        public Path getDirectory() {
+            return directory;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        /**
+         * 结束时间，正在写入或 IDE 异常退出时为 -1
+         */
+        public long getEndTime() {
+            return endTime;
+        }
+
+        /**
+         * 记录数，正在写入或 IDE 异常退出时为 -1
+         */
+        public long getRecordCount() {
+            return recordCount;
+        }
+
+        public long getSizeBytes() {
+            return sizeBytes;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(DISPLAY_FORMAT.format(Instant.ofEpochMilli(startTime))).append("  ").append(name);
+            text.append("（");
+            if (recordCount >= 0) {
+                text.append(recordCount).append(" 条，");
+            } else if (active) {
+                text.append("记录中，");
+            }
+            text.append(String.format("%.1f MB", sizeBytes / (1024.0 * 1024.0))).append("）");
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.mybatis.sql.logger.service;
+
+import com.mybatis.sql.logger.parser.SqlLogParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 会话日志读取器
+ * 索引文件和段文件都以只读方式内存映射：先扫描稀疏时间索引，只解压与时间范围重叠的块。
+ * 文件尾部不完整的块（IDE 异常退出时正在写入）会被跳过
+ */
+public final class SessionLogReader {
+
+    private SessionLogReader() {
+    }
+
+    /**
+     * 读取会话中时间戳位于 [fromMillis, toMillis] 的记录，按写入顺序交给 sink
+     *
+     * @return 读取的记录数
+     */
+    public static long read(Path directory, long fromMillis, long toMillis, Consumer<SqlLogParser.ParsedSql> sink)
+            throws IOException {
+        long count = 0;
+        Inflater inflater = new Inflater();
+        try {
+            for (Path segment : SessionLogManager.segments(directory)) {
+                Path index = SessionLogManager.indexOf(segment);
+                if (!Files.exists(index)) {
+                    continue;
+                }
+                count += readSegment(segment, index, fromMillis, toMillis, inflater, sink);
+            }
+        } finally {
+            inflater.end();
+        }
+        return count;
+    }
+
+    private static long readSegment(Path segment, Path index, long fromMillis, long toMillis, Inflater inflater,
+                                    Consumer<SqlLogParser.ParsedSql> sink) throws IOException {
+        try (FileChannel indexChannel = FileChannel.open(index, StandardOpenOption.READ);
+             FileChannel segmentChannel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long segmentSize = segmentChannel.size();
+            if (segmentSize < 8) {
+                return 0;
+            }
+            MappedByteBuffer data = segmentChannel.map(FileChannel.MapMode.READ_ONLY, 0, segmentSize);
+            if (data.getInt(0) != SessionLogManager.SEGMENT_MAGIC) {
+                throw new IOException("不是 SQL 会话日志文件: " + segment);
+            }
+            int formatVersion = data.getInt(4);
+            if (formatVersion > SessionLogManager.FORMAT_VERSION) {
+                throw new IOException("会话日志版本过高: " + segment);
+            }
+
+            long entries = indexChannel.size() / SessionLogManager.INDEX_ENTRY_BYTES;
+            MappedByteBuffer indexData = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    entries * SessionLogManager.INDEX_ENTRY_BYTES);
+            long count = 0;
+            for (int i = 0; i < entries; i++) {
+                int position = i * SessionLogManager.INDEX_ENTRY_BYTES;
+                long firstTimestamp = indexData.getLong(position);
+                long lastTimestamp = indexData.getLong(position + 8);
+                long offset = indexData.getLong(position + 16);
+                int records = indexData.getInt(position + 24);
+                if (lastTimestamp < fromMillis || firstTimestamp > toMillis) {
+                    continue;
+                }
+                if (offset + 8 > segmentSize) {
+                    break;
+                }
+
+                int rawLength = data.getInt((int) offset);
+                int compressedLength = data.getInt((int) offset + 4);
+                if (rawLength < 0 || compressedLength < 0 || offset + 8 + compressedLength > segmentSize) {
+                    break;
+                }
+                byte[] raw = inflate(data, (int) offset + 8, compressedLength, rawLength, inflater);
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+                for (int r = 0; r < records; r++) {
+                    SqlLogParser.ParsedSql parsedSql = SessionLogCodec.read(in, formatVersion);
+                    if (parsedSql.getTimestamp() >= fromMillis && parsedSql.getTimestamp() <= toMillis) {
+                        sink.accept(parsedSql);
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    private static byte[] inflate(MappedByteBuffer data, int offset, int compressedLength, int rawLength,
+                                  Inflater inflater) throws IOException {
+        byte[] input = new byte[compressedLength];
+        data.get(offset, input);
+        byte[] raw = new byte[rawLength];
+        inflater.reset();
+        inflater.setInput(input);
+        try {
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, rawLength - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != rawLength) {
+                throw new IOException("会话日志块已损坏");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("会话日志块已损坏", e);
+        }
+        return raw;
+    }
+}
@@ -0,0 +1,236 @@
+package com.mybatis.sql.logger.service;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.mybatis.sql.logger.parser.SqlLogParser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+/**
+ * 会话日志写入器（每次运行一个）
+ * 调用方只把记录放入无锁队列，压缩和写盘在独立的写线程中进行：攒满一个块或等待 FLUSH_DELAY_MS 后，
+ * 把一批记录编码、Deflate 压缩后追加到当前段文件，并在索引文件中追加该块的时间范围和偏移。
+ * 段文件超过 segmentBytes 后滚动到下一个段；队列满时丢弃新记录并计数，绝不阻塞解析线程
+ */
+final class SessionLogWriter {
+
+    private static final Logger LOG = Logger.getInstance(SessionLogWriter.class);
+
+    // 每个压缩块最多的记录数
+    private static final int BLOCK_RECORDS = 512;
+    // 不满一个块时最多等待多久写盘（毫秒）
+    private static final long FLUSH_DELAY_MS = 500;
+    // 等待写盘的最多记录数
+    private static final int MAX_QUEUED = 65536;
+
+    private final SessionLogManager manager;
+    private final Path directory;
+    private final long segmentBytes;
+    private final ConcurrentLinkedQueue<SqlLogParser.ParsedSql> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong droppedCount = new AtomicLong();
+    // 单线程顺序执行，文件状态只被写线程访问
+    private final ExecutorService writeExecutor =
+            AppExecutorUtil.createBoundedApplicationPoolExecutor("MyBatis SQL Session Log", 1);
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private volatile boolean closed = false;
+
+    // 以下字段只在写线程中访问
+    private final ByteArrayOutputStream rawBytes = new ByteArrayOutputStream(64 * 1024);
+    private final DataOutputStream rawOut = new DataOutputStream(rawBytes);
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private byte[] compressed = new byte[64 * 1024];
+    private FileChannel segmentChannel;
+    private FileChannel indexChannel;
+    private int segmentNumber = 0;
+    private long recordCount = 0;
+    private boolean failed = false;
+
+    SessionLogWriter(SessionLogManager manager, Path directory, long segmentBytes) {
+        this.manager = manager;
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 追加一条记录（任意线程调用，不阻塞）
+     */
+    void append(SqlLogParser.ParsedSql parsedSql) {
+        if (closed) {
+            return;
+        }
+        if (queued.incrementAndGet() > MAX_QUEUED) {
+            queued.decrementAndGet();
+            droppedCount.incrementAndGet();
+            return;
+        }
+        queue.add(parsedSql);
+
+        if (queued.get() >= BLOCK_RECORDS) {
+            scheduleDrain();
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            AppExecutorUtil.getAppScheduledExecutorService().schedule(() -> {
+                flushScheduled.set(false);
+                scheduleDrain();
+            }, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 关闭写入器：写完队列中剩余的记录后关闭文件并更新会话信息（异步）
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writeExecutor.execute(() -> {
+                drain();
+                closeFiles();
+                // 释放 zlib 的本地内存，不等 GC
+                deflater.end();
+                manager.finished(this, recordCount, droppedCount.get());
+            });
+        } catch (RejectedExecutionException e) {
+            // 写线程已关闭
+        }
+        writeExecutor.shutdown();
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                writeExecutor.execute(() -> {
+                    drainScheduled.set(false);
+                    drain();
+                });
+            } catch (RejectedExecutionException e) {
+                drainScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * 写线程：按块取出队列中的记录并写盘
+     */
+    private void drain() {
+        while (!queue.isEmpty()) {
+            rawBytes.reset();
+            int count = 0;
+            long firstTimestamp = Long.MAX_VALUE;
+            long lastTimestamp = Long.MIN_VALUE;
+            SqlLogParser.ParsedSql parsedSql;
+            while (count < BLOCK_RECORDS && (parsedSql = queue.poll()) != null) {
+                queued.decrementAndGet();
+                if (failed) {
+                    continue;
+                }
+                try {
+                    SessionLogCodec.write(rawOut, parsedSql);
+                } catch (IOException e) {
+                    // 写入内存缓冲区不会失败
+                    throw new IllegalStateException(e);
+                }
+                firstTimestamp = Math.min(firstTimestamp, parsedSql.getTimestamp());
+                lastTimestamp = Math.max(lastTimestamp, parsedSql.getTimestamp());
+                count++;
+            }
+            if (count > 0 && !failed) {
+                writeBlock(count, firstTimestamp, lastTimestamp);
+            }
+        }
+    }
+
+    /**
+     * 压缩并追加一个块：段文件中为 [原始长度][压缩长度][压缩数据]，索引文件中为
+     * [最早时间][最晚时间][块偏移][记录数]
+     */
+    private void writeBlock(int count, long firstTimestamp, long lastTimestamp) {
+        byte[] raw = rawBytes.toByteArray();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                byte[] grown = new byte[compressed.length * 2];
+                System.arraycopy(compressed, 0, grown, 0, length);
+                compressed = grown;
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+
+        try {
+            if (segmentChannel == null || segmentChannel.position() >= segmentBytes) {
+                openNextSegment();
+            }
+            long offset = segmentChannel.position();
+            ByteBuffer header = ByteBuffer.allocate(8);
+            header.putInt(raw.length).putInt(length).flip();
+            writeFully(segmentChannel, header);
+            writeFully(segmentChannel, ByteBuffer.wrap(compressed, 0, length));
+
+            ByteBuffer entry = ByteBuffer.allocate(SessionLogManager.INDEX_ENTRY_BYTES);
+            entry.putLong(firstTimestamp).putLong(lastTimestamp).putLong(offset).putInt(count).flip();
+            writeFully(indexChannel, entry);
+            recordCount += count;
+        } catch (IOException e) {
+            // 磁盘满、目录被删除等：停止写入本次会话，不影响 SQL 捕获
+            LOG.warn("写入 SQL 会话日志失败，停止记录本次会话: " + directory, e);
+            failed = true;
+            closeFiles();
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        closeFiles();
+        segmentNumber++;
+        segmentChannel = FileChannel.open(directory.resolve(SessionLogManager.segmentFileName(segmentNumber)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        indexChannel = FileChannel.open(directory.resolve(SessionLogManager.indexFileName(segmentNumber)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(8);
+        header.putInt(SessionLogManager.SEGMENT_MAGIC).putInt(SessionLogManager.FORMAT_VERSION).flip();
+        writeFully(segmentChannel, header);
+    }
+
+    private void closeFiles() {
+        for (FileChannel channel : new FileChannel[]{segmentChannel, indexChannel}) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    LOG.debug("关闭会话日志文件失败", e);
+                }
+            }
+        }
+        segmentChannel = null;
+        indexChannel = null;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.mybatis.sql.logger.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 加权 Space-Saving 频繁项草图
+ * 固定保留 capacity 个计数器，计数器按最小堆组织：新键到来且计数器已满时，替换计数最小的键，
+ * 新计数 = 被替换的最小计数 + 权重，并把该最小计数记为误差上界。
+ * 任何真实权重之和超过 总权重 / capacity 的键都保证在草图中，内存与不同键的数量无关
+ *
+ * @param <T> 随键保存的展示信息（例如 SQL 指纹）
+ */
+public class SpaceSavingSketch<T> {
+
+    private final int capacity;
+    private final long[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final Object[] labels;
+    // 最小堆：heap[i] 为计数器槽位，positions[槽位] 为其在堆中的位置
+    private final int[] heap;
+    private final int[] positions;
+    private final Map<Long, Integer> slotByKey;
+    private int size = 0;
+
+    public SpaceSavingSketch(int capacity) {
+        this.capacity = Math.max(capacity, 1);
+        this.keys = new long[this.capacity];
+        this.counts = new long[this.capacity];
+        this.errors = new long[this.capacity];
+        this.labels = new Object[this.capacity];
+        this.heap = new int[this.capacity];
+        this.positions = new int[this.capacity];
+        this.slotByKey = new HashMap<>(this.capacity * 2);
+    }
+
+    /**
+     * 为键累加权重；权重不大于 0 时忽略
+     */
+    public synchronized void add(long key, T label, long weight) {
+        if (weight <= 0) {
+            return;
+        }
+
+        Integer slot = slotByKey.get(key);
+        if (slot != null) {
+            counts[slot] += weight;
+            siftDown(positions[slot]);
+            return;
+        }
+
+        if (size < capacity) {
+            int newSlot = size;
+            keys[newSlot] = key;
+            counts[newSlot] = weight;
+            errors[newSlot] = 0;
+            labels[newSlot] = label;
+            heap[size] = newSlot;
+            positions[newSlot] = size;
+            size++;
+            slotByKey.put(key, newSlot);
+            siftUp(size - 1);
+            return;
+        }
+
+        // 替换计数最小的键
+        int minSlot = heap[0];
+        slotByKey.remove(keys[minSlot]);
+        long minCount = counts[minSlot];
+        keys[minSlot] = key;
+        counts[minSlot] = minCount + weight;
+        errors[minSlot] = minCount;
+        labels[minSlot] = label;
+        slotByKey.put(key, minSlot);
+        siftDown(0);
+    }
+
+    /**
+     * 获取计数最大的前 n 个键（按计数降序）
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized List<Entry<T>> top(int n) {
+        List<Entry<T>> entries = new ArrayList<>(size);
+        for (int slot = 0; slot < size; slot++) {
+            entries.add(new Entry<>(keys[slot], (T) labels[slot], counts[slot], errors[slot]));
+        }
+        entries.sort((a, b) -> Long.compare(b.count, a.count));
+        return entries.size() > n ? new ArrayList<>(entries.subList(0, n)) : entries;
+    }
+
+    public synchronized void clear() {
+        for (int slot = 0; slot < size; slot++) {
+            labels[slot] = null;
+        }
+        slotByKey.clear();
+        size = 0;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (counts[heap[parent]] <= counts[heap[index]]) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = index * 2 + 1;
+            if (left >= size) {
+                break;
+            }
+            int right = left + 1;
+            int smallest = right < size && counts[heap[right]] < counts[heap[left]] ? right : left;
+            if (counts[heap[index]] <= counts[heap[smallest]]) {
+                break;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int slot = heap[i];
+        heap[i] = heap[j];
+        heap[j] = slot;
+        positions[heap[i]] = i;
+        positions[heap[j]] = j;
+    }
+
+    /**
+     * 草图中的一项：真实值位于 [count - error, count] 之间
+     */
+    public static class Entry<T> {
+        private final long key;
+        private final T label;
+        private final long count;
+        private final long error;
+
+        Entry(long key, T label, long count, long error) {
+            this.key = key;
+            this.label = label;
+            this.count = count;
+            this.error = error;
+        }
+
+        public long getKey() {
+            return key;
+        }
+
+        public T getLabel() {
+            return label;
+        }
+
+        /**
+         * 估计值（真实值的上界）
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * 最大高估量
+         */
+        public long getError() {
+            return error;
+        }
+    }
+}
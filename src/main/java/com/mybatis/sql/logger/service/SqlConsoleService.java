@@ -1,38 +1,312 @@
 package com.mybatis.sql.logger.service;
 
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
+import com.mybatis.sql.logger.parser.CorrelationKeyExtractor;
+import com.mybatis.sql.logger.parser.LogFileIngester;
+import com.mybatis.sql.logger.parser.SqlFilter;
 import com.mybatis.sql.logger.parser.SqlLogParser;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * SQL Console 服务
  * 管理解析后的 SQL 数据（项目级别）
  */
 @Service(Service.Level.PROJECT)
-public final class SqlConsoleService {
+public final class SqlConsoleService implements Disposable {
+
+    private static final Logger LOG = Logger.getInstance(SqlConsoleService.class);
+
+    // 最多保留的 N+1 告警数
+    private static final int MAX_WARNINGS = 1024;
+    private static final long MEGABYTE = 1024L * 1024L;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
 
     private final List<SqlConsoleListener> listeners = new CopyOnWriteArrayList<>();
     // 默认开启监听
     private volatile boolean isListening = true;
+    // 因日志行队列溢出而丢弃的行数
+    private final AtomicLong droppedLineCount = new AtomicLong();
+    // 被过滤规则丢弃的 SQL 条数
+    private final AtomicLong filteredSqlCount = new AtomicLong();
+    // 已捕获的 SQL 事件
+    private final SqlEventStore eventStore =
+            new SqlEventStore(SqlLoggerSettings.getInstance().getState().eventStoreCapacity);
+    // 已捕获 SQL 的倒排索引，保留范围与事件存储一致
+    private final SqlSearchIndex searchIndex = new SqlSearchIndex(eventStore.getCapacity());
+    // 按 SQL 指纹聚合的统计
+    private final SqlFingerprintStats fingerprintStats = new SqlFingerprintStats();
+    // 按 Mapper 方法聚合的统计
+    private final MapperMethodStats mapperMethodStats = new MapperMethodStats();
+    // 热点语句排行榜
+    private final HotStatementBoard hotStatementBoard = new HotStatementBoard();
+    // N+1 查询检测
+    private final NPlusOneDetector nPlusOneDetector = new NPlusOneDetector();
+    // 触发 N+1 告警的事件序号 -> 告警（只保留最近的若干条）
+    private final Map<Long, NPlusOneDetector.NPlusOneWarning> nPlusOneWarnings =
+            new LinkedHashMap<Long, NPlusOneDetector.NPlusOneWarning>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, NPlusOneDetector.NPlusOneWarning> eldest) {
+                    return size() > MAX_WARNINGS;
+                }
+            };
+    // 运行 ID -> 运行配置名称
+    private final Map<Integer, String> runNames = new ConcurrentHashMap<>();
+    private final AtomicInteger runIdGenerator = new AtomicInteger();
+    // 会话日志目录（项目的系统目录下）
+    private final SessionLogManager sessionLogManager;
+    // 运行 ID -> 会话日志写入器（只有开启会话日志的运行才有）
+    private final Map<Integer, SessionLogWriter> sessionWriters = new ConcurrentHashMap<>();
+
+    public SqlConsoleService(Project project) {
+        this.sessionLogManager = new SessionLogManager(Paths.get(PathManager.getSystemPath(),
+                "mybatis-sql-logger", project.getLocationHash(), "sessions"));
+    }
 
     public static SqlConsoleService getInstance(Project project) {
         return project.getService(SqlConsoleService.class);
     }
 
+    /**
+     * 登记一次运行（进程启动、日志文件等来源），返回运行 ID；开启会话日志时同时写入磁盘
+     */
+    public int startRun(String name) {
+        return startRun(name, true);
+    }
+
+    /**
+     * 登记一次运行
+     *
+     * @param persistent 是否写入会话日志（回放历史会话时为 false）
+     */
+    public int startRun(String name, boolean persistent) {
+        int runId = runIdGenerator.incrementAndGet();
+        runNames.put(runId, name);
+
+        SqlLoggerSettings.State settings = SqlLoggerSettings.getInstance().getState();
+        if (persistent && settings.sessionLogEnabled) {
+            SessionLogWriter writer = sessionLogManager.open(runId, name, settings.sessionLogSegmentMegabytes * MEGABYTE);
+            if (writer != null) {
+                sessionWriters.put(runId, writer);
+            }
+            // 清理旧会话，不阻塞调用方
+            long maxBytes = settings.sessionLogMaxMegabytes * MEGABYTE;
+            long maxAgeMillis = settings.sessionLogMaxAgeDays * DAY_MILLIS;
+            ApplicationManager.getApplication().executeOnPooledThread(
+                    () -> sessionLogManager.applyRetention(maxBytes, maxAgeMillis));
+        }
+        return runId;
+    }
+
+    /**
+     * 运行结束：关闭该运行的会话日志（剩余记录在后台写完）
+     */
+    public void finishRun(int runId) {
+        SessionLogWriter writer = sessionWriters.remove(runId);
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    /**
+     * 获取会话日志目录管理
+     */
+    public SessionLogManager getSessionLogManager() {
+        return sessionLogManager;
+    }
+
+    /**
+     * 把一个历史会话作为新的运行加入控制台，暂停监听时同样加入（耗时操作，不要在 EDT 中调用）
+     *
+     * @return 加入的记录数
+     */
+    public long replaySession(SessionLogManager.SessionInfo session) throws IOException {
+        int runId = startRun("回放: " + session.getName(), false);
+        return SessionLogReader.read(session.getDirectory(), Long.MIN_VALUE, Long.MAX_VALUE,
+                parsedSql -> appendSql(runId, parsedSql));
+    }
+
+    /**
+     * 并行解析一个日志文件，作为新的运行加入控制台，暂停监听时同样加入（耗时操作，不要在 EDT 中调用）
+     *
+     * @return 加入的 SQL 条数
+     */
+    public long ingestLogFile(Path file, Charset charset, LogFileIngester.Progress progress) throws IOException {
+        SqlLoggerSettings.State settings = SqlLoggerSettings.getInstance().getState();
+        String filterRules = settings.filterRules;
+        try {
+            SqlFilter.compile(filterRules);
+        } catch (IllegalArgumentException e) {
+            LOG.warn("忽略无效的过滤规则: " + e.getMessage());
+            filterRules = "";
+        }
+        String rules = filterRules;
+        LogFileIngester ingester = new LogFileIngester(() -> {
+            // 离线解析不按墙钟时间淘汰待配对语句，只受容量限制
+            SqlLogParser parser = new SqlLogParser(
+                    new CorrelationKeyExtractor(settings.correlationMode, settings.correlationPattern),
+                    settings.maxPendingStatements, 0, 0);
+            // 过滤规则的匹配缓存不是线程安全的，每个解析器单独编译
+            parser.setFilter(SqlFilter.compile(rules));
+            return parser;
+        }, charset, settings.maxLineLength, Runtime.getRuntime().availableProcessors());
+
+        int runId = startRun("日志文件: " + file.getFileName(), false);
+        try {
+            return ingester.ingest(file, parsedSql -> appendSql(runId, parsedSql), progress);
+        } finally {
+            addFilteredSql(ingester.getFilteredCount());
+            addDroppedLines(ingester.getDroppedLineCount());
+            finishRun(runId);
+        }
+    }
+
+    /**
+     * 获取运行名称
+     */
+    public String getRunName(int runId) {
+        return runNames.get(runId);
+    }
+
     /**
      * 添加 SQL
      */
-    public void addSql(SqlLogParser.ParsedSql parsedSql) {
+    public void addSql(int runId, SqlLogParser.ParsedSql parsedSql) {
         // 只有在监听状态下才添加 SQL
         if (!isListening) {
             return;
         }
-        // 直接通知监听器，不再缓存
+        appendSql(runId, parsedSql);
+    }
+
+    /**
+     * 入库一条 SQL，不受监听开关影响（回放会话、打开日志文件是用户主动发起的）
+     */
+    private void appendSql(int runId, SqlLogParser.ParsedSql parsedSql) {
+        // 词项提取（SQL 分词）在锁外进行
+        List<String> terms = SqlSearchIndex.termsOf(parsedSql);
+        long sequence;
+        // 多个来源并发入库：分配序号与追加倒排表在同一把锁内完成，倒排表才能按序号有序追加；检索不获取这把锁
+        synchronized (searchIndex) {
+            sequence = eventStore.append(runId, parsedSql);
+            searchIndex.record(sequence, terms);
+        }
+        SessionLogWriter writer = sessionWriters.get(runId);
+        if (writer != null) {
+            writer.append(parsedSql);
+        }
+        fingerprintStats.record(parsedSql);
+        mapperMethodStats.record(parsedSql);
+        hotStatementBoard.record(parsedSql);
         notifyListeners(parsedSql);
+
+        SqlLoggerSettings.State settings = SqlLoggerSettings.getInstance().getState();
+        if (settings.nPlusOneEnabled) {
+            NPlusOneDetector.NPlusOneWarning warning = nPlusOneDetector.record(
+                    runId, parsedSql, settings.nPlusOneThreshold, settings.nPlusOneWindowMillis);
+            if (warning != null) {
+                synchronized (nPlusOneWarnings) {
+                    nPlusOneWarnings.put(sequence, warning);
+                }
+                notifyListenersNPlusOne(warning);
+            }
+        }
+    }
+
+    /**
+     * 获取 SQL 事件存储
+     */
+    public SqlEventStore getEventStore() {
+        return eventStore;
+    }
+
+    /**
+     * 检索已捕获的 SQL，查询语法见 {@link SqlSearchIndex}
+     *
+     * @return 按序号升序的匹配事件序号；查询为空时返回 null
+     */
+    public long[] searchSql(String query) {
+        return searchIndex.search(query, eventStore.getFirstSequence());
+    }
+
+    /**
+     * 检索索引的版本，相同版本下同一查询的结果不变
+     */
+    public long getSearchIndexVersion() {
+        return searchIndex.getVersion();
+    }
+
+    /**
+     * 获取指定事件触发的 N+1 告警，没有时返回 null
+     */
+    public NPlusOneDetector.NPlusOneWarning getNPlusOneWarning(long sequence) {
+        synchronized (nPlusOneWarnings) {
+            return nPlusOneWarnings.get(sequence);
+        }
+    }
+
+    /**
+     * 获取按 SQL 指纹聚合的统计
+     */
+    public SqlFingerprintStats getFingerprintStats() {
+        return fingerprintStats;
+    }
+
+    /**
+     * 获取按 Mapper 方法聚合的统计
+     */
+    public MapperMethodStats getMapperMethodStats() {
+        return mapperMethodStats;
+    }
+
+    /**
+     * 获取热点语句排行榜
+     */
+    public HotStatementBoard getHotStatementBoard() {
+        return hotStatementBoard;
+    }
+
+    /**
+     * 记录因队列溢出而丢弃的日志行
+     */
+    public void addDroppedLines(long count) {
+        droppedLineCount.addAndGet(count);
+    }
+
+    /**
+     * 获取已丢弃的日志行数
+     */
+    public long getDroppedLineCount() {
+        return droppedLineCount.get();
+    }
+
+    /**
+     * 记录被过滤规则丢弃的 SQL
+     */
+    public void addFilteredSql(long count) {
+        filteredSqlCount.addAndGet(count);
+    }
+
+    /**
+     * 获取被过滤规则丢弃的 SQL 条数
+     */
+    public long getFilteredSqlCount() {
+        return filteredSqlCount.get();
     }
 
     /**
@@ -50,12 +324,32 @@ public final class SqlConsoleService {
     }
 
     /**
-     * 清空 SQL（仅通知监听器）
+     * 清空 SQL（清空事件存储并通知监听器）
      */
     public void clearSql() {
+        droppedLineCount.set(0);
+        filteredSqlCount.set(0);
+        synchronized (searchIndex) {
+            eventStore.clear();
+            searchIndex.clear();
+        }
+        fingerprintStats.clear();
+        mapperMethodStats.clear();
+        hotStatementBoard.clear();
+        nPlusOneDetector.clear();
+        synchronized (nPlusOneWarnings) {
+            nPlusOneWarnings.clear();
+        }
         notifyListenersClear();
     }
 
+    @Override
+    public void dispose() {
+        for (Integer runId : sessionWriters.keySet()) {
+            finishRun(runId);
+        }
+    }
+
     /**
      * 添加监听器
      */
@@ -79,6 +373,15 @@ public final class SqlConsoleService {
         }
     }
 
+    /**
+     * 通知监听器检测到 N+1 查询
+     */
+    private void notifyListenersNPlusOne(NPlusOneDetector.NPlusOneWarning warning) {
+        for (SqlConsoleListener listener : listeners) {
+            listener.onNPlusOneDetected(warning);
+        }
+    }
+
     /**
      * 通知监听器清空
      */
@@ -94,5 +397,11 @@ public final class SqlConsoleService {
     public interface SqlConsoleListener {
         void onSqlAdded(SqlLogParser.ParsedSql parsedSql);
         void onSqlCleared();
+
+        /**
+         * 检测到 N+1 查询（在解析线程中调用）
+         */
+        default void onNPlusOneDetected(NPlusOneDetector.NPlusOneWarning warning) {
+        }
     }
 }
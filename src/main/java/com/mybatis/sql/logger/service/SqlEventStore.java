@@ -0,0 +1,300 @@
+package com.mybatis.sql.logger.service;
+
+import com.mybatis.sql.logger.parser.ElapsedTime;
+import com.mybatis.sql.logger.parser.SqlLogParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * SQL 事件存储（项目级别，有界环形缓冲区）
+ * 按列存储（struct-of-arrays）：每个字段一个数组，SQL 模板、线程名和语句 ID 经过驻留后共享同一个实例。
+ * 每个事件有一个单调递增的序号，容量满后覆盖最旧的事件；追加和按序号区间读取都是线程安全的
+ */
+public class SqlEventStore {
+
+    // 驻留表的最大条目数，超出后整体重建，避免字面量内联的 SQL 让驻留表无限增长
+    private static final int MAX_INTERNED = 65536;
+    private static final SqlLogParser.SqlType[] SQL_TYPES = SqlLogParser.SqlType.values();
+
+    private final int capacity;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ConcurrentHashMap<String, String> internTable = new ConcurrentHashMap<>();
+
+    private final long[] timestamps;
+    private final int[] runIds;
+    private final byte[] sqlTypes;
+    private final long[] fingerprints;
+    private final long[] rowCounts;
+    private final long[] elapsedNanos;
+    private final String[] threadNames;
+    private final String[] statementIds;
+    private final String[] templates;
+    private final Object[] parameters;
+
+    // 下一个事件的序号；有效区间为 [nextSequence - size, nextSequence)
+    private long nextSequence = 0;
+    private int size = 0;
+
+    public SqlEventStore(int capacity) {
+        this.capacity = Math.max(capacity, 16);
+        this.timestamps = new long[this.capacity];
+        this.runIds = new int[this.capacity];
+        this.sqlTypes = new byte[this.capacity];
+        this.fingerprints = new long[this.capacity];
+        this.rowCounts = new long[this.capacity];
+        this.elapsedNanos = new long[this.capacity];
+        this.threadNames = new String[this.capacity];
+        this.statementIds = new String[this.capacity];
+        this.templates = new String[this.capacity];
+        this.parameters = new Object[this.capacity];
+    }
+
+    /**
+     * 追加一个事件
+     *
+     * @return 事件序号
+     */
+    public long append(int runId, SqlLogParser.ParsedSql parsedSql) {
+        String template = intern(parsedSql.getOriginalSql());
+        String threadName = intern(parsedSql.getThreadName());
+        String statementId = intern(parsedSql.getStatementId());
+        byte sqlType = (byte) parsedSql.getSqlType().ordinal();
+        long fingerprint = parsedSql.getFingerprint().getHash();
+
+        lock.writeLock().lock();
+        try {
+            long sequence = nextSequence++;
+            int slot = (int) (sequence % capacity);
+            timestamps[slot] = parsedSql.getTimestamp();
+            runIds[slot] = runId;
+            sqlTypes[slot] = sqlType;
+            fingerprints[slot] = fingerprint;
+            rowCounts[slot] = parsedSql.getRowCount();
+            elapsedNanos[slot] = parsedSql.getElapsedNanos();
+            threadNames[slot] = threadName;
+            statementIds[slot] = statementId;
+            templates[slot] = template;
+            parameters[slot] = parsedSql.getParameters();
+            if (size < capacity) {
+                size++;
+            }
+            return sequence;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 读取序号区间 [fromSequence, toSequence) 内仍然保留的事件
+     * 已被覆盖的部分自动跳过
+     */
+    public List<SqlEvent> read(long fromSequence, long toSequence) {
+        lock.readLock().lock();
+        try {
+            long from = Math.max(fromSequence, nextSequence - size);
+            long to = Math.min(toSequence, nextSequence);
+            List<SqlEvent> result = new ArrayList<>((int) Math.max(0, to - from));
+            for (long sequence = from; sequence < to; sequence++) {
+                result.add(snapshot(sequence));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 读取单个事件；已被覆盖或尚未写入时返回 null
+     */
+    public SqlEvent get(long sequence) {
+        lock.readLock().lock();
+        try {
+            if (sequence < nextSequence - size || sequence >= nextSequence) {
+                return null;
+            }
+            return snapshot(sequence);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 最旧的仍保留事件的序号
+     */
+    public long getFirstSequence() {
+        lock.readLock().lock();
+        try {
+            return nextSequence - size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 下一个事件的序号（即已写入事件的总数）
+     */
+    public long getNextSequence() {
+        lock.readLock().lock();
+        try {
+            return nextSequence;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 清空所有事件（序号继续递增，已持有的序号不会指向新事件）
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < capacity; i++) {
+                threadNames[i] = null;
+                statementIds[i] = null;
+                templates[i] = null;
+                parameters[i] = null;
+            }
+            size = 0;
+            internTable.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private SqlEvent snapshot(long sequence) {
+        int slot = (int) (sequence % capacity);
+        @SuppressWarnings("unchecked")
+        List<Object> params = (List<Object>) parameters[slot];
+        return new SqlEvent(sequence, timestamps[slot], runIds[slot],
+                SQL_TYPES[sqlTypes[slot]], fingerprints[slot], rowCounts[slot], elapsedNanos[slot],
+                threadNames[slot], statementIds[slot], templates[slot], params);
+    }
+
+    private String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        if (internTable.size() >= MAX_INTERNED) {
+            internTable.clear();
+        }
+        String existing = internTable.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    /**
+     * 单个 SQL 事件的只读快照
+     */
+    public static class SqlEvent {
+        private final long sequence;
+        private final long timestamp;
+        private final int runId;
+        private final SqlLogParser.SqlType sqlType;
+        private final long fingerprint;
+        private final long rowCount;
+        private final long elapsedNanos;
+        private final String threadName;
+        private final String statementId;
+        private final String template;
+        private final List<Object> parameters;
+
+        SqlEvent(long sequence, long timestamp, int runId, SqlLogParser.SqlType sqlType, long fingerprint,
+                 long rowCount, long elapsedNanos,
+                 String threadName, String statementId, String template, List<Object> parameters) {
+            this.sequence = sequence;
+            this.timestamp = timestamp;
+            this.runId = runId;
+            this.sqlType = sqlType;
+            this.fingerprint = fingerprint;
+            this.rowCount = rowCount;
+            this.elapsedNanos = elapsedNanos;
+            this.threadName = threadName;
+            this.statementId = statementId;
+            this.template = template;
+            this.parameters = parameters;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public int getRunId() {
+            return runId;
+        }
+
+        public SqlLogParser.SqlType getSqlType() {
+            return sqlType;
+        }
+
+        /**
+         * SQL 模板的 64 位指纹哈希
+         */
+        public long getFingerprint() {
+            return fingerprint;
+        }
+
+        /**
+         * 返回行数或影响行数，未知时为 -1
+         */
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * 执行耗时（纳秒），未知时为 -1
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * 执行耗时（整毫秒），未知时为 -1
+         */
+        public long getElapsedMillis() {
+            return ElapsedTime.toMillis(elapsedNanos);
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        public String getStatementId() {
+            return statementId;
+        }
+
+        public String getTemplate() {
+            return template;
+        }
+
+        public List<Object> getParameters() {
+            return parameters;
+        }
+
+        /**
+         * 重新构建 ParsedSql（参数替换和格式化仍然是延迟计算的）
+         */
+        public SqlLogParser.ParsedSql toParsedSql() {
+            return new SqlLogParser.ParsedSql(template, parameters, threadName, statementId, timestamp,
+                    rowCount, elapsedNanos);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.mybatis.sql.logger.service;
+
+import com.mybatis.sql.logger.parser.SqlRecordWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * SQL 导出
+ * 按块从事件存储读取事件，由 SqlRecordWriter 逐条编码后写入带缓冲的文件，内存占用只与块大小有关，与导出条数无关
+ */
+public final class SqlExporter {
+
+    // 每次从事件存储读取的事件数
+    private static final int CHUNK_EVENTS = 1024;
+    private static final int BUFFER_CHARS = 64 * 1024;
+
+    /**
+     * 导出进度回调，每写完一块调用一次；可以抛出运行时异常取消导出
+     */
+    public interface Progress {
+        void update(long exported, long total);
+    }
+
+    private SqlExporter() {
+    }
+
+    /**
+     * 导出事件到文件
+     * sequences 为 null 时导出事件存储中当前保留的全部事件，否则只导出给定序号（升序）的事件；
+     * 导出过程中被覆盖的事件自动跳过。导出失败或被取消时删除不完整的文件
+     *
+     * @return 实际导出的条数
+     */
+    public static long export(SqlEventStore store, long[] sequences, SqlRecordWriter.Format format, Path file,
+                              Progress progress) throws IOException {
+        long exported = 0;
+        try (BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), BUFFER_CHARS)) {
+            SqlRecordWriter recordWriter = new SqlRecordWriter(writer, format);
+            recordWriter.writeHeader();
+            if (sequences == null) {
+                long from = store.getFirstSequence();
+                long to = store.getNextSequence();
+                long total = to - from;
+                for (long start = from; start < to; start += CHUNK_EVENTS) {
+                    for (SqlEventStore.SqlEvent event : store.read(start, Math.min(start + CHUNK_EVENTS, to))) {
+                        recordWriter.write(event.toParsedSql());
+                        exported++;
+                    }
+                    progress.update(Math.min(start + CHUNK_EVENTS, to) - from, total);
+                }
+            } else {
+                for (int start = 0; start < sequences.length; start += CHUNK_EVENTS) {
+                    int end = Math.min(start + CHUNK_EVENTS, sequences.length);
+                    for (int i = start; i < end; i++) {
+                        SqlEventStore.SqlEvent event = store.get(sequences[i]);
+                        if (event != null) {
+                            recordWriter.write(event.toParsedSql());
+                            exported++;
+                        }
+                    }
+                    progress.update(end, sequences.length);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return exported;
+    }
+}
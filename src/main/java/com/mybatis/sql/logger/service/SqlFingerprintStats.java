@@ -0,0 +1,121 @@
+package com.mybatis.sql.logger.service;
+
+import com.mybatis.sql.logger.parser.SqlFingerprint;
+import com.mybatis.sql.logger.parser.SqlLogParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按 SQL 指纹聚合的流式统计
+ * 每个指纹保存执行次数、首次/最近执行时间和参数个数范围；计数使用 LongAdder / LongAccumulator
+ * 分段累加，多个解析线程同时记录时不需要加锁
+ */
+public class SqlFingerprintStats {
+
+    // 最多跟踪的指纹数，超出后新指纹只计入 overflowCount
+    private static final int MAX_FINGERPRINTS = 10_000;
+
+    private final ConcurrentHashMap<Long, TemplateStats> statsByFingerprint = new ConcurrentHashMap<>();
+    private final LongAdder overflowCount = new LongAdder();
+
+    /**
+     * 记录一次执行
+     */
+    public void record(SqlLogParser.ParsedSql parsedSql) {
+        SqlFingerprint fingerprint = parsedSql.getFingerprint();
+        TemplateStats stats = statsByFingerprint.get(fingerprint.getHash());
+        if (stats == null) {
+            if (statsByFingerprint.size() >= MAX_FINGERPRINTS) {
+                overflowCount.increment();
+                return;
+            }
+            stats = statsByFingerprint.computeIfAbsent(fingerprint.getHash(),
+                    hash -> new TemplateStats(fingerprint, parsedSql.getSqlType()));
+        }
+        stats.record(parsedSql.getTimestamp(), parsedSql.getParameters() == null ? 0 : parsedSql.getParameters().size());
+    }
+
+    /**
+     * 获取所有指纹统计（快照列表，顺序不定）
+     */
+    public List<TemplateStats> getAll() {
+        return new ArrayList<>(statsByFingerprint.values());
+    }
+
+    /**
+     * 获取指定指纹的统计
+     */
+    public TemplateStats get(long fingerprint) {
+        return statsByFingerprint.get(fingerprint);
+    }
+
+    /**
+     * 因超出指纹数上限而未被跟踪的执行次数
+     */
+    public long getOverflowCount() {
+        return overflowCount.sum();
+    }
+
+    public void clear() {
+        statsByFingerprint.clear();
+        overflowCount.reset();
+    }
+
+    /**
+     * 单个指纹的统计
+     */
+    public static class TemplateStats {
+        private final SqlFingerprint fingerprint;
+        private final SqlLogParser.SqlType sqlType;
+        private final LongAdder count = new LongAdder();
+        private final LongAccumulator firstSeen = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator lastSeen = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        private final LongAccumulator minParams = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator maxParams = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+        TemplateStats(SqlFingerprint fingerprint, SqlLogParser.SqlType sqlType) {
+            this.fingerprint = fingerprint;
+            this.sqlType = sqlType;
+        }
+
+        void record(long timestamp, int paramCount) {
+            count.increment();
+            firstSeen.accumulate(timestamp);
+            lastSeen.accumulate(timestamp);
+            minParams.accumulate(paramCount);
+            maxParams.accumulate(paramCount);
+        }
+
+        public SqlFingerprint getFingerprint() {
+            return fingerprint;
+        }
+
+        public SqlLogParser.SqlType getSqlType() {
+            return sqlType;
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getFirstSeen() {
+            return firstSeen.get();
+        }
+
+        public long getLastSeen() {
+            return lastSeen.get();
+        }
+
+        public long getMinParams() {
+            return minParams.get();
+        }
+
+        public long getMaxParams() {
+            return maxParams.get();
+        }
+    }
+}
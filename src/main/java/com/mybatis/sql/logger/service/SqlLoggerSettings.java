@@ -0,0 +1,91 @@
+package com.mybatis.sql.logger.service;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.mybatis.sql.logger.parser.CorrelationKeyExtractor;
+import com.mybatis.sql.logger.parser.SqlLogParser;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 插件全局配置（应用级别，持久化到 mybatisSqlLogger.xml）
+ */
+@Service(Service.Level.APP)
+@State(name = "MyBatisSqlLoggerSettings", storages = @Storage("mybatisSqlLogger.xml"))
+public final class SqlLoggerSettings implements PersistentStateComponent<SqlLoggerSettings.State> {
+
+    private State state = new State();
+
+    public static SqlLoggerSettings getInstance() {
+        return ApplicationManager.getApplication().getService(SqlLoggerSettings.class);
+    }
+
+    @Override
+    public @NotNull State getState() {
+        return state;
+    }
+
+    @Override
+    public void loadState(@NotNull State state) {
+        this.state = state;
+    }
+
+    /**
+     * 日志行队列满时的处理策略
+     */
+    public enum OverflowPolicy {
+        BLOCK,          // 阻塞输出线程，直到队列有空位
+        DROP_OLDEST,    // 丢弃最旧的行
+        DROP_NEWEST     // 丢弃新到达的行
+    }
+
+    /**
+     * 持久化状态（字段需为 public 以便序列化）
+     */
+    public static class State {
+        // 日志行队列容量
+        public int ingestionQueueCapacity = 65536;
+        // 队列满时的处理策略
+        public OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+        // 单行最大长度（字符），超长的行被丢弃
+        public int maxLineLength = 4 * 1024 * 1024;
+        // Preparing / Parameters 配对方式
+        public CorrelationKeyExtractor.Mode correlationMode = CorrelationKeyExtractor.Mode.AUTO;
+        // 自定义关联正则（PATTERN 模式下使用第一个捕获组）
+        public String correlationPattern = "";
+        // 最多保留的待配对语句数
+        public int maxPendingStatements = SqlLogParser.DEFAULT_MAX_PENDING;
+        // 待配对语句超时时间（秒）
+        public int pendingTtlSeconds = (int) (SqlLogParser.DEFAULT_PENDING_TTL_MILLIS / 1000);
+        // 绑定参数后等待 Total/Updates 行的最长时间（毫秒），超时后不带行数和耗时输出
+        public int completionWaitMillis = (int) SqlLogParser.DEFAULT_COMPLETION_WAIT_MILLIS;
+        // SQL 事件存储容量（条）
+        public int eventStoreCapacity = 100_000;
+        // 耗时超过该值（毫秒）的 SQL 高亮显示
+        public int slowSqlThresholdMillis = 1000;
+        // 返回或影响行数超过该值的 SQL 高亮显示
+        public int largeResultThresholdRows = 1000;
+        // 是否检测 N+1 查询
+        public boolean nPlusOneEnabled = true;
+        // 同一语句在时间窗口内重复执行多少次视为 N+1
+        public int nPlusOneThreshold = 10;
+        // N+1 检测的时间窗口（毫秒）
+        public int nPlusOneWindowMillis = 1000;
+        // 是否把每次运行捕获的 SQL 写入会话日志（项目系统目录下）
+        public boolean sessionLogEnabled = false;
+        // 会话日志单个段文件的大小（MB）
+        public int sessionLogSegmentMegabytes = 8;
+        // 所有会话日志的总大小上限（MB）
+        public int sessionLogMaxMegabytes = 512;
+        // 会话日志保留天数
+        public int sessionLogMaxAgeDays = 7;
+        // 本地日志端口（TCP，只监听 127.0.0.1），接收外部服务 socket appender 发送的日志
+        public int socketIngestPort = 4560;
+        // 入库前的过滤规则（语法见 SqlFilter）
+        public String filterRules = "exclude fingerprint:select ?\n"
+                + "exclude fingerprint:select ? from dual\n"
+                + "exclude table:qrtz_*\n";
+    }
+}
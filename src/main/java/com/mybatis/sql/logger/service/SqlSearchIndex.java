@@ -0,0 +1,377 @@
+package com.mybatis.sql.logger.service;
+
+import com.mybatis.sql.logger.parser.SqlFormatter;
+import com.mybatis.sql.logger.parser.SqlLogParser;
+import com.mybatis.sql.logger.parser.SqlTemplateTerms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SQL 倒排索引
+ * 随每条 SQL 入库增量维护：词项（操作类型、表名、列名、Mapper 方法、参数值）-> 事件序号的有序倒排表。
+ * 查询由若干以空格分隔的条件组成，条件之间为“与”关系：
+ * <ul>
+ *     <li>type:update、table:order_item、column:user_id、mapper:selectById、param:10482 只匹配对应字段</li>
+ *     <li>不带字段名的条件匹配任意字段</li>
+ *     <li>以 * 结尾表示前缀匹配，例如 table:order*（需要遍历词典，比精确匹配慢）</li>
+ * </ul>
+ * 序号只增不减，倒排表只需在尾部追加（调用方须按序号顺序调用 record）；已被事件存储覆盖的序号在查询时跳过，并定期批量清理。
+ * 词项在入库方持有锁之前提取（termsOf），record 只做追加；查询不获取入库方的锁，
+ * 直接遍历并发词典，每个倒排表只在复制时短暂加锁，长时间的前缀查询不会阻塞入库
+ */
+public class SqlSearchIndex {
+
+    /**
+     * 可检索的字段
+     */
+    public enum Field {
+        TYPE("type"),
+        TABLE("table"),
+        COLUMN("column"),
+        MAPPER("mapper"),
+        PARAM("param");
+
+        private final String prefix;
+
+        Field(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+    }
+
+    private static final Field[] FIELDS = Field.values();
+    // 参数值超过该长度时不建索引（大段文本、JSON 等）
+    private static final int MAX_VALUE_LENGTH = 64;
+    private static final long[] EMPTY = new long[0];
+
+    private final int retainedEvents;
+    private final Map<String, Postings> postings = new ConcurrentHashMap<>();
+    private long recordedSinceCompaction = 0;
+    // 每次索引内容变化时递增（在锁内写），UI 据此判断是否需要重新检索而不必争用锁
+    private volatile long version = 0;
+
+    /**
+     * @param retainedEvents 事件存储的容量，超出该范围的序号会在清理时丢弃
+     */
+    public SqlSearchIndex(int retainedEvents) {
+        this.retainedEvents = Math.max(retainedEvents, 1);
+    }
+
+    /**
+     * 提取一条 SQL 的所有词项（不访问索引，可以在任意线程、不持有锁时调用）
+     */
+    public static List<String> termsOf(SqlLogParser.ParsedSql parsedSql) {
+        List<String> keys = new ArrayList<>();
+        addTerm(keys, Field.TYPE, parsedSql.getSqlType().name().toLowerCase(Locale.ROOT));
+        addTerm(keys, Field.TYPE, verb(parsedSql.getSqlType()));
+
+        SqlTemplateTerms terms = SqlTemplateTerms.of(parsedSql.getOriginalSql());
+        for (String table : terms.getTables()) {
+            addTerm(keys, Field.TABLE, table);
+        }
+        for (String column : terms.getColumns()) {
+            addTerm(keys, Field.COLUMN, column);
+        }
+
+        String statementId = parsedSql.getStatementId();
+        if (statementId != null) {
+            String lower = statementId.toLowerCase(Locale.ROOT);
+            addTerm(keys, Field.MAPPER, lower);
+            // 每一段都可以单独检索，例如 ordermapper、selectbyid
+            for (String segment : lower.split("\\.")) {
+                addTerm(keys, Field.MAPPER, segment);
+            }
+        }
+
+        List<Object> parameters = parsedSql.getParameters();
+        if (parameters != null) {
+            for (Object parameter : parameters) {
+                addTerm(keys, Field.PARAM, parameterText(parameter));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * 为一条 SQL 建立索引：把序号追加到 termsOf 提取的各词项的倒排表
+     * 入库方之间互斥（同一时刻只有一个 record / clear），与查询并发
+     */
+    public synchronized void record(long sequence, List<String> terms) {
+        for (String key : terms) {
+            // compute 与清理时的删除对同一词项互斥，不会追加到已被删除的倒排表
+            postings.compute(key, (k, list) -> {
+                Postings target = list != null ? list : new Postings();
+                target.add(sequence);
+                return target;
+            });
+        }
+
+        version++;
+        if (++recordedSinceCompaction >= retainedEvents) {
+            recordedSinceCompaction = 0;
+            compact(sequence - retainedEvents + 1);
+        }
+    }
+
+    /**
+     * 执行查询
+     *
+     * @param query          查询语句
+     * @param oldestSequence 事件存储中最旧的仍保留事件的序号，更早的序号不会出现在结果中
+     * @return 按序号升序的匹配事件；查询为空时返回 null（表示不过滤）
+     */
+    public long[] search(String query, long oldestSequence) {
+        if (query == null || query.isBlank()) {
+            return null;
+        }
+
+        long[] result = null;
+        for (String condition : query.trim().toLowerCase(Locale.ROOT).split("\\s+")) {
+            long[] matches = evaluate(condition, oldestSequence);
+            result = result == null ? matches : intersect(result, matches);
+            if (result.length == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 当前索引的词项数
+     */
+    public int getTermCount() {
+        return postings.size();
+    }
+
+    /**
+     * 索引版本：与上次检索时相同说明检索结果不会变化
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        recordedSinceCompaction = 0;
+        version++;
+    }
+
+    private long[] evaluate(String condition, long oldestSequence) {
+        Field field = null;
+        String value = condition;
+        int colon = condition.indexOf(':');
+        if (colon > 0) {
+            field = fieldOf(condition.substring(0, colon));
+            if (field != null) {
+                value = condition.substring(colon + 1);
+            }
+        }
+        value = unquote(value);
+        if (value.isEmpty() || value.equals("*")) {
+            return EMPTY;
+        }
+
+        boolean prefix = value.endsWith("*");
+        if (prefix) {
+            value = value.substring(0, value.length() - 1);
+        }
+
+        List<Postings> lists = new ArrayList<>();
+        for (Field candidate : field != null ? new Field[]{field} : FIELDS) {
+            String key = key(candidate, value);
+            if (prefix) {
+                // 前缀匹配需要遍历词典，只在查询时发生
+                for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                    if (entry.getKey().startsWith(key)) {
+                        lists.add(entry.getValue());
+                    }
+                }
+            } else {
+                Postings list = postings.get(key);
+                if (list != null) {
+                    lists.add(list);
+                }
+            }
+        }
+        return union(lists, oldestSequence);
+    }
+
+    private static void addTerm(List<String> keys, Field field, String value) {
+        if (value != null && !value.isEmpty()) {
+            keys.add(key(field, value));
+        }
+    }
+
+    /**
+     * 丢弃早于 oldestSequence 的序号，并删除已经为空的词项
+     */
+    private void compact(long oldestSequence) {
+        Iterator<String> iterator = postings.keySet().iterator();
+        while (iterator.hasNext()) {
+            postings.computeIfPresent(iterator.next(), (key, list) -> {
+                list.trim(oldestSequence);
+                return list.size() == 0 ? null : list;
+            });
+        }
+    }
+
+    private static Field fieldOf(String name) {
+        for (Field field : FIELDS) {
+            if (field.prefix.equals(name)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    private static String key(Field field, String value) {
+        return field.prefix + ':' + value;
+    }
+
+    private static String verb(SqlLogParser.SqlType sqlType) {
+        return sqlType == SqlLogParser.SqlType.QUERY ? "select" : sqlType.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2) {
+            char first = value.charAt(0);
+            char last = value.charAt(value.length() - 1);
+            if ((first == '\'' || first == '"' || first == '`') && last == first) {
+                return value.substring(1, value.length() - 1);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 参数值的检索文本（与拼接到 SQL 中的取值一致，去掉引号）；过长时返回 null
+     */
+    private static String parameterText(Object parameter) {
+        if (parameter == null) {
+            return null;
+        }
+        String value = parameter instanceof String ? (String) parameter : unquote(SqlFormatter.getParameterValue(parameter));
+        if (value.isEmpty() || value.length() > MAX_VALUE_LENGTH) {
+            return null;
+        }
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 合并多个倒排表（去重，只保留不早于 oldestSequence 的序号）
+     */
+    private static long[] union(List<Postings> lists, long oldestSequence) {
+        if (lists.isEmpty()) {
+            return EMPTY;
+        }
+        if (lists.size() == 1) {
+            return lists.get(0).toArray(oldestSequence);
+        }
+
+        // 先复制再求总长：查询期间倒排表仍在追加
+        long[][] copies = new long[lists.size()][];
+        int total = 0;
+        for (int i = 0; i < copies.length; i++) {
+            copies[i] = lists.get(i).toArray(oldestSequence);
+            total += copies[i].length;
+        }
+        long[] merged = new long[total];
+        int length = 0;
+        for (long[] values : copies) {
+            System.arraycopy(values, 0, merged, length, values.length);
+            length += values.length;
+        }
+        Arrays.sort(merged, 0, length);
+
+        int unique = 0;
+        for (int i = 0; i < length; i++) {
+            if (unique == 0 || merged[i] != merged[unique - 1]) {
+                merged[unique++] = merged[i];
+            }
+        }
+        return Arrays.copyOf(merged, unique);
+    }
+
+    /**
+     * 求两个有序序号数组的交集：遍历较短的数组，在较长的数组中二分查找
+     */
+    private static long[] intersect(long[] a, long[] b) {
+        long[] small = a.length <= b.length ? a : b;
+        long[] large = small == a ? b : a;
+        long[] result = new long[small.length];
+        int length = 0;
+        int from = 0;
+        for (long value : small) {
+            int index = Arrays.binarySearch(large, from, large.length, value);
+            if (index >= 0) {
+                result[length++] = value;
+                from = index + 1;
+            } else {
+                from = -index - 1;
+            }
+            if (from >= large.length) {
+                break;
+            }
+        }
+        return Arrays.copyOf(result, length);
+    }
+
+    /**
+     * 倒排表：按升序追加的事件序号，头部过期部分通过 start 偏移跳过
+     * 入库线程追加、查询线程复制，方法之间以自身为锁互斥
+     */
+    private static final class Postings {
+        private long[] sequences = new long[4];
+        private int start = 0;
+        private int end = 0;
+
+        synchronized void add(long sequence) {
+            // 同一条 SQL 中重复出现的词项只记录一次
+            if (end > start && sequences[end - 1] == sequence) {
+                return;
+            }
+            if (end == sequences.length) {
+                int live = end - start;
+                long[] grown = live * 2 > sequences.length ? new long[sequences.length * 2] : sequences;
+                System.arraycopy(sequences, start, grown, 0, live);
+                sequences = grown;
+                start = 0;
+                end = live;
+            }
+            sequences[end++] = sequence;
+        }
+
+        synchronized void trim(long oldestSequence) {
+            start = firstIndex(oldestSequence);
+            if (start == end) {
+                start = 0;
+                end = 0;
+                if (sequences.length > 4) {
+                    sequences = new long[4];
+                }
+            }
+        }
+
+        synchronized int size() {
+            return end - start;
+        }
+
+        synchronized long[] toArray(long oldestSequence) {
+            return Arrays.copyOfRange(sequences, firstIndex(oldestSequence), end);
+        }
+
+        private int firstIndex(long oldestSequence) {
+            int index = Arrays.binarySearch(sequences, start, end, oldestSequence);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+}
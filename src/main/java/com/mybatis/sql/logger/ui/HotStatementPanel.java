@@ -0,0 +1,136 @@
+package com.mybatis.sql.logger.ui;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.Alarm;
+import com.mybatis.sql.logger.parser.ElapsedTime;
+import com.mybatis.sql.logger.parser.SqlFingerprint;
+import com.mybatis.sql.logger.service.HotStatementBoard;
+import com.mybatis.sql.logger.service.SpaceSavingSketch;
+import com.mybatis.sql.logger.service.SqlConsoleService;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 热点语句排行榜面板
+ * 按所选指标展示前 N 名 SQL 指纹，数据来自 SqlConsoleService 中增量维护的草图
+ */
+public class HotStatementPanel extends JPanel implements Disposable {
+
+    private static final int REFRESH_INTERVAL_MS = 1000;
+    private static final int TOP_N = 50;
+
+    private final Project project;
+    private final LeaderboardTableModel tableModel = new LeaderboardTableModel();
+    private final ComboBox<HotStatementBoard.Metric> metricCombo = new ComboBox<>(HotStatementBoard.Metric.values());
+    private final Alarm refreshAlarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, this);
+
+    public HotStatementPanel(Project project) {
+        super(new BorderLayout());
+        this.project = project;
+
+        JBTable table = new JBTable(tableModel);
+        table.getColumnModel().getColumn(0).setMaxWidth(60);
+        table.getColumnModel().getColumn(LeaderboardTableModel.COLUMN_SQL).setPreferredWidth(600);
+
+        JPanel header = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        header.add(new JLabel("排序指标:"));
+        header.add(metricCombo);
+        metricCombo.addActionListener(e -> refresh());
+
+        add(header, BorderLayout.NORTH);
+        add(new JBScrollPane(table), BorderLayout.CENTER);
+
+        scheduleRefresh();
+    }
+
+    private void scheduleRefresh() {
+        refreshAlarm.addRequest(() -> {
+            // 面板不可见时不刷新
+            if (isShowing()) {
+                refresh();
+            }
+            scheduleRefresh();
+        }, REFRESH_INTERVAL_MS);
+    }
+
+    private void refresh() {
+        HotStatementBoard.Metric metric = (HotStatementBoard.Metric) metricCombo.getSelectedItem();
+        if (metric == null) {
+            return;
+        }
+        tableModel.setRows(metric, SqlConsoleService.getInstance(project).getHotStatementBoard().top(metric, TOP_N));
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    /**
+     * 排行榜表格模型
+     */
+    private static class LeaderboardTableModel extends AbstractTableModel {
+        private static final int COLUMN_SQL = 3;
+        private static final String[] COLUMNS = {"排名", "估计值", "最大误差", "SQL 模板"};
+
+        private List<SpaceSavingSketch.Entry<SqlFingerprint>> rows = new ArrayList<>();
+        // 总耗时以纳秒累计，展示时换算为毫秒
+        private boolean nanos;
+
+        void setRows(HotStatementBoard.Metric metric, List<SpaceSavingSketch.Entry<SqlFingerprint>> rows) {
+            this.rows = rows;
+            this.nanos = metric == HotStatementBoard.Metric.TOTAL_TIME;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            if (column == COLUMN_SQL) {
+                return String.class;
+            }
+            return column == 0 ? Long.class : Number.class;
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            SpaceSavingSketch.Entry<SqlFingerprint> row = rows.get(rowIndex);
+            switch (columnIndex) {
+                case 0:
+                    return (long) rowIndex + 1;
+                case 1:
+                    return toDisplayValue(row.getCount());
+                case 2:
+                    return toDisplayValue(row.getError());
+                case COLUMN_SQL:
+                default:
+                    return row.getLabel().getNormalizedSql();
+            }
+        }
+
+        private Number toDisplayValue(long value) {
+            return nanos ? Math.round(ElapsedTime.toMillisDouble(value) * 1000) / 1000.0 : value;
+        }
+    }
+}
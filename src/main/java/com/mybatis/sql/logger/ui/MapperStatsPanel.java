@@ -0,0 +1,166 @@
+package com.mybatis.sql.logger.ui;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.Alarm;
+import com.mybatis.sql.logger.parser.ElapsedTime;
+import com.mybatis.sql.logger.service.MapperMethodStats;
+import com.mybatis.sql.logger.service.SqlConsoleService;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Mapper 方法统计面板
+ * 按 Mapper 方法展示调用次数、总行数、总耗时、耗时分位数及占全部数据库时间的比例
+ */
+public class MapperStatsPanel extends JPanel implements Disposable {
+
+    private static final int REFRESH_INTERVAL_MS = 1000;
+
+    private final Project project;
+    private final MapperTableModel tableModel = new MapperTableModel();
+    private final JLabel summaryLabel = new JLabel();
+    private final Alarm refreshAlarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, this);
+
+    public MapperStatsPanel(Project project) {
+        super(new BorderLayout());
+        this.project = project;
+
+        JBTable table = new JBTable(tableModel);
+        table.setAutoCreateRowSorter(true);
+        table.getColumnModel().getColumn(0).setPreferredWidth(400);
+
+        add(summaryLabel, BorderLayout.NORTH);
+        add(new JBScrollPane(table), BorderLayout.CENTER);
+
+        scheduleRefresh();
+    }
+
+    private void scheduleRefresh() {
+        refreshAlarm.addRequest(() -> {
+            // 面板不可见时不刷新
+            if (isShowing()) {
+                refresh();
+            }
+            scheduleRefresh();
+        }, REFRESH_INTERVAL_MS);
+    }
+
+    private void refresh() {
+        MapperMethodStats stats = SqlConsoleService.getInstance(project).getMapperMethodStats();
+        long totalTime = stats.getTotalTimeNanos();
+
+        // 刷新时一次性计算分位数，表格绘制时只读取快照
+        List<Row> rows = new ArrayList<>();
+        for (MapperMethodStats.MethodStats method : stats.getAll()) {
+            rows.add(new Row(method, totalTime));
+        }
+        rows.sort(Comparator.comparingLong((Row row) -> row.totalTime).reversed());
+        tableModel.setRows(rows);
+
+        long overflow = stats.getOverflowCount();
+        summaryLabel.setText(" 共 " + rows.size() + " 个 Mapper 方法，总耗时 " + ElapsedTime.format(totalTime) + " ms"
+                + (overflow > 0 ? "，" + overflow + " 次执行超出跟踪上限" : ""));
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    /**
+     * 表格行快照
+     */
+    private static final class Row {
+        private final String statementId;
+        private final long calls;
+        private final long totalRows;
+        // 耗时均为纳秒，表格中换算为毫秒
+        private final long totalTime;
+        private final long[] percentiles;
+        private final double share;
+
+        private Row(MapperMethodStats.MethodStats method, long allTime) {
+            this.statementId = method.getStatementId();
+            this.calls = method.getCalls();
+            this.totalRows = method.getTotalRows();
+            this.totalTime = method.getTotalTimeNanos();
+            this.percentiles = method.getPercentiles(0.50, 0.95, 0.99);
+            this.share = allTime > 0 ? totalTime * 100.0 / allTime : 0;
+        }
+    }
+
+    /**
+     * Mapper 方法统计表格模型
+     */
+    private static class MapperTableModel extends AbstractTableModel {
+        private static final String[] COLUMNS =
+                {"Mapper 方法", "调用次数", "总行数", "总耗时 (ms)", "p50 (ms)", "p95 (ms)", "p99 (ms)", "耗时占比 (%)"};
+
+        private List<Row> rows = new ArrayList<>();
+
+        void setRows(List<Row> rows) {
+            this.rows = rows;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            if (column == 0) {
+                return String.class;
+            }
+            return column >= 3 ? Double.class : Long.class;
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            Row row = rows.get(rowIndex);
+            switch (columnIndex) {
+                case 0:
+                    return row.statementId;
+                case 1:
+                    return row.calls;
+                case 2:
+                    return row.totalRows;
+                case 3:
+                    return toDisplayMillis(row.totalTime);
+                case 4:
+                case 5:
+                case 6:
+                    long value = row.percentiles[columnIndex - 4];
+                    return value < 0 ? null : toDisplayMillis(value);
+                case 7:
+                default:
+                    return Math.round(row.share * 10) / 10.0;
+            }
+        }
+
+        /**
+         * 纳秒换算为毫秒，保留 3 位小数
+         */
+        private static double toDisplayMillis(long nanos) {
+            return Math.round(ElapsedTime.toMillisDouble(nanos) * 1000) / 1000.0;
+        }
+    }
+}
@@ -15,44 +15,108 @@ import com.intellij.openapi.editor.markup.HighlighterLayer;
 import com.intellij.openapi.editor.markup.HighlighterTargetArea;
 import com.intellij.openapi.editor.markup.RangeHighlighter;
 import com.intellij.openapi.editor.markup.TextAttributes;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
 import com.intellij.openapi.fileTypes.FileType;
 import com.intellij.openapi.fileTypes.FileTypeManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.JBSplitter;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.ui.popup.JBPopupFactory;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.ui.DocumentAdapter;
+import com.intellij.ui.SearchTextField;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.Alarm;
 import com.mybatis.sql.logger.action.ClearConsoleAction;
 import com.mybatis.sql.logger.action.CopySqlAction;
+import com.mybatis.sql.logger.action.OpenLogFileAction;
 import com.mybatis.sql.logger.action.ScrollToBottomAction;
+import com.mybatis.sql.logger.action.SocketIngestAction;
+import com.mybatis.sql.logger.action.TailLogFileAction;
 import com.mybatis.sql.logger.action.ToggleListeningAction;
+import com.mybatis.sql.logger.parser.ElapsedTime;
 import com.mybatis.sql.logger.parser.SqlFormatter;
 import com.mybatis.sql.logger.parser.SqlLogParser;
+import com.mybatis.sql.logger.parser.SqlRecordWriter;
+import com.mybatis.sql.logger.service.NPlusOneDetector;
+import com.mybatis.sql.logger.service.SessionLogManager;
 import com.mybatis.sql.logger.service.SqlConsoleService;
+import com.mybatis.sql.logger.service.SqlEventStore;
+import com.mybatis.sql.logger.service.SqlExporter;
+import com.mybatis.sql.logger.service.SqlLoggerSettings;
+import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.text.SimpleDateFormat;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * SQL Console 面板
+ * 上方是虚拟化的 SQL 条目表格（直接读取事件存储，只渲染可见行），
+ * 下方是复用的详情编辑器，只显示当前选中的一条 SQL。
+ * 检索框中的查询由倒排索引求值（语法见 SqlSearchIndex），结果直接作为表格的行。
+ * 面板的开销与可见行数相关，与已捕获的 SQL 条数无关
  */
 public class SqlConsolePanel extends JPanel implements Disposable, SqlConsoleService.SqlConsoleListener {
 
+    private static final String TITLE_TEXT = " MyBatis SQL 日志";
+
+    // 新 SQL 到达后刷新表格的合并间隔（毫秒）；刷新只涉及可见行，间隔短一些让跟踪日志文件时延迟更低
+    private static final int REFRESH_DELAY_MS = 50;
+
     private final Project project;
+    private final SqlConsoleService service;
+    // 详情编辑器：只保存当前选中的一条 SQL
     private final Editor editor;
-    private final SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private final JBTable table;
+    private final SqlEntryTableModel tableModel;
+    private final DateTimeFormatter timeFormat =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
     private final List<RangeHighlighter> highlighters = new ArrayList<>();
     private EditorSearchSession searchSession;
+    private JLabel titleLabel;
+    private SearchTextField searchField;
     private volatile boolean isAutoScroll = true;
     private volatile boolean isUpdating = false;
 
+    // 合并刷新：同一时刻最多只有一个待执行的刷新请求
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean(false);
+    private final Alarm refreshAlarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, this);
+    // 检索在后台线程执行（以下字段仅在 EDT 访问）：表格当前结果对应的条件和索引版本、
+    // 尚未应用到表格的检索结果，以及是否有检索正在进行
+    private String searchedQuery = "";
+    private long searchedIndexVersion = -1;
+    private long[] searchResult;
+    private boolean searchRunning = false;
+    // 详情编辑器当前展示的事件序号，用于丢弃过期的后台格式化结果（仅在 EDT 访问）
+    private long detailSequence = -1;
+    // 详情中展示的 N+1 告警次数，告警继续累加时重新生成详情
+    private int detailWarningCount = -1;
+    private TextAttributes alertAttributes;
+    private TextAttributes warningAttributes;
+
     public SqlConsolePanel(Project project) {
         super(new BorderLayout());
         this.project = project;
+        this.service = SqlConsoleService.getInstance(project);
 
-        // 创建编辑器
+        // 创建详情编辑器
         EditorFactory editorFactory = EditorFactory.getInstance();
         FileType sqlFileType = FileTypeManager.getInstance().getFileTypeByExtension("sql");
 
@@ -75,61 +139,74 @@ public class SqlConsolePanel extends JPanel implements Disposable, SqlConsoleSer
             settings.setUseSoftWraps(false);
         }
 
-        // 添加滚动监听器，实现智能滚动
-        editor.getScrollingModel().addVisibleAreaListener(e -> {
-            // 如果是代码触发的更新（如插入文本或自动滚动），忽略此次事件
-            if (isUpdating) {
-                return;
+        // 创建 SQL 条目表格（不排序、不过滤，行号与事件序号一一对应）
+        tableModel = new SqlEntryTableModel(service);
+        table = new JBTable(tableModel);
+        table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        table.setDefaultRenderer(Object.class, new EntryCellRenderer());
+        table.getColumnModel().getColumn(SqlEntryTableModel.COLUMN_TIME).setPreferredWidth(90);
+        table.getColumnModel().getColumn(SqlEntryTableModel.COLUMN_TYPE).setPreferredWidth(60);
+        table.getColumnModel().getColumn(SqlEntryTableModel.COLUMN_ELAPSED).setPreferredWidth(60);
+        table.getColumnModel().getColumn(SqlEntryTableModel.COLUMN_ROWS).setPreferredWidth(50);
+        table.getColumnModel().getColumn(SqlEntryTableModel.COLUMN_HINT).setPreferredWidth(40);
+        table.getColumnModel().getColumn(SqlEntryTableModel.COLUMN_STATEMENT).setPreferredWidth(220);
+        table.getColumnModel().getColumn(SqlEntryTableModel.COLUMN_SQL).setPreferredWidth(700);
+        table.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting() && !isUpdating) {
+                showSelectedDetail();
             }
+        });
+        JBScrollPane tableScrollPane = new JBScrollPane(table);
 
-            Rectangle oldRect = e.getOldRectangle();
-            Rectangle newRect = e.getNewRectangle();
-
-            // 如果没有发生垂直滚动（例如只是横向滚动），忽略
-            if (oldRect != null && newRect != null && oldRect.y == newRect.y) {
+        // 添加滚动监听器，实现智能滚动
+        JScrollBar verticalBar = tableScrollPane.getVerticalScrollBar();
+        int[] lastValue = {0};
+        verticalBar.addAdjustmentListener(e -> {
+            int oldValue = lastValue[0];
+            lastValue[0] = e.getValue();
+            // 如果是代码触发的更新（如插入行或自动滚动），忽略此次事件
+            if (isUpdating || e.getValue() == oldValue) {
                 return;
             }
 
-            Rectangle visibleArea = editor.getScrollingModel().getVisibleArea();
-            int totalHeight = editor.getContentComponent().getHeight();
-            int visibleBottom = visibleArea.y + visibleArea.height;
-
+            BoundedRangeModel model = verticalBar.getModel();
             // 允许一定的误差（放宽到 30 像素，避免误判）
-            boolean isAtBottom = (totalHeight - visibleBottom) < 30;
+            boolean isAtBottom = model.getMaximum() - (model.getValue() + model.getExtent()) < 30;
 
             if (isAtBottom) {
-                if (!isAutoScroll) {
-                    isAutoScroll = true;
-                }
-            } else {
-                // 如果不在底部，只有当用户明确"向上"滚动时，才取消自动滚动
-                // 这样可以避免插入文本导致 totalHeight 增加但视口未动（看起来像向下滚动或不动）时的误判
-                if (isAutoScroll && oldRect != null && newRect != null && newRect.y < oldRect.y) {
-                    isAutoScroll = false;
-                }
+                isAutoScroll = true;
+            } else if (e.getValue() < oldValue) {
+                // 只有当用户明确"向上"滚动时，才取消自动滚动
+                isAutoScroll = false;
             }
         });
 
         // 创建工具栏
         JPanel toolbarPanel = createToolbar();
 
-        // 直接添加编辑器组件，不使用 JScrollPane 包装
-        // 这样 EditorEx.setHeaderComponent 才能正确固定搜索框
-        
+        // 表格在上，详情编辑器在下
+        JBSplitter splitter = new JBSplitter(true, 0.6f);
+        splitter.setFirstComponent(tableScrollPane);
+        splitter.setSecondComponent(editor.getComponent());
+
         // 布局
         add(toolbarPanel, BorderLayout.NORTH);
-        add(editor.getComponent(), BorderLayout.CENTER);
-        
+        add(splitter, BorderLayout.CENTER);
+
         // 添加右键菜单
         addContextMenu();
+        addTableContextMenu();
 
         // 注册监听器
-        SqlConsoleService.getInstance(project).addListener(this);
-        
+        service.addListener(this);
+
+        // 工具窗口晚于程序运行打开时，表格直接展示事件存储中已捕获的 SQL
+        refreshTable();
+
         // 显示欢迎信息
 //        showWelcomeMessage();
     }
-    
+
     /**
      * 显示欢迎信息
      */
@@ -231,8 +308,8 @@ public class SqlConsolePanel extends JPanel implements Disposable, SqlConsoleSer
             formatSelectedItem.addActionListener(event -> formatSelectedSql());
             popupMenu.add(formatSelectedItem);
         } else {
-            // 没有选中内容 - 显示"复制所有 SQL"
-            JMenuItem copyAllItem = new JMenuItem("复制所有 SQL");
+            // 没有选中内容 - 复制整条详情（全部 SQL 请使用导出）
+            JMenuItem copyAllItem = new JMenuItem("复制详情");
             copyAllItem.setIcon(com.intellij.icons.AllIcons.Actions.Copy);
             copyAllItem.addActionListener(event -> {
                 String text = editor.getDocument().getText();
@@ -363,10 +440,10 @@ public class SqlConsolePanel extends JPanel implements Disposable, SqlConsoleSer
         
         actionGroup.addSeparator();
         
-        // 添加搜索按钮
+        // 添加搜索按钮（在详情编辑器中查找文本）
         actionGroup.add(new com.intellij.openapi.actionSystem.AnAction(
-                "搜索SQL", 
-                "在SQL日志中搜索内容", 
+                "在详情中搜索",
+                "在当前选中 SQL 的详情中搜索内容", 
                 com.intellij.icons.AllIcons.Actions.Find
         ) {
             @Override
@@ -375,6 +452,39 @@ public class SqlConsolePanel extends JPanel implements Disposable, SqlConsoleSer
             }
         });
 
+        // 添加打开历史会话按钮
+        actionGroup.add(new com.intellij.openapi.actionSystem.AnAction(
+                "打开历史会话",
+                "重新打开已保存的 SQL 会话日志",
+                com.intellij.icons.AllIcons.Actions.MenuOpen
+        ) {
+            @Override
+            public void actionPerformed(com.intellij.openapi.actionSystem.AnActionEvent e) {
+                showSessionChooser();
+            }
+        });
+
+        // 添加打开日志文件按钮
+        actionGroup.add(new OpenLogFileAction());
+
+        // 添加跟踪日志文件按钮
+        actionGroup.add(new TailLogFileAction());
+
+        // 添加监听本地日志端口按钮
+        actionGroup.add(new SocketIngestAction());
+
+        // 添加导出按钮
+        actionGroup.add(new com.intellij.openapi.actionSystem.AnAction(
+                "导出 SQL",
+                "把捕获的 SQL 导出为 SQL 脚本、JSON Lines 或 CSV 文件",
+                com.intellij.icons.AllIcons.ToolbarDecorator.Export
+        ) {
+            @Override
+            public void actionPerformed(com.intellij.openapi.actionSystem.AnActionEvent e) {
+                exportSql();
+            }
+        });
+
         // 创建工具栏（水平布局）
         ActionToolbar toolbar = ActionManager.getInstance()
                 .createActionToolbar("SqlConsoleToolbar", actionGroup, true);
@@ -384,59 +494,428 @@ public class SqlConsolePanel extends JPanel implements Disposable, SqlConsoleSer
         toolbarPanel.add(toolbar.getComponent(), BorderLayout.WEST);
         
         // 添加标题标签
-        JLabel titleLabel = new JLabel(" MyBatis SQL 日志");
+        titleLabel = new JLabel(TITLE_TEXT);
         titleLabel.setFont(titleLabel.getFont().deriveFont(Font.BOLD));
         toolbarPanel.add(titleLabel, BorderLayout.CENTER);
 
+        // 添加检索框：按表名、列名、Mapper 方法、操作类型和参数值过滤表格
+        searchField = new SearchTextField(false);
+        searchField.getTextEditor().setToolTipText(
+                "按条件过滤 SQL（空格分隔，条件同时满足）：type:update table:order_item column:user_id mapper:selectById param:10482，"
+                        + "不带字段名时匹配任意字段，以 * 结尾表示前缀匹配");
+        searchField.addDocumentListener(new DocumentAdapter() {
+            @Override
+            protected void textChanged(DocumentEvent e) {
+                scheduleRefresh();
+            }
+        });
+        toolbarPanel.add(searchField, BorderLayout.EAST);
+
         return toolbarPanel;
     }
 
     /**
-     * 追加 SQL 到编辑器末尾
+     * 列出已保存的会话，选中后在后台回放到控制台
      */
-    private void appendSqlToEditor(SqlLogParser.ParsedSql parsedSql) {
-        ApplicationManager.getApplication().invokeLater(() -> {
-            WriteCommandAction.runWriteCommandAction(project, () -> {
-                isUpdating = true;
+    private void showSessionChooser() {
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            List<SessionLogManager.SessionInfo> sessions = service.getSessionLogManager().listSessions();
+            ApplicationManager.getApplication().invokeLater(() -> {
+                if (sessions.isEmpty()) {
+                    Messages.showInfoMessage(project,
+                            "没有已保存的 SQL 会话。可在 Settings → Tools → MyBatis SQL Logger 中开启会话日志。",
+                            "打开历史会话");
+                    return;
+                }
+                JBPopupFactory.getInstance()
+                        .createPopupChooserBuilder(sessions)
+                        .setTitle("打开历史会话")
+                        .setItemChosenCallback(this::replaySession)
+                        .createPopup()
+                        .showInCenterOf(this);
+            });
+        });
+    }
+
+    private void replaySession(SessionLogManager.SessionInfo session) {
+        new Task.Backgroundable(project, "打开 SQL 会话: " + session.getName(), false) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
                 try {
-                    String timestamp = timeFormat.format(new Date());
-                    String operation = parsedSql.getOperation();
-                    String border = "═".repeat(59);  // 统一使用双线框
-
-                    int startOffset = editor.getDocument().getTextLength();
-
-                    // 构建 SQL 块内容
-                    StringBuilder sqlBlock = new StringBuilder();
-                    // 顶部边框
-                    sqlBlock.append(border).append("\n");
-                    // 标题行
-                    sqlBlock.append(operation).append(" [").append(timestamp).append("]\n");
-                    // 分隔线
-                    sqlBlock.append("─".repeat(59)).append("\n");
-                    // SQL 内容
-                    sqlBlock.append(parsedSql.getFormattedSql()).append("\n");
-                    // 底部边框
-                    sqlBlock.append(border).append("\n\n");
-
-                    // 追加到文档末尾
-                    editor.getDocument().insertString(startOffset, sqlBlock.toString());
-
-                    int endOffset = editor.getDocument().getTextLength();
-
-                    // 添加颜色高亮
-                    addColorHighlightForRange(startOffset, endOffset, parsedSql.getSqlType());
-
-                    // 只有在自动滚动开启时才滚动到底部
-                    if (isAutoScroll) {
-                        doScrollToBottom();
-                    }
-                } finally {
-                    isUpdating = false;
+                    service.replaySession(session);
+                } catch (IOException e) {
+                    ApplicationManager.getApplication().invokeLater(() -> Messages.showErrorDialog(project,
+                            "读取会话日志失败: " + e.getMessage(), "打开历史会话"));
                 }
+            }
+        }.queue();
+    }
+
+    /**
+     * 导出 SQL：选择格式、范围和检索条件后在后台流式写入文件
+     */
+    private void exportSql() {
+        int[] rows = table.getSelectedRows();
+        SqlExportDialog dialog = new SqlExportDialog(project, searchField.getText().trim(), rows.length);
+        if (!dialog.showAndGet()) {
+            return;
+        }
+        SqlRecordWriter.Format format = dialog.getFormat();
+        String query = dialog.getQuery();
+        long[] selected = null;
+        if (dialog.isSelectedOnly()) {
+            // 选中行按行号升序，对应的事件序号也是升序
+            selected = new long[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                selected[i] = tableModel.sequenceAt(rows[i]);
+            }
+        }
+
+        FileSaverDescriptor descriptor = new FileSaverDescriptor("导出 SQL", "选择导出文件", format.getExtension());
+        VirtualFileWrapper target = FileChooserFactory.getInstance()
+                .createSaveFileDialog(descriptor, project)
+                .save((VirtualFile) null, "mybatis-sql." + format.getExtension());
+        if (target == null) {
+            return;
+        }
+        Path file = target.getFile().toPath();
+        long[] selectedSequences = selected;
+
+        new Task.Backgroundable(project, "导出 SQL", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setIndeterminate(false);
+                long[] sequences = selectedSequences != null ? selectedSequences
+                        : query.isEmpty() ? null : service.searchSql(query);
+                try {
+                    long count = SqlExporter.export(service.getEventStore(), sequences, format, file,
+                            (exported, total) -> {
+                                indicator.checkCanceled();
+                                indicator.setFraction(total == 0 ? 1.0 : (double) exported / total);
+                            });
+                    ApplicationManager.getApplication().invokeLater(() -> Messages.showInfoMessage(project,
+                            "已导出 " + count + " 条 SQL 到 " + file, "导出 SQL"));
+                } catch (IOException e) {
+                    ApplicationManager.getApplication().invokeLater(() -> Messages.showErrorDialog(project,
+                            "导出 SQL 失败: " + e.getMessage(), "导出 SQL"));
+                }
+            }
+        }.queue();
+    }
+
+    /**
+     * 为表格添加右键菜单
+     */
+    private void addTableContextMenu() {
+        table.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if (e.isPopupTrigger()) {
+                    showTableContextMenu(e);
+                }
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                if (e.isPopupTrigger()) {
+                    showTableContextMenu(e);
+                }
+            }
+        });
+    }
+
+    /**
+     * 显示表格右键菜单
+     */
+    private void showTableContextMenu(MouseEvent e) {
+        int row = table.rowAtPoint(e.getPoint());
+        if (row >= 0 && !table.isRowSelected(row)) {
+            table.setRowSelectionInterval(row, row);
+        }
+
+        JPopupMenu popupMenu = new JPopupMenu();
+
+        JMenuItem copyItem = new JMenuItem("复制选中的 SQL");
+        copyItem.setIcon(com.intellij.icons.AllIcons.Actions.Copy);
+        copyItem.setEnabled(table.getSelectedRowCount() > 0);
+        copyItem.addActionListener(event -> copySelectedRows());
+        popupMenu.add(copyItem);
+
+        JMenuItem exportItem = new JMenuItem("导出 SQL...");
+        exportItem.setIcon(com.intellij.icons.AllIcons.ToolbarDecorator.Export);
+        exportItem.addActionListener(event -> exportSql());
+        popupMenu.add(exportItem);
+
+        popupMenu.addSeparator();
+
+        JMenuItem clearItem = new JMenuItem("清除所有 SQL");
+        clearItem.setIcon(com.intellij.icons.AllIcons.Actions.GC);
+        clearItem.addActionListener(event -> clear());
+        popupMenu.add(clearItem);
+
+        popupMenu.show(e.getComponent(), e.getX(), e.getY());
+    }
+
+    /**
+     * 复制选中行的完整 SQL（参数已替换），每条以分号结尾
+     */
+    private void copySelectedRows() {
+        StringBuilder text = new StringBuilder();
+        for (int row : table.getSelectedRows()) {
+            SqlEventStore.SqlEvent event = tableModel.getEvent(row);
+            if (event != null) {
+                text.append(event.toParsedSql().getCompleteSql()).append(";\n");
+            }
+        }
+        if (text.length() > 0) {
+            java.awt.datatransfer.StringSelection selection = new java.awt.datatransfer.StringSelection(text.toString());
+            java.awt.Toolkit.getDefaultToolkit().getSystemClipboard().setContents(selection, null);
+        }
+    }
+
+    /**
+     * 调度一次表格刷新（合并短时间内到达的多条 SQL）
+     */
+    private void scheduleRefresh() {
+        if (refreshScheduled.compareAndSet(false, true)) {
+            refreshAlarm.addRequest(() -> {
+                refreshScheduled.set(false);
+                refreshTable();
+            }, REFRESH_DELAY_MS);
+        }
+    }
+
+    /**
+     * 与事件存储同步表格（必须在 EDT 中调用）
+     * 旧事件被覆盖导致行号平移时，按事件序号恢复选中行
+     */
+    private void refreshTable() {
+        isUpdating = true;
+        try {
+            int selectedRow = table.getSelectedRow();
+            SqlEventStore.SqlEvent selected = selectedRow >= 0 ? tableModel.getEvent(selectedRow) : null;
+
+            // 检索结果直接作为表格的行；检索本身在后台线程进行，完成后再次刷新时应用
+            String searchQuery = searchField.getText().trim();
+            boolean shifted;
+            if (searchQuery.isEmpty()) {
+                searchedQuery = "";
+                searchResult = null;
+                shifted = tableModel.setFilter(null);
+            } else {
+                if (searchResult != null) {
+                    shifted = tableModel.setFilter(searchResult);
+                    searchResult = null;
+                } else {
+                    shifted = tableModel.refresh();
+                }
+                searchIfChanged(searchQuery);
+            }
+            if (shifted && selected != null) {
+                int row = tableModel.rowOf(selected.getSequence());
+                if (row >= 0) {
+                    table.setRowSelectionInterval(row, row);
+                }
+            }
+
+            // 只有在自动滚动开启时才滚动到底部
+            if (isAutoScroll) {
+                doScrollToBottom();
+            }
+
+            updateTitle();
+        } finally {
+            isUpdating = false;
+        }
+        // 选中行的 N+1 告警次数可能已增加
+        showSelectedDetail();
+    }
+
+    /**
+     * 检索条件或索引有变化时在后台线程重新检索（必须在 EDT 中调用）
+     * 同一时刻只有一个检索在进行，期间的变化在它完成后的刷新中处理
+     */
+    private void searchIfChanged(String query) {
+        long indexVersion = service.getSearchIndexVersion();
+        if (searchRunning || (query.equals(searchedQuery) && indexVersion == searchedIndexVersion)) {
+            return;
+        }
+        searchRunning = true;
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            long[] result = service.searchSql(query);
+            ApplicationManager.getApplication().invokeLater(() -> {
+                searchRunning = false;
+                if (editor.isDisposed()) {
+                    return;
+                }
+                // 期间检索条件已变化，丢弃本次结果
+                if (query.equals(searchField.getText().trim())) {
+                    searchedQuery = query;
+                    searchedIndexVersion = indexVersion;
+                    searchResult = result;
+                }
+                scheduleRefresh();
             });
         });
     }
 
+    /**
+     * 在详情编辑器中显示选中的 SQL（格式化在后台线程进行）
+     */
+    private void showSelectedDetail() {
+        SqlEventStore.SqlEvent event = tableModel.getEvent(table.getSelectedRow());
+        if (event == null) {
+            return;
+        }
+        long sequence = event.getSequence();
+        NPlusOneDetector.NPlusOneWarning warning = service.getNPlusOneWarning(sequence);
+        int warningCount = warning != null ? warning.getCount() : -1;
+        if (sequence == detailSequence && warningCount == detailWarningCount) {
+            return;
+        }
+        detailSequence = sequence;
+        detailWarningCount = warningCount;
+
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            DetailText detail = buildDetailText(event, warning);
+            ApplicationManager.getApplication().invokeLater(() -> {
+                // 期间又选中了其他行，丢弃本次结果
+                if (detailSequence != sequence || editor.isDisposed()) {
+                    return;
+                }
+                WriteCommandAction.runWriteCommandAction(project, () -> {
+                    editor.getDocument().setText(detail.text);
+                    clearDetailHighlighters();
+                    if (detail.alertStart >= 0) {
+                        highlighters.add(editor.getMarkupModel().addRangeHighlighter(
+                                detail.alertStart, detail.alertEnd,
+                                HighlighterLayer.SYNTAX + 1,
+                                getAlertAttributes(),
+                                HighlighterTargetArea.EXACT_RANGE));
+                    }
+                    if (detail.warningStart >= 0) {
+                        highlighters.add(editor.getMarkupModel().addRangeHighlighter(
+                                detail.warningStart, detail.warningEnd,
+                                HighlighterLayer.SYNTAX + 1,
+                                getWarningAttributes(),
+                                HighlighterTargetArea.EXACT_RANGE));
+                    }
+                    editor.getCaretModel().moveToOffset(0);
+                    editor.getScrollingModel().scrollToCaret(com.intellij.openapi.editor.ScrollType.MAKE_VISIBLE);
+                });
+            });
+        });
+    }
+
+    /**
+     * 构建详情文本：以 SQL 注释形式给出时间、线程、Mapper 方法、耗时和行数，N+1 告警，随后是格式化后的 SQL
+     */
+    private DetailText buildDetailText(SqlEventStore.SqlEvent event, NPlusOneDetector.NPlusOneWarning warning) {
+        SqlLogParser.ParsedSql parsedSql = event.toParsedSql();
+        StringBuilder text = new StringBuilder();
+        text.append("-- ").append(parsedSql.getOperation())
+                .append(" [").append(timeFormat.format(Instant.ofEpochMilli(event.getTimestamp()))).append("]\n");
+        if (event.getThreadName() != null && !event.getThreadName().isEmpty()) {
+            text.append("-- 线程: ").append(event.getThreadName()).append("\n");
+        }
+        if (event.getStatementId() != null) {
+            text.append("-- Mapper 方法: ").append(event.getStatementId()).append("\n");
+        }
+
+        int alertStart = -1;
+        int alertEnd = -1;
+        String stats = buildStatsText(parsedSql);
+        if (!stats.isEmpty()) {
+            text.append("-- ");
+            if (exceedsThreshold(parsedSql)) {
+                alertStart = text.length();
+                alertEnd = alertStart + stats.length();
+            }
+            text.append(stats).append("\n");
+        }
+
+        int warningStart = -1;
+        int warningEnd = -1;
+        if (warning != null) {
+            warningStart = text.length();
+            appendNPlusOneWarning(text, warning);
+            warningEnd = text.length() - 1;
+        }
+
+        text.append("\n").append(parsedSql.getFormattedSql()).append("\n");
+        return new DetailText(text.toString(), alertStart, alertEnd, warningStart, warningEnd);
+    }
+
+    /**
+     * 构建行数和耗时说明，例如“耗时 12 ms · 返回 35 行”；都未知时返回空串
+     */
+    private static String buildStatsText(SqlLogParser.ParsedSql parsedSql) {
+        StringBuilder stats = new StringBuilder();
+        if (parsedSql.getElapsedNanos() >= 0) {
+            stats.append("耗时 ").append(ElapsedTime.format(parsedSql.getElapsedNanos())).append(" ms");
+        }
+        if (parsedSql.getRowCount() >= 0) {
+            if (stats.length() > 0) {
+                stats.append(" · ");
+            }
+            stats.append(parsedSql.getSqlType() == SqlLogParser.SqlType.QUERY ? "返回 " : "影响 ")
+                    .append(parsedSql.getRowCount()).append(" 行");
+        }
+        return stats.toString();
+    }
+
+    /**
+     * 判断耗时或行数是否超过配置的阈值
+     */
+    private static boolean exceedsThreshold(SqlLogParser.ParsedSql parsedSql) {
+        return isSlow(parsedSql.getElapsedMillis()) || isLargeResult(parsedSql.getRowCount());
+    }
+
+    private static boolean isSlow(long elapsedMillis) {
+        return elapsedMillis >= SqlLoggerSettings.getInstance().getState().slowSqlThresholdMillis;
+    }
+
+    private static boolean isLargeResult(long rowCount) {
+        return rowCount >= SqlLoggerSettings.getInstance().getState().largeResultThresholdRows;
+    }
+
+    /**
+     * 追加 N+1 告警说明：整个窗口内的重复执行合并为一条，给出次数、变化的参数和样例取值
+     */
+    private static void appendNPlusOneWarning(StringBuilder text, NPlusOneDetector.NPlusOneWarning warning) {
+        text.append("-- ⚠ N+1 查询: 同一语句在 ").append(warning.getWindowMillis()).append(" ms 内以不同参数执行了 ")
+                .append(warning.getCount()).append(" 次");
+        if (warning.getVaryingParameterIndex() >= 0) {
+            text.append("，第 ").append(warning.getVaryingParameterIndex() + 1).append(" 个参数每次不同");
+        }
+        text.append("\n");
+        if (!warning.getSampleValues().isEmpty()) {
+            text.append("--   参数样例: ");
+            for (int i = 0; i < warning.getSampleValues().size(); i++) {
+                if (i > 0) {
+                    text.append(", ");
+                }
+                text.append(SqlFormatter.getParameterValue(warning.getSampleValues().get(i)));
+            }
+            text.append(" ...\n");
+        }
+    }
+
+    /**
+     * 更新标题，显示条数、被过滤的 SQL 数和因队列溢出而丢弃的日志行数
+     */
+    private void updateTitle() {
+        long dropped = service.getDroppedLineCount();
+        long filtered = service.getFilteredSqlCount();
+        String title = TITLE_TEXT + (tableModel.isFiltered()
+                ? "（匹配 " + tableModel.getRowCount() + " 条）"
+                : "（" + tableModel.getRowCount() + " 条）");
+        if (filtered > 0) {
+            title += "（已过滤 " + filtered + " 条）";
+        }
+        titleLabel.setText(dropped > 0 ? title + "（已丢弃 " + dropped + " 行日志）" : title);
+    }
+
     /**
      * 根据 SQL 类型获取颜色
      */
@@ -456,45 +935,34 @@ public class SqlConsolePanel extends JPanel implements Disposable, SqlConsoleSer
     }
 
     /**
-     * 为指定范围添加颜色高亮
+     * 获取慢 SQL / 大结果集说明的高亮属性
      */
-    private void addColorHighlightForRange(int startOffset, int endOffset, SqlLogParser.SqlType sqlType) {
-        if (startOffset >= editor.getDocument().getTextLength()) {
-            return;
+    private TextAttributes getAlertAttributes() {
+        if (alertAttributes == null) {
+            alertAttributes = new TextAttributes();
+            alertAttributes.setForegroundColor(new Color(255, 69, 0));  // 超出阈值 - 橙红色
+            alertAttributes.setFontType(Font.BOLD);
         }
-        
-        Color color = getColorByType(sqlType);
-        TextAttributes attributes = new TextAttributes();
-        attributes.setForegroundColor(color);
-        
-        // 只给边框和标题添加颜色
-        String text = editor.getDocument().getText();
-        int currentPos = startOffset;
-        
-        // 找到每一行的边框和标题
-        String[] lines = text.substring(startOffset, 
-                Math.min(endOffset, editor.getDocument().getTextLength())).split("\n");
-        
-        for (int i = 0; i < lines.length && currentPos < editor.getDocument().getTextLength(); i++) {
-            String line = lines[i];
-            int lineStart = currentPos;
-            int lineEnd = Math.min(currentPos + line.length(), editor.getDocument().getTextLength());
-            
-            // 第一行（顶部边框）、第二行（标题）、第三行（分隔线）和最后一行（底部边框）需要颜色
-            if (i == 0 || i == 1 || i == 2 || line.startsWith("═")) {
-                if (lineStart < lineEnd) {
-                    RangeHighlighter highlighter = editor.getMarkupModel().addRangeHighlighter(
-                            lineStart, lineEnd,
-                            HighlighterLayer.SYNTAX,
-                            attributes,
-                            HighlighterTargetArea.EXACT_RANGE
-                    );
-                    highlighters.add(highlighter);
-                }
-            }
-            
-            currentPos = lineEnd + 1; // +1 为换行符
+        return alertAttributes;
+    }
+
+    /**
+     * 获取 N+1 告警的高亮属性
+     */
+    private TextAttributes getWarningAttributes() {
+        if (warningAttributes == null) {
+            warningAttributes = new TextAttributes();
+            warningAttributes.setForegroundColor(new Color(255, 140, 0));  // 告警 - 深橙色
+            warningAttributes.setFontType(Font.BOLD);
         }
+        return warningAttributes;
+    }
+
+    private void clearDetailHighlighters() {
+        for (RangeHighlighter highlighter : highlighters) {
+            editor.getMarkupModel().removeHighlighter(highlighter);
+        }
+        highlighters.clear();
     }
 
     /**
@@ -503,21 +971,17 @@ public class SqlConsolePanel extends JPanel implements Disposable, SqlConsoleSer
     public void clear() {
         ApplicationManager.getApplication().invokeLater(() -> {
             WriteCommandAction.runWriteCommandAction(project, () -> {
-                // 清空编辑器内容
+                // 清空详情编辑器
                 editor.getDocument().setText("");
-                
-                // 清除所有高亮
-                for (RangeHighlighter highlighter : highlighters) {
-                    editor.getMarkupModel().removeHighlighter(highlighter);
-                }
-                highlighters.clear();
+                clearDetailHighlighters();
+                detailSequence = -1;
             });
         });
-        
-        // 清空 Service 中的记录
-        SqlConsoleService.getInstance(project).clearSql();
+
+        // 清空 Service 中的记录，表格在 onSqlCleared 中刷新
+        service.clearSql();
     }
-    
+
     /**
      * 获取自动滚动状态
      */
@@ -563,24 +1027,26 @@ public class SqlConsolePanel extends JPanel implements Disposable, SqlConsoleSer
      * 必须在 EDT 中调用
      */
     private void doScrollToBottom() {
-        int textLength = editor.getDocument().getTextLength();
-        if (textLength > 0) {
-            // 移动光标到末尾
-            editor.getCaretModel().moveToOffset(textLength);
-            // 滚动编辑器使光标可见
-            editor.getScrollingModel().scrollToCaret(com.intellij.openapi.editor.ScrollType.MAKE_VISIBLE);
+        int rowCount = table.getRowCount();
+        if (rowCount > 0) {
+            table.scrollRectToVisible(table.getCellRect(rowCount - 1, 0, true));
         }
     }
 
     @Override
     public void onSqlAdded(SqlLogParser.ParsedSql parsedSql) {
-        // 直接追加到编辑器，不覆盖用户的编辑
-        appendSqlToEditor(parsedSql);
+        // 只登记一次刷新，表格直接从事件存储读取
+        scheduleRefresh();
+    }
+
+    @Override
+    public void onNPlusOneDetected(NPlusOneDetector.NPlusOneWarning warning) {
+        scheduleRefresh();
     }
 
     @Override
     public void onSqlCleared() {
-        // Service 被清空时，不做任何操作（保留用户编辑的内容）
+        scheduleRefresh();
     }
 
     /**
@@ -625,10 +1091,77 @@ public class SqlConsolePanel extends JPanel implements Disposable, SqlConsoleSer
         }
     }
 
+
     @Override
     public void dispose() {
         closeSearchPanel();
-        SqlConsoleService.getInstance(project).removeListener(this);
+        service.removeListener(this);
         EditorFactory.getInstance().releaseEditor(editor);
     }
+
+    /**
+     * 详情文本及需要高亮的范围
+     */
+    private static final class DetailText {
+        private final String text;
+        // 超出阈值的行数/耗时说明，没有时为 -1
+        private final int alertStart;
+        private final int alertEnd;
+        // N+1 告警说明，没有时为 -1
+        private final int warningStart;
+        private final int warningEnd;
+
+        private DetailText(String text, int alertStart, int alertEnd, int warningStart, int warningEnd) {
+            this.text = text;
+            this.alertStart = alertStart;
+            this.alertEnd = alertEnd;
+            this.warningStart = warningStart;
+            this.warningEnd = warningEnd;
+        }
+    }
+
+    /**
+     * 表格单元格渲染器：类型列按 SQL 类型着色，超出阈值的耗时/行数和 N+1 提示高亮
+     */
+    private final class EntryCellRenderer extends DefaultTableCellRenderer {
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                       boolean hasFocus, int row, int column) {
+            Component component = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            if (isSelected) {
+                return component;
+            }
+
+            component.setFont(table.getFont());
+            component.setForeground(table.getForeground());
+            SqlEventStore.SqlEvent event = tableModel.getEvent(row);
+            if (event == null) {
+                return component;
+            }
+            switch (column) {
+                case SqlEntryTableModel.COLUMN_TYPE:
+                    component.setForeground(getColorByType(event.getSqlType()));
+                    break;
+                case SqlEntryTableModel.COLUMN_ELAPSED:
+                    if (isSlow(event.getElapsedMillis())) {
+                        component.setForeground(getAlertAttributes().getForegroundColor());
+                        component.setFont(table.getFont().deriveFont(Font.BOLD));
+                    }
+                    break;
+                case SqlEntryTableModel.COLUMN_ROWS:
+                    if (isLargeResult(event.getRowCount())) {
+                        component.setForeground(getAlertAttributes().getForegroundColor());
+                        component.setFont(table.getFont().deriveFont(Font.BOLD));
+                    }
+                    break;
+                case SqlEntryTableModel.COLUMN_HINT:
+                    component.setForeground(getWarningAttributes().getForegroundColor());
+                    component.setFont(table.getFont().deriveFont(Font.BOLD));
+                    break;
+                default:
+                    break;
+            }
+            return component;
+        }
+    }
 }
@@ -16,7 +16,26 @@ public class SqlConsoleToolWindowFactory implements ToolWindowFactory {
     public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
         SqlConsolePanel consolePanel = new SqlConsolePanel(project);
         ContentFactory contentFactory = ContentFactory.getInstance();
-        Content content = contentFactory.createContent(consolePanel, "", false);
+        Content content = contentFactory.createContent(consolePanel, "SQL", false);
+        content.setDisposer(consolePanel);
         toolWindow.getContentManager().addContent(content);
+
+        // 热点语句排行榜
+        HotStatementPanel hotPanel = new HotStatementPanel(project);
+        Content hotContent = contentFactory.createContent(hotPanel, "热点语句", false);
+        hotContent.setDisposer(hotPanel);
+        toolWindow.getContentManager().addContent(hotContent);
+
+        // SQL 指纹统计
+        SqlFingerprintPanel fingerprintPanel = new SqlFingerprintPanel(project);
+        Content fingerprintContent = contentFactory.createContent(fingerprintPanel, "指纹统计", false);
+        fingerprintContent.setDisposer(fingerprintPanel);
+        toolWindow.getContentManager().addContent(fingerprintContent);
+
+        // Mapper 方法耗时分布
+        MapperStatsPanel mapperPanel = new MapperStatsPanel(project);
+        Content mapperContent = contentFactory.createContent(mapperPanel, "Mapper 统计", false);
+        mapperContent.setDisposer(mapperPanel);
+        toolWindow.getContentManager().addContent(mapperContent);
     }
 }
@@ -0,0 +1,207 @@
+package com.mybatis.sql.logger.ui;
+
+import com.mybatis.sql.logger.parser.ElapsedTime;
+import com.mybatis.sql.logger.service.SqlConsoleService;
+import com.mybatis.sql.logger.service.SqlEventStore;
+
+import javax.swing.table.AbstractTableModel;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * SQL 条目表格模型（虚拟化）
+ * 不复制任何数据：第 row 行对应事件存储中序号为 firstSequence + row 的事件，表格只为可见行调用 getValueAt。
+ * 设置了检索结果时，第 row 行对应结果数组中的第 row 个序号。
+ * 行数和起始序号只在 EDT 的 refresh() / setFilter() 中更新，保证两次通知之间模型对表格是稳定的
+ */
+class SqlEntryTableModel extends AbstractTableModel {
+
+    static final int COLUMN_TIME = 0;
+    static final int COLUMN_TYPE = 1;
+    static final int COLUMN_ELAPSED = 2;
+    static final int COLUMN_ROWS = 3;
+    static final int COLUMN_HINT = 4;
+    static final int COLUMN_STATEMENT = 5;
+    static final int COLUMN_SQL = 6;
+    private static final String[] COLUMNS = {"时间", "类型", "耗时 (ms)", "行数", "提示", "Mapper 方法", "SQL"};
+
+    // SQL 列只展示模板的前若干个字符（折叠空白后）
+    private static final int SQL_PREVIEW_LENGTH = 300;
+    // 最近读取的事件缓存，按序号取模定位；一次绘制同一行的多个单元格只读一次存储
+    private static final int CACHE_SIZE = 512;
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private final SqlConsoleService service;
+    private final SqlEventStore eventStore;
+    private final SqlEventStore.SqlEvent[] cache = new SqlEventStore.SqlEvent[CACHE_SIZE];
+    private long firstSequence = 0;
+    private int rowCount = 0;
+    // 检索结果（升序的事件序号），null 表示展示全部事件
+    private long[] filter;
+
+    SqlEntryTableModel(SqlConsoleService service) {
+        this.service = service;
+        this.eventStore = service.getEventStore();
+    }
+
+    /**
+     * 与事件存储同步，只发出必要的表格事件（必须在 EDT 中调用）
+     *
+     * @return 起始序号是否变化（旧事件被覆盖或存储被清空），此时行号整体平移
+     */
+    boolean refresh() {
+        if (filter != null) {
+            return false;
+        }
+        long newFirst = eventStore.getFirstSequence();
+        long newNext = eventStore.getNextSequence();
+        int newCount = (int) (newNext - newFirst);
+
+        if (newFirst != firstSequence || newCount < rowCount) {
+            firstSequence = newFirst;
+            rowCount = newCount;
+            fireTableDataChanged();
+            return true;
+        }
+        if (newCount > rowCount) {
+            int oldCount = rowCount;
+            rowCount = newCount;
+            fireTableRowsInserted(oldCount, newCount - 1);
+        }
+        return false;
+    }
+
+    /**
+     * 设置检索结果（必须在 EDT 中调用）；新结果只是在旧结果末尾追加时只发出插入事件
+     *
+     * @param sequences 升序的事件序号，null 表示取消过滤
+     * @return 已有行是否变化，此时行号可能整体平移
+     */
+    boolean setFilter(long[] sequences) {
+        long[] old = filter;
+        filter = sequences;
+        if (sequences == null) {
+            if (old != null) {
+                // 强制 refresh() 重建全部行
+                firstSequence = -1;
+            }
+            return refresh();
+        }
+
+        if (old != null && sequences.length >= old.length
+                && Arrays.equals(old, 0, old.length, sequences, 0, old.length)) {
+            rowCount = sequences.length;
+            if (sequences.length > old.length) {
+                fireTableRowsInserted(old.length, sequences.length - 1);
+            }
+            return false;
+        }
+        rowCount = sequences.length;
+        fireTableDataChanged();
+        return true;
+    }
+
+    boolean isFiltered() {
+        return filter != null;
+    }
+
+    /**
+     * 指定行对应的事件序号（不读取事件）
+     */
+    long sequenceAt(int row) {
+        return filter != null ? filter[row] : firstSequence + row;
+    }
+
+    /**
+     * 获取指定行的事件；事件已被覆盖时返回 null
+     */
+    SqlEventStore.SqlEvent getEvent(int row) {
+        if (row < 0 || row >= rowCount) {
+            return null;
+        }
+        long sequence = sequenceAt(row);
+        int slot = (int) (sequence % CACHE_SIZE);
+        SqlEventStore.SqlEvent event = cache[slot];
+        if (event == null || event.getSequence() != sequence) {
+            event = eventStore.get(sequence);
+            cache[slot] = event;
+        }
+        return event;
+    }
+
+    /**
+     * 事件序号对应的行号，不在当前范围内时返回 -1
+     */
+    int rowOf(long sequence) {
+        if (filter != null) {
+            int row = Arrays.binarySearch(filter, sequence);
+            return row >= 0 ? row : -1;
+        }
+        long row = sequence - firstSequence;
+        return row >= 0 && row < rowCount ? (int) row : -1;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        SqlEventStore.SqlEvent event = getEvent(rowIndex);
+        if (event == null) {
+            return null;
+        }
+        switch (columnIndex) {
+            case COLUMN_TIME:
+                return TIME_FORMAT.format(Instant.ofEpochMilli(event.getTimestamp()));
+            case COLUMN_TYPE:
+                return event.getSqlType().name();
+            case COLUMN_ELAPSED:
+                return ElapsedTime.format(event.getElapsedNanos());
+            case COLUMN_ROWS:
+                return event.getRowCount() >= 0 ? String.valueOf(event.getRowCount()) : "";
+            case COLUMN_HINT:
+                return service.getNPlusOneWarning(event.getSequence()) != null ? "N+1" : "";
+            case COLUMN_STATEMENT:
+                return event.getStatementId();
+            case COLUMN_SQL:
+            default:
+                return preview(event.getTemplate());
+        }
+    }
+
+    private static String preview(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        StringBuilder preview = new StringBuilder(Math.min(sql.length(), SQL_PREVIEW_LENGTH));
+        boolean pendingSpace = false;
+        for (int i = 0; i < sql.length() && preview.length() < SQL_PREVIEW_LENGTH; i++) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = preview.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                preview.append(' ');
+                pendingSpace = false;
+            }
+            preview.append(c);
+        }
+        return preview.toString();
+    }
+}
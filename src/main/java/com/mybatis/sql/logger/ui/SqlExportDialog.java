@@ -0,0 +1,71 @@
+package com.mybatis.sql.logger.ui;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.util.ui.FormBuilder;
+import com.mybatis.sql.logger.parser.SqlRecordWriter;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+
+/**
+ * 导出 SQL 对话框：选择格式、范围（全部或选中的行）和检索条件
+ */
+class SqlExportDialog extends DialogWrapper {
+
+    private final ComboBox<SqlRecordWriter.Format> formatCombo = new ComboBox<>(SqlRecordWriter.Format.values());
+    private final JRadioButton allButton = new JRadioButton("全部 SQL");
+    private final JRadioButton selectedButton;
+    private final JBTextField queryField = new JBTextField();
+
+    SqlExportDialog(Project project, String query, int selectedCount) {
+        super(project);
+        setTitle("导出 SQL");
+        selectedButton = new JRadioButton("选中的行（" + selectedCount + " 条）");
+        selectedButton.setEnabled(selectedCount > 0);
+
+        ButtonGroup scopeGroup = new ButtonGroup();
+        scopeGroup.add(allButton);
+        scopeGroup.add(selectedButton);
+        if (selectedCount > 1) {
+            selectedButton.setSelected(true);
+        } else {
+            allButton.setSelected(true);
+        }
+
+        queryField.setText(query);
+        queryField.getEmptyText().setText("不过滤");
+        queryField.setToolTipText("与控制台检索框语法相同，例如 type:update table:order_item mapper:selectById");
+        queryField.setEnabled(allButton.isSelected());
+        allButton.addItemListener(e -> queryField.setEnabled(allButton.isSelected()));
+        init();
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        JPanel scopePanel = new JPanel();
+        scopePanel.setLayout(new BoxLayout(scopePanel, BoxLayout.Y_AXIS));
+        scopePanel.add(allButton);
+        scopePanel.add(selectedButton);
+
+        return FormBuilder.createFormBuilder()
+                .addLabeledComponent("格式:", formatCombo)
+                .addLabeledComponent("范围:", scopePanel)
+                .addLabeledComponent("检索条件:", queryField)
+                .getPanel();
+    }
+
+    SqlRecordWriter.Format getFormat() {
+        return (SqlRecordWriter.Format) formatCombo.getSelectedItem();
+    }
+
+    boolean isSelectedOnly() {
+        return selectedButton.isSelected();
+    }
+
+    String getQuery() {
+        return queryField.getText().trim();
+    }
+}
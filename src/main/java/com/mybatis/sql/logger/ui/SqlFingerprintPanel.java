@@ -0,0 +1,132 @@
+package com.mybatis.sql.logger.ui;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.Alarm;
+import com.mybatis.sql.logger.service.SqlConsoleService;
+import com.mybatis.sql.logger.service.SqlFingerprintStats;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * SQL 指纹统计面板
+ * 按语句形状（指纹）汇总执行次数，定时从 SqlConsoleService 的聚合结果刷新
+ */
+public class SqlFingerprintPanel extends JPanel implements Disposable {
+
+    private static final int REFRESH_INTERVAL_MS = 1000;
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private final Project project;
+    private final FingerprintTableModel tableModel = new FingerprintTableModel();
+    private final JLabel summaryLabel = new JLabel();
+    private final Alarm refreshAlarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, this);
+
+    public SqlFingerprintPanel(Project project) {
+        super(new BorderLayout());
+        this.project = project;
+
+        JBTable table = new JBTable(tableModel);
+        table.setAutoCreateRowSorter(true);
+        table.getColumnModel().getColumn(FingerprintTableModel.COLUMN_SQL).setPreferredWidth(600);
+
+        add(summaryLabel, BorderLayout.NORTH);
+        add(new JBScrollPane(table), BorderLayout.CENTER);
+
+        scheduleRefresh();
+    }
+
+    private void scheduleRefresh() {
+        refreshAlarm.addRequest(() -> {
+            // 面板不可见时不刷新
+            if (isShowing()) {
+                refresh();
+            }
+            scheduleRefresh();
+        }, REFRESH_INTERVAL_MS);
+    }
+
+    private void refresh() {
+        SqlFingerprintStats stats = SqlConsoleService.getInstance(project).getFingerprintStats();
+        List<SqlFingerprintStats.TemplateStats> rows = stats.getAll();
+        rows.sort(Comparator.comparingLong(SqlFingerprintStats.TemplateStats::getCount).reversed());
+        tableModel.setRows(rows);
+
+        long overflow = stats.getOverflowCount();
+        summaryLabel.setText(" 共 " + rows.size() + " 种语句" + (overflow > 0 ? "，" + overflow + " 次执行超出跟踪上限" : ""));
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    /**
+     * 指纹统计表格模型
+     */
+    private static class FingerprintTableModel extends AbstractTableModel {
+        private static final int COLUMN_SQL = 6;
+        private static final String[] COLUMNS = {"次数", "类型", "参数个数", "首次执行", "最近执行", "指纹", "SQL 模板"};
+
+        private List<SqlFingerprintStats.TemplateStats> rows = new ArrayList<>();
+
+        void setRows(List<SqlFingerprintStats.TemplateStats> rows) {
+            this.rows = rows;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column == 0 ? Long.class : String.class;
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            SqlFingerprintStats.TemplateStats row = rows.get(rowIndex);
+            switch (columnIndex) {
+                case 0:
+                    return row.getCount();
+                case 1:
+                    return row.getSqlType().name();
+                case 2:
+                    return row.getMinParams() == row.getMaxParams()
+                            ? String.valueOf(row.getMinParams())
+                            : row.getMinParams() + " - " + row.getMaxParams();
+                case 3:
+                    return TIME_FORMAT.format(Instant.ofEpochMilli(row.getFirstSeen()));
+                case 4:
+                    return TIME_FORMAT.format(Instant.ofEpochMilli(row.getLastSeen()));
+                case 5:
+                    return row.getFingerprint().getHashHex();
+                case COLUMN_SQL:
+                default:
+                    return row.getFingerprint().getNormalizedSql();
+            }
+        }
+    }
+}
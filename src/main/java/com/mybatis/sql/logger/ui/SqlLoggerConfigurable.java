@@ -0,0 +1,200 @@
+package com.mybatis.sql.logger.ui;
+
+import com.intellij.openapi.options.Configurable;
+import com.intellij.openapi.options.ConfigurationException;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextArea;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.util.ui.FormBuilder;
+import com.mybatis.sql.logger.parser.CorrelationKeyExtractor;
+import com.mybatis.sql.logger.parser.SqlFilter;
+import com.mybatis.sql.logger.service.NPlusOneDetector;
+import com.mybatis.sql.logger.service.SqlLoggerSettings;
+import org.jetbrains.annotations.Nls;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+
+/**
+ * 插件设置页面（Settings → Tools → MyBatis SQL Logger）
+ */
+public class SqlLoggerConfigurable implements Configurable {
+
+    private JPanel mainPanel;
+    private JSpinner queueCapacitySpinner;
+    private ComboBox<SqlLoggerSettings.OverflowPolicy> overflowPolicyCombo;
+    private JSpinner maxLineLengthSpinner;
+    private ComboBox<CorrelationKeyExtractor.Mode> correlationModeCombo;
+    private JBTextField correlationPatternField;
+    private JSpinner maxPendingSpinner;
+    private JSpinner pendingTtlSpinner;
+    private JSpinner completionWaitSpinner;
+    private JSpinner eventStoreCapacitySpinner;
+    private JSpinner slowSqlThresholdSpinner;
+    private JSpinner largeResultThresholdSpinner;
+    private JCheckBox nPlusOneEnabledCheckBox;
+    private JSpinner nPlusOneThresholdSpinner;
+    private JSpinner nPlusOneWindowSpinner;
+    private JBTextArea filterRulesArea;
+    private JCheckBox sessionLogEnabledCheckBox;
+    private JSpinner sessionLogSegmentSpinner;
+    private JSpinner sessionLogMaxSizeSpinner;
+    private JSpinner sessionLogMaxAgeSpinner;
+    private JSpinner socketIngestPortSpinner;
+
+    @Override
+    public @Nls(capitalization = Nls.Capitalization.Title) String getDisplayName() {
+        return "MyBatis SQL Logger";
+    }
+
+    @Override
+    public @Nullable JComponent createComponent() {
+        queueCapacitySpinner = new JSpinner(new SpinnerNumberModel(65536, 1024, 4 * 1024 * 1024, 1024));
+        overflowPolicyCombo = new ComboBox<>(SqlLoggerSettings.OverflowPolicy.values());
+        maxLineLengthSpinner = new JSpinner(new SpinnerNumberModel(4 * 1024 * 1024, 1024, 256 * 1024 * 1024, 1024));
+        correlationModeCombo = new ComboBox<>(CorrelationKeyExtractor.Mode.values());
+        correlationPatternField = new JBTextField();
+        maxPendingSpinner = new JSpinner(new SpinnerNumberModel(1024, 16, 1_000_000, 64));
+        pendingTtlSpinner = new JSpinner(new SpinnerNumberModel(60, 1, 3600, 1));
+        completionWaitSpinner = new JSpinner(new SpinnerNumberModel(3000, 100, 600_000, 500));
+        eventStoreCapacitySpinner = new JSpinner(new SpinnerNumberModel(100_000, 1000, 10_000_000, 10_000));
+        slowSqlThresholdSpinner = new JSpinner(new SpinnerNumberModel(1000, 1, 3_600_000, 100));
+        largeResultThresholdSpinner = new JSpinner(new SpinnerNumberModel(1000, 1, Integer.MAX_VALUE, 100));
+        nPlusOneEnabledCheckBox = new JCheckBox("检测 N+1 查询");
+        nPlusOneThresholdSpinner = new JSpinner(new SpinnerNumberModel(10, 2, NPlusOneDetector.WINDOW_CAPACITY, 1));
+        nPlusOneWindowSpinner = new JSpinner(new SpinnerNumberModel(1000, 10, 600_000, 100));
+        sessionLogEnabledCheckBox = new JCheckBox("把捕获的 SQL 写入会话日志（可在 SQL 工具栏中重新打开）");
+        sessionLogSegmentSpinner = new JSpinner(new SpinnerNumberModel(8, 1, 1024, 1));
+        sessionLogMaxSizeSpinner = new JSpinner(new SpinnerNumberModel(512, 16, 1024 * 1024, 64));
+        sessionLogMaxAgeSpinner = new JSpinner(new SpinnerNumberModel(7, 1, 3650, 1));
+        socketIngestPortSpinner = new JSpinner(new SpinnerNumberModel(4560, 1024, 65535, 1));
+        socketIngestPortSpinner.setEditor(new JSpinner.NumberEditor(socketIngestPortSpinner, "#"));
+        filterRulesArea = new JBTextArea(6, 40);
+        filterRulesArea.setToolTipText("<html>每行一条规则，# 开头为注释：<br>"
+                + "exclude table:qrtz_*<br>"
+                + "exclude type:insert table:audit_log<br>"
+                + "include mapper:com.acme.*<br>"
+                + "min-latency 5<br>"
+                + "字段：type / table / mapper / fingerprint（指纹或归一化 SQL），* 匹配任意字符</html>");
+
+        mainPanel = FormBuilder.createFormBuilder()
+                .addLabeledComponent("日志行队列容量:", queueCapacitySpinner)
+                .addLabeledComponent("队列满时策略:", overflowPolicyCombo)
+                .addLabeledComponent("单行最大长度（字符）:", maxLineLengthSpinner)
+                .addSeparator()
+                .addLabeledComponent("Preparing/Parameters 关联方式:", correlationModeCombo)
+                .addLabeledComponent("自定义关联正则（第一个捕获组）:", correlationPatternField)
+                .addLabeledComponent("最多待配对语句数:", maxPendingSpinner)
+                .addLabeledComponent("待配对超时（秒）:", pendingTtlSpinner)
+                .addLabeledComponent("等待 Total/Updates 行（毫秒）:", completionWaitSpinner)
+                .addSeparator()
+                .addLabeledComponent("SQL 事件存储容量（重启项目后生效）:", eventStoreCapacitySpinner)
+                .addLabeledComponent("慢 SQL 阈值（毫秒）:", slowSqlThresholdSpinner)
+                .addLabeledComponent("大结果集阈值（行）:", largeResultThresholdSpinner)
+                .addSeparator()
+                .addComponent(nPlusOneEnabledCheckBox)
+                .addLabeledComponent("N+1 重复次数阈值:", nPlusOneThresholdSpinner)
+                .addLabeledComponent("N+1 检测窗口（毫秒）:", nPlusOneWindowSpinner)
+                .addSeparator()
+                .addComponent(sessionLogEnabledCheckBox)
+                .addLabeledComponent("会话日志段文件大小（MB）:", sessionLogSegmentSpinner)
+                .addLabeledComponent("会话日志总大小上限（MB）:", sessionLogMaxSizeSpinner)
+                .addLabeledComponent("会话日志保留天数:", sessionLogMaxAgeSpinner)
+                .addSeparator()
+                .addLabeledComponent("本地日志端口（TCP，仅 127.0.0.1，重新开始监听后生效）:", socketIngestPortSpinner)
+                .addSeparator()
+                .addLabeledComponent("入库过滤规则（新启动的运行生效）:", new JBScrollPane(filterRulesArea), true)
+                .addComponentFillVertically(new JPanel(), 0)
+                .getPanel();
+        reset();
+        return mainPanel;
+    }
+
+    @Override
+    public boolean isModified() {
+        SqlLoggerSettings.State state = SqlLoggerSettings.getInstance().getState();
+        return (Integer) queueCapacitySpinner.getValue() != state.ingestionQueueCapacity
+                || overflowPolicyCombo.getSelectedItem() != state.overflowPolicy
+                || (Integer) maxLineLengthSpinner.getValue() != state.maxLineLength
+                || correlationModeCombo.getSelectedItem() != state.correlationMode
+                || !correlationPatternField.getText().equals(state.correlationPattern)
+                || (Integer) maxPendingSpinner.getValue() != state.maxPendingStatements
+                || (Integer) pendingTtlSpinner.getValue() != state.pendingTtlSeconds
+                || (Integer) completionWaitSpinner.getValue() != state.completionWaitMillis
+                || (Integer) eventStoreCapacitySpinner.getValue() != state.eventStoreCapacity
+                || (Integer) slowSqlThresholdSpinner.getValue() != state.slowSqlThresholdMillis
+                || (Integer) largeResultThresholdSpinner.getValue() != state.largeResultThresholdRows
+                || nPlusOneEnabledCheckBox.isSelected() != state.nPlusOneEnabled
+                || (Integer) nPlusOneThresholdSpinner.getValue() != state.nPlusOneThreshold
+                || (Integer) nPlusOneWindowSpinner.getValue() != state.nPlusOneWindowMillis
+                || sessionLogEnabledCheckBox.isSelected() != state.sessionLogEnabled
+                || (Integer) sessionLogSegmentSpinner.getValue() != state.sessionLogSegmentMegabytes
+                || (Integer) sessionLogMaxSizeSpinner.getValue() != state.sessionLogMaxMegabytes
+                || (Integer) sessionLogMaxAgeSpinner.getValue() != state.sessionLogMaxAgeDays
+                || (Integer) socketIngestPortSpinner.getValue() != state.socketIngestPort
+                || !filterRulesArea.getText().equals(state.filterRules);
+    }
+
+    @Override
+    public void apply() throws ConfigurationException {
+        // 先校验过滤规则，有误时不保存任何设置
+        try {
+            SqlFilter.compile(filterRulesArea.getText());
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException(e.getMessage(), "过滤规则有误");
+        }
+
+        SqlLoggerSettings.State state = SqlLoggerSettings.getInstance().getState();
+        state.ingestionQueueCapacity = (Integer) queueCapacitySpinner.getValue();
+        state.overflowPolicy = (SqlLoggerSettings.OverflowPolicy) overflowPolicyCombo.getSelectedItem();
+        state.maxLineLength = (Integer) maxLineLengthSpinner.getValue();
+        state.correlationMode = (CorrelationKeyExtractor.Mode) correlationModeCombo.getSelectedItem();
+        state.correlationPattern = correlationPatternField.getText();
+        state.maxPendingStatements = (Integer) maxPendingSpinner.getValue();
+        state.pendingTtlSeconds = (Integer) pendingTtlSpinner.getValue();
+        state.completionWaitMillis = (Integer) completionWaitSpinner.getValue();
+        state.eventStoreCapacity = (Integer) eventStoreCapacitySpinner.getValue();
+        state.slowSqlThresholdMillis = (Integer) slowSqlThresholdSpinner.getValue();
+        state.largeResultThresholdRows = (Integer) largeResultThresholdSpinner.getValue();
+        state.nPlusOneEnabled = nPlusOneEnabledCheckBox.isSelected();
+        state.nPlusOneThreshold = (Integer) nPlusOneThresholdSpinner.getValue();
+        state.nPlusOneWindowMillis = (Integer) nPlusOneWindowSpinner.getValue();
+        state.sessionLogEnabled = sessionLogEnabledCheckBox.isSelected();
+        state.sessionLogSegmentMegabytes = (Integer) sessionLogSegmentSpinner.getValue();
+        state.sessionLogMaxMegabytes = (Integer) sessionLogMaxSizeSpinner.getValue();
+        state.sessionLogMaxAgeDays = (Integer) sessionLogMaxAgeSpinner.getValue();
+        state.socketIngestPort = (Integer) socketIngestPortSpinner.getValue();
+        state.filterRules = filterRulesArea.getText();
+    }
+
+    @Override
+    public void reset() {
+        SqlLoggerSettings.State state = SqlLoggerSettings.getInstance().getState();
+        queueCapacitySpinner.setValue(state.ingestionQueueCapacity);
+        overflowPolicyCombo.setSelectedItem(state.overflowPolicy);
+        maxLineLengthSpinner.setValue(state.maxLineLength);
+        correlationModeCombo.setSelectedItem(state.correlationMode);
+        correlationPatternField.setText(state.correlationPattern);
+        maxPendingSpinner.setValue(state.maxPendingStatements);
+        pendingTtlSpinner.setValue(state.pendingTtlSeconds);
+        completionWaitSpinner.setValue(state.completionWaitMillis);
+        eventStoreCapacitySpinner.setValue(state.eventStoreCapacity);
+        slowSqlThresholdSpinner.setValue(state.slowSqlThresholdMillis);
+        largeResultThresholdSpinner.setValue(state.largeResultThresholdRows);
+        nPlusOneEnabledCheckBox.setSelected(state.nPlusOneEnabled);
+        nPlusOneThresholdSpinner.setValue(state.nPlusOneThreshold);
+        nPlusOneWindowSpinner.setValue(state.nPlusOneWindowMillis);
+        sessionLogEnabledCheckBox.setSelected(state.sessionLogEnabled);
+        sessionLogSegmentSpinner.setValue(state.sessionLogSegmentMegabytes);
+        sessionLogMaxSizeSpinner.setValue(state.sessionLogMaxMegabytes);
+        sessionLogMaxAgeSpinner.setValue(state.sessionLogMaxAgeDays);
+        socketIngestPortSpinner.setValue(state.socketIngestPort);
+        filterRulesArea.setText(state.filterRules);
+    }
+
+    @Override
+    public void disposeUIResources() {
+        mainPanel = null;
+    }
+}
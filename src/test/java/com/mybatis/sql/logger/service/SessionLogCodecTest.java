@@ -0,0 +1,96 @@
+package com.mybatis.sql.logger.service;
+
+import com.mybatis.sql.logger.parser.SqlLogParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SessionLogCodecTest {
+
+    @Test
+    void roundTripsRecordWithTypedParameters() throws IOException {
+        List<Object> parameters = Arrays.asList(null, "张三", 7, 9L, 1.25, true, new BigDecimal("12.500"));
+        String sql = "SELECT * FROM t WHERE " + "a = ? AND ".repeat(parameters.size()) + "1 = 1";
+        SqlLogParser.ParsedSql record = new SqlLogParser.ParsedSql(sql, parameters, "main", "com.example.UserMapper.select",
+                1_700_000_000_123L, 3, 423_512);
+
+        List<SqlLogParser.ParsedSql> read = roundTrip(SessionLogManager.FORMAT_VERSION, record, record);
+
+        for (SqlLogParser.ParsedSql copy : read) {
+            assertEquals(record.getOriginalSql(), copy.getOriginalSql());
+            assertEquals(parameters, copy.getParameters());
+            assertEquals("main", copy.getThreadName());
+            assertEquals("com.example.UserMapper.select", copy.getStatementId());
+            assertEquals(1_700_000_000_123L, copy.getTimestamp());
+            assertEquals(3, copy.getRowCount());
+            assertEquals(423_512, copy.getElapsedNanos());
+        }
+    }
+
+    @Test
+    void roundTripsNullFieldsAndLongSql() throws IOException {
+        // 超过 writeUTF 的 64 KB 上限
+        String sql = "SELECT '" + "x".repeat(70_000) + "'";
+        SqlLogParser.ParsedSql record = new SqlLogParser.ParsedSql(sql, null, null, null, 0, -1, -1);
+
+        SqlLogParser.ParsedSql copy = roundTrip(SessionLogManager.FORMAT_VERSION, record).get(0);
+
+        assertEquals(sql, copy.getOriginalSql());
+        assertEquals(List.of(), copy.getParameters());
+        assertNull(copy.getThreadName());
+        assertNull(copy.getStatementId());
+        assertEquals(-1, copy.getRowCount());
+        assertEquals(-1, copy.getElapsedNanos());
+    }
+
+    @Test
+    void readsMillisecondElapsedTimeFromVersionOneFiles() throws IOException {
+        // 版本 1 的记录布局相同，耗时字段为毫秒
+        SqlLogParser.ParsedSql record = new SqlLogParser.ParsedSql("SELECT 1", List.of(), null, null, 0, 1, 12);
+
+        assertEquals(12_000_000, roundTrip(1, record).get(0).getElapsedNanos());
+        record = new SqlLogParser.ParsedSql("SELECT 1", List.of(), null, null, 0, 1, -1);
+        assertEquals(-1, roundTrip(1, record).get(0).getElapsedNanos());
+    }
+
+    @Test
+    void rejectsUnknownParameterTag() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SessionLogCodec.write(new DataOutputStream(bytes),
+                new SqlLogParser.ParsedSql("SELECT ?", Arrays.asList((Object) null), null, null, 0, -1, -1));
+        byte[] data = bytes.toByteArray();
+        // 唯一一个参数的类型标记是记录的最后一个字节
+        data[data.length - 1] = 99;
+
+        assertThrows(IOException.class,
+                () -> SessionLogCodec.read(new DataInputStream(new ByteArrayInputStream(data)),
+                        SessionLogManager.FORMAT_VERSION));
+    }
+
+    private static List<SqlLogParser.ParsedSql> roundTrip(int formatVersion, SqlLogParser.ParsedSql... records)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (SqlLogParser.ParsedSql record : records) {
+            SessionLogCodec.write(out, record);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        SqlLogParser.ParsedSql[] read = new SqlLogParser.ParsedSql[records.length];
+        for (int i = 0; i < records.length; i++) {
+            read[i] = SessionLogCodec.read(in, formatVersion);
+        }
+        assertEquals(-1, in.read());
+        return Arrays.asList(read);
+    }
+}